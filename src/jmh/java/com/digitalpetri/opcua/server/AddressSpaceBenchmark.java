@@ -0,0 +1,244 @@
+package com.digitalpetri.opcua.server;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+import com.digitalpetri.opcua.server.namespace.demo.DemoNamespace;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseDirection;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseResultMask;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.CreateMonitoredItemsResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringParameters;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReferenceDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Round-trip Read, Browse, Write, and CreateMonitoredItems against the demo address space
+ * fragments, using an in-process server and client built with {@link OpcUaTestServerBuilder} and
+ * {@link OpcUaTestClient}.
+ *
+ * <p>Each operation is issued as a single request for {@link #BATCH_SIZE} nodes of the selected
+ * fragment. Turtles are Objects, so their DisplayName is read and monitored instead of their
+ * Value; writes to Turtles and the read-only Dynamic Variables measure the rejection path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AddressSpaceBenchmark {
+
+  static final int BATCH_SIZE = 100;
+
+  @Param({"Mass", "Turtles", "Dynamic", "AllProfiles", "DataTypeTest"})
+  public String fragment;
+
+  private OpcUaDemoServer server;
+  private OpcUaClient client;
+
+  private List<ReadValueId> readValueIds;
+  private List<BrowseDescription> browseDescriptions;
+  private List<NodeId> writeNodeIds;
+  private List<DataValue> writeValues;
+  private List<MonitoredItemCreateRequest> createRequests;
+
+  private UInteger subscriptionId;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    server =
+        OpcUaTestServerBuilder.builder()
+            .withDataDir(Files.createTempDirectory("opcua-benchmark-"))
+            .withConfig(benchmarkConfig())
+            .build();
+    server.startup();
+
+    client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    UShort namespaceIndex =
+        server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI);
+
+    List<NodeId> nodeIds = targetNodeIds(Objects.requireNonNull(namespaceIndex));
+    if (nodeIds.isEmpty()) {
+      throw new IllegalStateException("no nodes found for fragment: " + fragment);
+    }
+
+    UInteger attributeId =
+        fragment.equals("Turtles") ? AttributeId.DisplayName.uid() : AttributeId.Value.uid();
+
+    readValueIds =
+        nodeIds.stream()
+            .map(id -> new ReadValueId(id, attributeId, null, QualifiedName.NULL_VALUE))
+            .toList();
+
+    browseDescriptions = nodeIds.stream().map(AddressSpaceBenchmark::browseDescription).toList();
+
+    writeNodeIds = nodeIds;
+    writeValues =
+        client.readValues(0.0, TimestampsToReturn.Neither, nodeIds).stream()
+            .map(v -> new DataValue(v.getValue()))
+            .toList();
+
+    createRequests = new ArrayList<>();
+    for (int i = 0; i < readValueIds.size(); i++) {
+      createRequests.add(
+          new MonitoredItemCreateRequest(
+              readValueIds.get(i),
+              MonitoringMode.Reporting,
+              new MonitoringParameters(uint(i), 1000.0, null, uint(1), true)));
+    }
+
+    subscriptionId =
+        client
+            .createSubscription(1000.0, uint(10_000), uint(10), uint(0), true, ubyte(0))
+            .getSubscriptionId();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (client != null) {
+      client.disconnect();
+    }
+    if (server != null) {
+      server.shutdown();
+    }
+  }
+
+  @Benchmark
+  public Object read() throws Exception {
+    return client.read(0.0, TimestampsToReturn.Both, readValueIds);
+  }
+
+  @Benchmark
+  public Object browse() throws Exception {
+    return client.browse(browseDescriptions);
+  }
+
+  @Benchmark
+  public Object write() throws Exception {
+    return client.writeValues(writeNodeIds, writeValues);
+  }
+
+  /** Create {@link #BATCH_SIZE} monitored items, then delete them so each call starts over. */
+  @Benchmark
+  public Object createMonitoredItems() throws Exception {
+    CreateMonitoredItemsResponse response =
+        client.createMonitoredItems(subscriptionId, TimestampsToReturn.Both, createRequests);
+
+    var monitoredItemIds = new ArrayList<UInteger>();
+    for (MonitoredItemCreateResult result : Objects.requireNonNull(response.getResults())) {
+      if (result.getStatusCode().isGood()) {
+        monitoredItemIds.add(result.getMonitoredItemId());
+      }
+    }
+
+    return client.deleteMonitoredItems(subscriptionId, monitoredItemIds);
+  }
+
+  private List<NodeId> targetNodeIds(UShort namespaceIndex) throws Exception {
+    return switch (fragment) {
+      case "Mass" -> {
+        // the Variables of the first outer folder in Mass/Nested.
+        NodeId nested = new NodeId(namespaceIndex, "Demo.Mass.Nested");
+        NodeId outer = browseChildren(nested, NodeClass.Object).getFirst();
+        yield browseChildren(outer, NodeClass.Variable);
+      }
+      case "Turtles" -> {
+        var nodeIds = new ArrayList<NodeId>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+          nodeIds.add(new NodeId(namespaceIndex, "[turtles]" + i));
+        }
+        yield nodeIds;
+      }
+      case "Dynamic" ->
+          browseChildren(new NodeId(namespaceIndex, "Demo.Dynamic"), NodeClass.Variable);
+      case "AllProfiles" ->
+          browseChildren(
+              new NodeId(namespaceIndex, "CTT.Static.AllProfiles.Scalar"), NodeClass.Variable);
+      case "DataTypeTest" ->
+          browseChildren(new NodeId(namespaceIndex, "Demo.DataTypeTest"), NodeClass.Variable);
+      default -> throw new IllegalArgumentException("unknown fragment: " + fragment);
+    };
+  }
+
+  private List<NodeId> browseChildren(NodeId parentNodeId, NodeClass nodeClass) throws Exception {
+    var browseDescription =
+        new BrowseDescription(
+            parentNodeId,
+            BrowseDirection.Forward,
+            null,
+            true,
+            uint(nodeClass.getValue()),
+            uint(BrowseResultMask.All.getValue()));
+
+    BrowseResult browseResult = client.browse(browseDescription);
+
+    var nodeIds = new ArrayList<NodeId>();
+    for (ReferenceDescription reference : Objects.requireNonNull(browseResult.getReferences())) {
+      reference.getNodeId().toNodeId(client.getNamespaceTable()).ifPresent(nodeIds::add);
+      if (nodeIds.size() == BATCH_SIZE) break;
+    }
+    return nodeIds;
+  }
+
+  private static BrowseDescription browseDescription(NodeId nodeId) {
+    return new BrowseDescription(
+        nodeId,
+        BrowseDirection.Both,
+        null,
+        true,
+        uint(0),
+        uint(BrowseResultMask.All.getValue()));
+  }
+
+  private static Config benchmarkConfig() {
+    Map<String, Object> config = new HashMap<>();
+    config.put("address-space.ctt.enabled", true);
+    config.put("address-space.data-type-test.enabled", true);
+    config.put("address-space.dynamic.enabled", true);
+    config.put("address-space.mass.enabled", true);
+    config.put("address-space.mass.flat-quantity", 1000);
+    config.put("address-space.mass.nested-quantity1", 10);
+    config.put("address-space.mass.nested-quantity2", BATCH_SIZE);
+    config.put("address-space.turtles.enabled", true);
+    config.put("address-space.turtles.depth", 1_000_000);
+    return ConfigFactory.parseMap(config);
+  }
+}
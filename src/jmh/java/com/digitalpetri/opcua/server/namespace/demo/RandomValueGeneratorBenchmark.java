@@ -0,0 +1,119 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.XmlElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares one {@link DynamicNodesFragment} update, a random value for every {@link
+ * OpcUaDataType}, using {@link RandomValueGenerator} against the original per-call allocation
+ * approach.
+ *
+ * <p>Run with {@code -prof gc} to compare allocation rates ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomValueGeneratorBenchmark {
+
+  private static final OpcUaDataType[] DATA_TYPES = OpcUaDataType.values();
+
+  private final RandomValueGenerator generator = new RandomValueGenerator();
+  private final Variant[] previous = new Variant[DATA_TYPES.length];
+
+  @Benchmark
+  public void legacy(Blackhole bh) {
+    for (OpcUaDataType dataType : DATA_TYPES) {
+      bh.consume(legacyRandomValue(dataType));
+    }
+  }
+
+  @Benchmark
+  public void generator(Blackhole bh) {
+    var now = DateTime.now();
+    var nowVariant = Variant.ofDateTime(now);
+
+    for (OpcUaDataType dataType : DATA_TYPES) {
+      Variant value = generator.next(dataType, nowVariant, previous[dataType.ordinal()]);
+      previous[dataType.ordinal()] = value;
+
+      bh.consume(new DataValue(value, StatusCode.GOOD, now, now));
+    }
+  }
+
+  /** The per-call allocating implementation {@link RandomValueGenerator} replaced. */
+  private static DataValue legacyRandomValue(OpcUaDataType dataType) {
+    Object v =
+        switch (dataType) {
+          case Boolean -> Math.random() > 0.5;
+          case SByte -> (byte) (Math.random() * 256 - 128);
+          case Int16 -> (short) (Math.random() * 65536 - 32768);
+          case Int32 -> (int) (Math.random() * Integer.MAX_VALUE * 2 - Integer.MAX_VALUE);
+          case Int64 -> (long) (Math.random() * Long.MAX_VALUE);
+          case Byte -> ubyte((short) (Math.random() * 256));
+          case UInt16 -> ushort((int) (Math.random() * 65536));
+          case UInt32 -> uint((long) (Math.random() * Integer.MAX_VALUE));
+          case UInt64 -> ulong(Math.round(Math.random() * Long.MAX_VALUE));
+          case Float -> (float) Math.random() * 1000;
+          case Double -> Math.random() * 1000;
+          case String -> UUID.randomUUID().toString();
+          case DateTime -> new DateTime();
+          case Guid -> UUID.randomUUID();
+          case ByteString -> {
+            byte[] bytes = new byte[16];
+            new java.util.Random().nextBytes(bytes);
+            yield ByteString.of(bytes);
+          }
+          case XmlElement -> new XmlElement("<random>" + UUID.randomUUID() + "</random>");
+          case NodeId -> new NodeId(1, (int) (Math.random() * 1000));
+          case ExpandedNodeId -> new NodeId(1, (int) (Math.random() * 1000)).expanded();
+          case StatusCode -> new StatusCode((int) (Math.random() * 0xFFFF));
+          case QualifiedName ->
+              new QualifiedName(1, "Random-" + UUID.randomUUID().toString().substring(0, 8));
+          case LocalizedText ->
+              new LocalizedText("en", "Random-" + UUID.randomUUID().toString().substring(0, 8));
+          case ExtensionObject -> {
+            byte[] bytes = new byte[8];
+            new java.util.Random().nextBytes(bytes);
+            yield ExtensionObject.of(ByteString.of(bytes), NodeId.NULL_VALUE);
+          }
+          case DataValue -> new DataValue(Variant.of(Math.random() * 100));
+          case Variant -> Variant.of(Math.random() * 100);
+          case DiagnosticInfo -> null;
+        };
+
+    if (v instanceof Variant variant) {
+      return new DataValue(variant);
+    } else {
+      return new DataValue(Variant.of(v));
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link TurtleNodesFragment#turtleNumber(NodeId, long)} against the substring and
+ * {@code Long.parseLong} approach it replaced, for a turtle, a non-turtle node in the same
+ * namespace, and a malformed turtle identifier.
+ *
+ * <p>Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TurtleNodeIdBenchmark {
+
+  private static final long DEPTH = 1_000_000;
+
+  private final NodeId turtle = new NodeId(2, "[turtles]765432");
+  private final NodeId notTurtle = new NodeId(2, "Demo.Mass.Flat.00042");
+  private final NodeId malformed = new NodeId(2, "[turtles]12x");
+
+  @Benchmark
+  public long legacyTurtle() {
+    return legacyTurtleNumber(turtle, DEPTH);
+  }
+
+  @Benchmark
+  public long turtle() {
+    return TurtleNodesFragment.turtleNumber(turtle, DEPTH);
+  }
+
+  @Benchmark
+  public long legacyNotTurtle() {
+    return legacyTurtleNumber(notTurtle, DEPTH);
+  }
+
+  @Benchmark
+  public long notTurtle() {
+    return TurtleNodesFragment.turtleNumber(notTurtle, DEPTH);
+  }
+
+  @Benchmark
+  public long legacyMalformed() {
+    return legacyTurtleNumber(malformed, DEPTH);
+  }
+
+  @Benchmark
+  public long malformed() {
+    return TurtleNodesFragment.turtleNumber(malformed, DEPTH);
+  }
+
+  /** The parsing {@link TurtleNodesFragment} did before {@code turtleNumber}. */
+  private static long legacyTurtleNumber(NodeId nodeId, long depth) {
+    String id = nodeId.getIdentifier().toString();
+
+    if (id.startsWith("[turtles]")) {
+      try {
+        long turtleNumber = Long.parseLong(id.substring(9));
+        return turtleNumber < depth ? turtleNumber : -1;
+      } catch (NumberFormatException ignored) {
+      }
+    }
+    return -1;
+  }
+}
@@ -8,6 +8,10 @@ import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.joran.JoranConfigurator;
 import ch.qos.logback.core.util.StatusPrinter2;
 import com.digitalpetri.opcua.server.namespace.demo.DemoNamespace;
+import com.digitalpetri.opcua.server.namespace.demo.RbacNodesFragment;
+import com.digitalpetri.opcua.server.namespace.demo.RoleTable;
+import com.digitalpetri.opcua.server.namespace.demo.StartupTimings;
+import com.digitalpetri.opcua.server.namespace.nodeset.NodeSetLoader;
 import com.digitalpetri.opcua.server.namespace.test.DataTypeTestNamespace;
 import com.digitalpetri.opcua.server.objects.ServerConfigurationObject;
 import com.typesafe.config.Config;
@@ -22,13 +26,14 @@ import java.nio.file.StandardOpenOption;
 import java.security.Security;
 import java.security.cert.X509Certificate;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -86,9 +91,17 @@ public class OpcUaDemoServer extends AbstractLifecycle {
   private static final String PROPERTY_BUILD_NUMBER = "X-Server-Build-Number";
   private static final String PROPERTY_SOFTWARE_VERSION = "X-Server-Software-Version";
 
+  private final StartupTimings startupTimings = new StartupTimings();
+
+  /** Shared by the RoleMapper and the Demo namespace, see {@link RoleTable}. */
+  private final RoleTable roleTable = new RoleTable();
+
   private final OpcUaServer server;
+  private final DemoNamespace demoNamespace;
 
   public OpcUaDemoServer(Path dataDirPath, Config config) throws Exception {
+    long pkiStart = System.nanoTime();
+
     Path securityDirPath = dataDirPath.resolve("security");
     Path pkiDirPath = securityDirPath.resolve("pki");
     Path userPkiDirPath = securityDirPath.resolve("pki-user");
@@ -146,6 +159,8 @@ public class OpcUaDemoServer extends AbstractLifecycle {
               trustListManager, ValidationCheck.ALL_OPTIONAL_CHECKS, certificateQuarantine);
     }
 
+    startupTimings.record("pki", System.nanoTime() - pkiStart);
+
     DefaultApplicationGroup defaultApplicationGroup =
         new DefaultApplicationGroup(
             trustListManager,
@@ -154,7 +169,10 @@ public class OpcUaDemoServer extends AbstractLifecycle {
                 applicationUri, () -> getCertificateHostnames(config)),
             certificateValidator);
 
+    // generates the application instance certificate if it doesn't exist yet.
+    long certificatesStart = System.nanoTime();
     defaultApplicationGroup.initialize();
+    startupTimings.record("certificates", System.nanoTime() - certificatesStart);
 
     CertificateManager certificateManager =
         new DefaultCertificateManager(certificateQuarantine, defaultApplicationGroup);
@@ -184,7 +202,7 @@ public class OpcUaDemoServer extends AbstractLifecycle {
                 AnonymousIdentityValidator.INSTANCE,
                 createUsernameIdentityValidator(),
                 createX509IdentityValidator(userPkiDirPath)))
-        .setRoleMapper(new DemoRoleMapper())
+        .setRoleMapper(new DemoRoleMapper(config, roleTable))
         .setLimits(new DemoConfigLimits())
         .build();
 
@@ -206,12 +224,42 @@ public class OpcUaDemoServer extends AbstractLifecycle {
     boolean dataTypeTestEnabled = config.getBoolean("address-space.data-type-test.enabled");
     if (dataTypeTestEnabled) {
       server.getNamespaceTable().set(3, DataTypeTestNamespace.NAMESPACE_URI);
-      var dataTypeTestNamespace = DataTypeTestNamespace.create(server);
-      dataTypeTestNamespace.startup();
+      boolean snapshotEnabled =
+          config.hasPath("address-space.data-type-test.snapshot")
+              && config.getBoolean("address-space.data-type-test.snapshot");
+
+      startupTimings.time(
+          "nodeset.DataTypeTest",
+          () -> {
+            if (snapshotEnabled) {
+              DataTypeTestNamespace.createAndStart(
+                  server, dataDirPath.resolve("cache").resolve("DataTypeTest.snapshot"));
+            } else {
+              var dataTypeTestNamespace = DataTypeTestNamespace.create(server);
+              dataTypeTestNamespace.startup();
+            }
+          });
     }
 
-    var demoNamespace = new DemoNamespace(server, config);
-    demoNamespace.startup();
+    demoNamespace =
+        startupTimings.time(
+            "namespace.Demo",
+            () -> {
+              var demoNamespace =
+                  new DemoNamespace(server, config, dataDirPath, startupTimings, roleTable);
+              demoNamespace.startup();
+              return demoNamespace;
+            });
+
+    List<String> nodeSetFiles =
+        config.hasPath("nodesets.files") ? config.getStringList("nodesets.files") : List.of();
+
+    if (!nodeSetFiles.isEmpty()) {
+      List<Path> nodeSetPaths = nodeSetFiles.stream().map(dataDirPath::resolve).toList();
+
+      startupTimings.time(
+          "nodesets", () -> NodeSetLoader.load(server, nodeSetPaths, startupTimings));
+    }
 
     boolean gdsPushEnabled = config.getBoolean("gds-push-enabled");
 
@@ -225,7 +273,7 @@ public class OpcUaDemoServer extends AbstractLifecycle {
 
       var serverConfigurationObject =
           new ServerConfigurationObject(server, serverConfigurationNode);
-      serverConfigurationObject.startup();
+      startupTimings.time("gds-push", serverConfigurationObject::startup);
     }
 
     server.getAddressSpaceManager().getManagedNode(NodeIds.Aliases).ifPresent(UaNode::delete);
@@ -234,7 +282,17 @@ public class OpcUaDemoServer extends AbstractLifecycle {
 
   @Override
   protected void onStartup() {
-    server.startup();
+    try {
+      // wait for the endpoints to be bound, so the phase covers binding and bind failures surface.
+      startupTimings.time("endpoints", () -> server.startup().get());
+    } catch (ExecutionException e) {
+      throw new RuntimeException("error binding endpoints", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
   }
 
   @Override
@@ -242,6 +300,24 @@ public class OpcUaDemoServer extends AbstractLifecycle {
     server.shutdown();
   }
 
+  /**
+   * Get the {@link StartupTimings} recorded while constructing and starting this server.
+   *
+   * @return the {@link StartupTimings} recorded while constructing and starting this server.
+   */
+  public StartupTimings getStartupTimings() {
+    return startupTimings;
+  }
+
+  /**
+   * Get the {@link DemoNamespace} of this server.
+   *
+   * @return the {@link DemoNamespace} of this server.
+   */
+  public DemoNamespace getDemoNamespace() {
+    return demoNamespace;
+  }
+
   /**
    * Get the underlying {@link OpcUaServer}.
    *
@@ -262,8 +338,14 @@ public class OpcUaDemoServer extends AbstractLifecycle {
           var validUserB = "UserB".equals(username) && "password".equals(password);
           var validSiteAdmin = "SiteAdmin".equals(username) && "password".equals(password);
           var validSecurityAdmin = "SecurityAdmin".equals(username) && "password".equals(password);
-
-          return validUser || validUserA || validUserB || validSiteAdmin || validSecurityAdmin;
+          var validStressUser = "StressUser".equals(username) && "password".equals(password);
+
+          return validUser
+              || validUserA
+              || validUserB
+              || validSiteAdmin
+              || validSecurityAdmin
+              || validStressUser;
         });
   }
 
@@ -455,26 +537,59 @@ public class OpcUaDemoServer extends AbstractLifecycle {
     public static final NodeId ROLE_SITE_B_WRITE = NodeId.parse("ns=1;s=SiteB_Write");
     public static final NodeId ROLE_SITE_ADMIN = NodeId.parse("ns=1;s=SiteAdmin");
 
+    // Compiled once and shared by every session with the same identity, so the Demo namespace's
+    // access control filters find each session's roles already compiled.
+    private final List<NodeId> noRoles;
+    private final List<NodeId> anonymousRoles;
+    private final List<NodeId> userRoles;
+    private final List<NodeId> userARoles;
+    private final List<NodeId> userBRoles;
+    private final List<NodeId> siteAdminRoles;
+    private final List<NodeId> securityAdminRoles;
+    private final List<NodeId> stressUserRoles;
+
+    DemoRoleMapper(Config config, RoleTable roleTable) {
+      noRoles = roleTable.compile(List.of());
+      anonymousRoles = roleTable.compile(List.of(NodeIds.WellKnownRole_Anonymous));
+      userRoles = roleTable.compile(List.of(NodeIds.WellKnownRole_AuthenticatedUser));
+      userARoles = roleTable.compile(List.of(ROLE_SITE_A_READ, ROLE_SITE_A_WRITE));
+      userBRoles = roleTable.compile(List.of(ROLE_SITE_B_READ, ROLE_SITE_B_WRITE));
+      siteAdminRoles = roleTable.compile(List.of(ROLE_SITE_ADMIN));
+      securityAdminRoles = roleTable.compile(List.of(NodeIds.WellKnownRole_SecurityAdmin));
+
+      String userRolesPath = RbacNodesFragment.STRESS_CONFIG_PATH + ".user-roles";
+
+      int stressRoles = config.hasPath(userRolesPath) ? config.getInt(userRolesPath) : 0;
+
+      var roleIds = new ArrayList<NodeId>(stressRoles);
+      for (int i = 0; i < stressRoles; i++) {
+        roleIds.add(RbacNodesFragment.stressRoleId(i));
+      }
+      stressUserRoles = roleTable.compile(roleIds);
+    }
+
     @Override
     public List<NodeId> getRoleIds(Identity identity) {
       if (identity instanceof AnonymousIdentity) {
-        return List.of(NodeIds.WellKnownRole_Anonymous);
+        return anonymousRoles;
       } else if (identity instanceof UsernameIdentity ui) {
         return switch (ui.getUsername()) {
-          case "User" -> List.of(NodeIds.WellKnownRole_AuthenticatedUser);
+          case "User" -> userRoles;
 
-          case "UserA" -> List.of(ROLE_SITE_A_READ, ROLE_SITE_A_WRITE);
+          case "UserA" -> userARoles;
 
-          case "UserB" -> List.of(ROLE_SITE_B_READ, ROLE_SITE_B_WRITE);
+          case "UserB" -> userBRoles;
 
-          case "SiteAdmin" -> List.of(ROLE_SITE_ADMIN);
+          case "SiteAdmin" -> siteAdminRoles;
 
-          case "SecurityAdmin" -> List.of(NodeIds.WellKnownRole_SecurityAdmin);
+          case "SecurityAdmin" -> securityAdminRoles;
 
-          case null, default -> List.of();
+          case "StressUser" -> stressUserRoles;
+
+          case null, default -> noRoles;
         };
       } else {
-        return Collections.emptyList();
+        return noRoles;
       }
     }
   }
@@ -539,14 +654,17 @@ public class OpcUaDemoServer extends AbstractLifecycle {
     var server = new OpcUaDemoServer(dataDirPath, config);
     server.startup();
 
-    long startupDuration =
-        TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    long startupNanos = System.nanoTime() - startTime;
+    server.getStartupTimings().record("total", startupNanos);
+
+    long startupDuration = TimeUnit.MILLISECONDS.convert(startupNanos, TimeUnit.NANOSECONDS);
 
     String version =
         ManifestUtil.read(PROPERTY_SOFTWARE_VERSION).map("v%s"::formatted).orElse("(dev version)");
 
     Logger logger = LoggerFactory.getLogger(OpcUaDemoServer.class);
     logger.info("Eclipse Milo OPC UA Demo Server {} started in {}ms", version, startupDuration);
+    server.getStartupTimings().logSummary();
     logger.info("user dir: {}", userDirPath);
     logger.info("data dir: {}", dataDirPath);
     logger.info("security dir: {}", dataDirPath.resolve("security"));
@@ -2,11 +2,10 @@ package com.digitalpetri.opcua.server.namespace.demo;
 
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 
-import java.util.Arrays;
-import java.util.HashSet;
+import com.digitalpetri.opcua.server.namespace.demo.RoleTable.SessionRoles;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Supplier;
 import org.eclipse.milo.opcua.sdk.core.AccessLevel;
 import org.eclipse.milo.opcua.sdk.server.Session;
@@ -16,6 +15,7 @@ import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.PermissionType.Field;
 import org.eclipse.milo.opcua.stack.core.types.structured.RolePermissionType;
 import org.jspecify.annotations.Nullable;
 
@@ -32,26 +32,50 @@ import org.jspecify.annotations.Nullable;
  *   <li>UserExecutable
  *   <li>UserWriteMask
  * </ul>
+ *
+ * <p>The node's RolePermissions are compiled once into role indices and permission bitmasks, and
+ * recompiled whenever they change, i.e. the supplier returns a different array. Sessions' roles are
+ * compiled into bitsets when they're activated, by a {@link RoleTable} shared by every filter in
+ * the namespace and the server's {@code RoleMapper}, so evaluating a user attribute is a walk over
+ * the node's few role-permission entries with no hashing, locking, or list searches.
  */
 public class AccessControlFilter implements AttributeFilter {
 
+  private static final int WRITE_ATTRIBUTE = bit(Field.WriteAttribute);
+  private static final int WRITE_ROLE_PERMISSIONS = bit(Field.WriteRolePermissions);
+  private static final int WRITE_HISTORIZING = bit(Field.WriteHistorizing);
+  private static final int READ = bit(Field.Read);
+  private static final int WRITE = bit(Field.Write);
+  private static final int READ_HISTORY = bit(Field.ReadHistory);
+  private static final int WRITE_HISTORY =
+      bit(Field.InsertHistory) | bit(Field.ModifyHistory) | bit(Field.DeleteHistory);
+  private static final int CALL = bit(Field.Call);
+
+  private volatile @Nullable CompiledPermissions compiledPermissions;
+
+  private final RoleTable roleTable;
   private final Supplier<RolePermissionType[]> getRolePermissions;
 
   /**
    * Creates an access control filter with static role permissions.
    *
+   * @param roleTable the {@link RoleTable} session roles are compiled with.
    * @param rolePermissions the role permissions for the node
    */
-  public AccessControlFilter(RolePermissionType[] rolePermissions) {
-    this(() -> rolePermissions);
+  public AccessControlFilter(RoleTable roleTable, RolePermissionType[] rolePermissions) {
+    this(roleTable, () -> rolePermissions);
   }
 
   /**
    * Creates an access control filter with dynamic role permissions.
    *
+   * @param roleTable the {@link RoleTable} session roles are compiled with.
    * @param getRolePermissions a supplier that provides the node's role permissions
    */
-  public AccessControlFilter(Supplier<RolePermissionType[]> getRolePermissions) {
+  public AccessControlFilter(
+      RoleTable roleTable, Supplier<RolePermissionType[]> getRolePermissions) {
+
+    this.roleTable = roleTable;
     this.getRolePermissions = getRolePermissions;
   }
 
@@ -63,11 +87,8 @@ public class AccessControlFilter implements AttributeFilter {
       case UserRolePermissions -> {
         Session session = ctx.getSession().orElseThrow();
 
-        RolePermissionType[] rolePermissions =
-            (RolePermissionType[])
-                ctx.getNode().getAttribute(() -> Optional.of(session), AttributeId.RolePermissions);
-
-        yield calculateUserRolePermissions(rolePermissions, session);
+        yield compiledPermissions(ctx, session)
+            .userRolePermissions(roleTable.getSessionRoles(session));
       }
 
       case UserAccessLevel -> {
@@ -76,12 +97,7 @@ public class AccessControlFilter implements AttributeFilter {
         UByte accessLevel =
             (UByte) ctx.getNode().getAttribute(() -> Optional.of(session), AttributeId.AccessLevel);
 
-        RolePermissionType[] userRolePermissions =
-            (RolePermissionType[])
-                ctx.getNode()
-                    .getAttribute(() -> Optional.of(session), AttributeId.UserRolePermissions);
-
-        yield calculateUserAccessLevel(accessLevel, userRolePermissions);
+        yield calculateUserAccessLevel(accessLevel, userPermissionMask(ctx, session));
       }
 
       case UserExecutable -> {
@@ -91,12 +107,7 @@ public class AccessControlFilter implements AttributeFilter {
             (Boolean)
                 ctx.getNode().getAttribute(() -> Optional.of(session), AttributeId.Executable);
 
-        RolePermissionType[] userRolePermissions =
-            (RolePermissionType[])
-                ctx.getNode()
-                    .getAttribute(() -> Optional.of(session), AttributeId.UserRolePermissions);
-
-        yield calculateUserExecutable(executable, userRolePermissions);
+        yield calculateUserExecutable(executable, userPermissionMask(ctx, session));
       }
 
       case UserWriteMask -> {
@@ -106,22 +117,30 @@ public class AccessControlFilter implements AttributeFilter {
             (UInteger)
                 ctx.getNode().getAttribute(() -> Optional.of(session), AttributeId.WriteMask);
 
-        RolePermissionType[] userRolePermissions =
-            (RolePermissionType[])
-                ctx.getNode()
-                    .getAttribute(() -> Optional.of(session), AttributeId.UserRolePermissions);
-
-        yield calculateUserWriteMask(writeMask, userRolePermissions);
+        yield calculateUserWriteMask(writeMask, userPermissionMask(ctx, session));
       }
 
       default -> ctx.getAttribute(attributeId);
     };
   }
 
-  private static RolePermissionType[] calculateUserRolePermissions(
-      RolePermissionType[] rolePermissions, Session session) {
+  private int userPermissionMask(AttributeFilterContext ctx, Session session) {
+    return compiledPermissions(ctx, session).userPermissionMask(roleTable.getSessionRoles(session));
+  }
+
+  private CompiledPermissions compiledPermissions(AttributeFilterContext ctx, Session session) {
+    RolePermissionType[] rolePermissions =
+        (RolePermissionType[])
+            ctx.getNode().getAttribute(() -> Optional.of(session), AttributeId.RolePermissions);
+
+    CompiledPermissions compiled = compiledPermissions;
 
-    return calculateUserRolePermissions(rolePermissions, session.getRoleIds().orElse(List.of()));
+    if (compiled == null || compiled.rolePermissions() != rolePermissions) {
+      compiled = CompiledPermissions.compile(roleTable, rolePermissions);
+      compiledPermissions = compiled;
+    }
+
+    return compiled;
   }
 
   /**
@@ -135,14 +154,48 @@ public class AccessControlFilter implements AttributeFilter {
   static RolePermissionType[] calculateUserRolePermissions(
       RolePermissionType[] rolePermissions, List<NodeId> roleIds) {
 
-    return Arrays.stream(rolePermissions)
-        .filter(rpt -> roleIds.contains(rpt.getRoleId()))
-        .toArray(RolePermissionType[]::new);
+    var userRolePermissions = new ArrayList<RolePermissionType>(rolePermissions.length);
+
+    for (RolePermissionType rpt : rolePermissions) {
+      if (roleIds.contains(rpt.getRoleId())) {
+        userRolePermissions.add(rpt);
+      }
+    }
+
+    return userRolePermissions.toArray(RolePermissionType[]::new);
+  }
+
+  /**
+   * Collapses role permissions into a single permission bitmask.
+   *
+   * @param rolePermissions the role permissions to collapse.
+   * @return the union of the permissions, with {@link Field} bit indices.
+   */
+  static int calculatePermissionMask(RolePermissionType[] rolePermissions) {
+    int mask = 0;
+    for (RolePermissionType rpt : rolePermissions) {
+      mask |= rpt.getPermissions().getValue().intValue();
+    }
+    return mask;
   }
 
   /**
    * Calculates the UserAccessLevel based on role permissions.
    *
+   * @param accessLevel the node's base access level.
+   * @param userRolePermissions the user's applicable role permissions.
+   * @return the computed UserAccessLevel.
+   * @see #calculateUserAccessLevel(UByte, int)
+   */
+  static UByte calculateUserAccessLevel(
+      UByte accessLevel, RolePermissionType[] userRolePermissions) {
+
+    return calculateUserAccessLevel(accessLevel, calculatePermissionMask(userRolePermissions));
+  }
+
+  /**
+   * Calculates the UserAccessLevel based on a user permission mask.
+   *
    * <p>Maps OPC UA permissions to access level flags:
    *
    * <ul>
@@ -153,49 +206,29 @@ public class AccessControlFilter implements AttributeFilter {
    * </ul>
    *
    * @param accessLevel the node's base access level.
-   * @param userRolePermissions the user's applicable role permissions.
+   * @param permissions the user's permission mask, see {@link #calculatePermissionMask}.
    * @return the computed UserAccessLevel.
    */
-  static UByte calculateUserAccessLevel(
-      UByte accessLevel, RolePermissionType[] userRolePermissions) {
-
+  static UByte calculateUserAccessLevel(UByte accessLevel, int permissions) {
     if (accessLevel == null || accessLevel.intValue() == 0) {
       return UByte.MIN;
     } else {
-      Set<AccessLevel> accessLevels = AccessLevel.fromValue(accessLevel);
-      Set<AccessLevel> userAccessLevels = new HashSet<>();
-
-      if (accessLevels.contains(AccessLevel.CurrentRead)
-          && Arrays.stream(userRolePermissions).anyMatch(rpt -> rpt.getPermissions().getRead())) {
+      int userAccessLevel = 0;
 
-        userAccessLevels.add(AccessLevel.CurrentRead);
+      if ((permissions & READ) != 0) {
+        userAccessLevel |= AccessLevel.CurrentRead.getValue();
       }
-
-      if (accessLevels.contains(AccessLevel.CurrentWrite)
-          && Arrays.stream(userRolePermissions).anyMatch(rpt -> rpt.getPermissions().getWrite())) {
-
-        userAccessLevels.add(AccessLevel.CurrentWrite);
+      if ((permissions & WRITE) != 0) {
+        userAccessLevel |= AccessLevel.CurrentWrite.getValue();
       }
-
-      if (accessLevels.contains(AccessLevel.HistoryRead)
-          && Arrays.stream(userRolePermissions)
-              .anyMatch(rpt -> rpt.getPermissions().getReadHistory())) {
-
-        userAccessLevels.add(AccessLevel.HistoryRead);
+      if ((permissions & READ_HISTORY) != 0) {
+        userAccessLevel |= AccessLevel.HistoryRead.getValue();
       }
-
-      if (accessLevels.contains(AccessLevel.HistoryWrite)
-          && (Arrays.stream(userRolePermissions)
-                  .anyMatch(rpt -> rpt.getPermissions().getInsertHistory())
-              || Arrays.stream(userRolePermissions)
-                  .anyMatch(rpt -> rpt.getPermissions().getModifyHistory())
-              || Arrays.stream(userRolePermissions)
-                  .anyMatch(rpt -> rpt.getPermissions().getDeleteHistory()))) {
-
-        userAccessLevels.add(AccessLevel.HistoryWrite);
+      if ((permissions & WRITE_HISTORY) != 0) {
+        userAccessLevel |= AccessLevel.HistoryWrite.getValue();
       }
 
-      return AccessLevel.toValue(userAccessLevels);
+      return UByte.valueOf(accessLevel.intValue() & userAccessLevel);
     }
   }
 
@@ -209,16 +242,37 @@ public class AccessControlFilter implements AttributeFilter {
   static boolean calculateUserExecutable(
       Boolean executable, RolePermissionType[] userRolePermissions) {
 
-    if (executable == null || !executable) {
-      return false;
-    } else {
-      return Arrays.stream(userRolePermissions).anyMatch(rpt -> rpt.getPermissions().getCall());
-    }
+    return calculateUserExecutable(executable, calculatePermissionMask(userRolePermissions));
+  }
+
+  /**
+   * Calculates the UserExecutable attribute based on a user permission mask.
+   *
+   * @param executable the node's base executable flag.
+   * @param permissions the user's permission mask, see {@link #calculatePermissionMask}.
+   * @return true if the user has Call permission and the method is executable.
+   */
+  static boolean calculateUserExecutable(Boolean executable, int permissions) {
+    return executable != null && executable && (permissions & CALL) != 0;
   }
 
   /**
    * Calculates the UserWriteMask based on role permissions.
    *
+   * @param writeMask the node's base write mask.
+   * @param userRolePermissions the user's applicable role permissions.
+   * @return the computed UserWriteMask.
+   * @see #calculateUserWriteMask(UInteger, int)
+   */
+  static UInteger calculateUserWriteMask(
+      UInteger writeMask, RolePermissionType[] userRolePermissions) {
+
+    return calculateUserWriteMask(writeMask, calculatePermissionMask(userRolePermissions));
+  }
+
+  /**
+   * Calculates the UserWriteMask based on a user permission mask.
+   *
    * <p>Controls which attributes can be written:
    *
    * <ul>
@@ -228,35 +282,27 @@ public class AccessControlFilter implements AttributeFilter {
    * </ul>
    *
    * @param writeMask the node's base write mask.
-   * @param userRolePermissions the user's applicable role permissions.
+   * @param permissions the user's permission mask, see {@link #calculatePermissionMask}.
    * @return the computed UserWriteMask.
    */
-  static UInteger calculateUserWriteMask(
-      UInteger writeMask, RolePermissionType[] userRolePermissions) {
-
+  static UInteger calculateUserWriteMask(UInteger writeMask, int permissions) {
     if (writeMask == null || writeMask.intValue() == 0) {
       return UInteger.MIN;
     } else {
       int writeMaskInt = writeMask.intValue();
 
-      if (Arrays.stream(userRolePermissions)
-          .noneMatch(rpt -> rpt.getPermissions().getWriteAttribute())) {
-
+      if ((permissions & WRITE_ATTRIBUTE) == 0) {
         // disable all bits except Historizing and RolePermissions, which are controlled by separate
         // permissions.
         writeMaskInt &= ((1 << 9) | (1 << 23));
       }
 
-      if (Arrays.stream(userRolePermissions)
-          .noneMatch(rpt -> rpt.getPermissions().getWriteHistorizing())) {
-
+      if ((permissions & WRITE_HISTORIZING) == 0) {
         // disable Historizing bit.
         writeMaskInt &= ~(1 << 9);
       }
 
-      if (Arrays.stream(userRolePermissions)
-          .noneMatch(rpt -> rpt.getPermissions().getWriteRolePermissions())) {
-
+      if ((permissions & WRITE_ROLE_PERMISSIONS) == 0) {
         // disable RolePermissions bit.
         writeMaskInt &= ~(1 << 23);
       }
@@ -264,4 +310,51 @@ public class AccessControlFilter implements AttributeFilter {
       return uint(writeMaskInt);
     }
   }
+
+  private static int bit(Field field) {
+    return 1 << field.getBitIndex();
+  }
+
+  /**
+   * A node's RolePermissions, compiled against a {@link RoleTable}.
+   *
+   * @param rolePermissions the RolePermissions these were compiled from.
+   * @param roleIndices the role index of each entry in {@code rolePermissions}.
+   * @param permissions the permission mask of each entry in {@code rolePermissions}.
+   */
+  private record CompiledPermissions(
+      RolePermissionType[] rolePermissions, int[] roleIndices, int[] permissions) {
+
+    static CompiledPermissions compile(RoleTable roleTable, RolePermissionType[] rolePermissions) {
+      int[] roleIndices = new int[rolePermissions.length];
+      int[] permissions = new int[rolePermissions.length];
+
+      for (int i = 0; i < rolePermissions.length; i++) {
+        roleIndices[i] = roleTable.intern(rolePermissions[i].getRoleId());
+        permissions[i] = rolePermissions[i].getPermissions().getValue().intValue();
+      }
+
+      return new CompiledPermissions(rolePermissions, roleIndices, permissions);
+    }
+
+    int userPermissionMask(SessionRoles sessionRoles) {
+      int mask = 0;
+      for (int i = 0; i < roleIndices.length; i++) {
+        if (sessionRoles.containsIndex(roleIndices[i])) {
+          mask |= permissions[i];
+        }
+      }
+      return mask;
+    }
+
+    RolePermissionType[] userRolePermissions(SessionRoles sessionRoles) {
+      var userRolePermissions = new ArrayList<RolePermissionType>(rolePermissions.length);
+      for (int i = 0; i < roleIndices.length; i++) {
+        if (sessionRoles.containsIndex(roleIndices[i])) {
+          userRolePermissions.add(rolePermissions[i]);
+        }
+      }
+      return userRolePermissions.toArray(RolePermissionType[]::new);
+    }
+  }
 }
@@ -0,0 +1,211 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * A size-bounded cache with {@code long} keys that is safe for concurrent use.
+ *
+ * <p>Keys hash to a set of up to {@value #WAYS} slots, and a full set evicts with the CLOCK
+ * algorithm: a hit only marks its slot as referenced, and the set's hand skips (and clears)
+ * referenced slots until it finds one that isn't. This approximates least-recently-used eviction
+ * without reordering anything on a hit. Sets are guarded by a fixed number of striped locks, so
+ * concurrent readers only contend when their keys share a stripe, and keys are never boxed.
+ *
+ * <p>Entries optionally expire once they haven't been accessed for longer than an expiry time.
+ * Hits, misses, and evictions are counted.
+ *
+ * @param <V> the value type.
+ */
+final class ClockCache<V> {
+
+  /** The most slots per set. */
+  static final int WAYS = 8;
+
+  private static final int MAX_STRIPES = 64;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  // Slots of set s are [s * ways, (s + 1) * ways); each is guarded by the stripe lock of its set.
+  private final long[] keys;
+  private final Object[] values;
+  private final long[] lastAccess;
+  private final boolean[] referenced;
+  private final int[] hands;
+
+  private final Object[] locks;
+
+  private final int ways;
+  private final int setMask;
+  private final long expireAfterNanos;
+  private final LongSupplier nanoTime;
+
+  /**
+   * @param capacity the maximum number of entries, rounded up so the number of sets is a power of
+   *     2. Must be positive.
+   * @param expireAfterNanos how long an entry may go unaccessed before it expires, in nanoseconds,
+   *     or 0 to never expire entries.
+   */
+  ClockCache(int capacity, long expireAfterNanos) {
+    this(capacity, expireAfterNanos, System::nanoTime);
+  }
+
+  ClockCache(int capacity, long expireAfterNanos, LongSupplier nanoTime) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+
+    this.ways = Math.min(WAYS, capacity);
+    this.expireAfterNanos = expireAfterNanos;
+    this.nanoTime = nanoTime;
+
+    // the number of sets is a power of 2 so a key's set is a mask of its hash.
+    int minSets = (capacity + ways - 1) / ways;
+    int sets = minSets == 1 ? 1 : Integer.highestOneBit(minSets - 1) << 1;
+    setMask = sets - 1;
+
+    keys = new long[sets * ways];
+    values = new Object[sets * ways];
+    lastAccess = new long[sets * ways];
+    referenced = new boolean[sets * ways];
+    hands = new int[sets];
+
+    locks = new Object[Math.min(sets, MAX_STRIPES)];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Get the value cached for {@code key}, computing and caching it on a miss.
+   *
+   * <p>{@code loader} is called without holding a lock, so concurrent misses on the same key may
+   * each compute a value; the last one computed is cached.
+   *
+   * @param key the key.
+   * @param loader computes the value for {@code key} on a miss.
+   * @return the cached or computed value.
+   */
+  @SuppressWarnings("unchecked")
+  V get(long key, LongFunction<? extends V> loader) {
+    long now = nanoTime.getAsLong();
+    int set = set(key);
+    int start = set * ways;
+
+    synchronized (locks[set & (locks.length - 1)]) {
+      for (int i = start; i < start + ways; i++) {
+        if (values[i] != null && keys[i] == key) {
+          if (expireAfterNanos <= 0 || now - lastAccess[i] <= expireAfterNanos) {
+            lastAccess[i] = now;
+            referenced[i] = true;
+            hits.increment();
+            return (V) values[i];
+          } else {
+            clear(i);
+            evictions.increment();
+            break;
+          }
+        }
+      }
+    }
+
+    misses.increment();
+
+    V value = loader.apply(key);
+
+    synchronized (locks[set & (locks.length - 1)]) {
+      int slot = slot(set, key, now);
+
+      if (values[slot] == null) {
+        size.incrementAndGet();
+      }
+      keys[slot] = key;
+      values[slot] = value;
+      lastAccess[slot] = now;
+      referenced[slot] = false;
+    }
+
+    return value;
+  }
+
+  int size() {
+    return size.get();
+  }
+
+  /**
+   * @return the maximum number of entries, i.e. the requested capacity rounded up so the number of
+   *     sets is a power of 2.
+   */
+  int capacity() {
+    return keys.length;
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Find the slot in {@code set} to store {@code key} in: the slot already holding it, an empty or
+   * expired slot, or the slot the CLOCK hand evicts. Must be called holding the set's lock.
+   */
+  private int slot(int set, long key, long now) {
+    int start = set * ways;
+    int free = -1;
+
+    for (int i = start; i < start + ways; i++) {
+      if (values[i] == null) {
+        if (free < 0) free = i;
+      } else if (keys[i] == key) {
+        return i;
+      } else if (expireAfterNanos > 0 && now - lastAccess[i] > expireAfterNanos) {
+        clear(i);
+        evictions.increment();
+        if (free < 0) free = i;
+      }
+    }
+
+    if (free >= 0) {
+      return free;
+    }
+
+    // at most one full sweep clears every referenced bit, so this terminates within 2 * ways.
+    while (true) {
+      int i = start + hands[set];
+      hands[set] = (hands[set] + 1) % ways;
+
+      if (referenced[i]) {
+        referenced[i] = false;
+      } else {
+        clear(i);
+        evictions.increment();
+        return i;
+      }
+    }
+  }
+
+  private void clear(int slot) {
+    values[slot] = null;
+    referenced[slot] = false;
+    size.decrementAndGet();
+  }
+
+  private int set(long key) {
+    // spread consecutive keys, e.g. turtle numbers, across sets.
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & setMask;
+  }
+}
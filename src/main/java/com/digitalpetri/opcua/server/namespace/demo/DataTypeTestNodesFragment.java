@@ -43,7 +43,6 @@ import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.encoding.EncodingContext;
@@ -75,7 +74,7 @@ public class DataTypeTestNodesFragment extends ManagedAddressSpaceFragmentWithLi
   private final UShort namespaceIndex;
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   public DataTypeTestNodesFragment(OpcUaServer server, DemoNamespace namespace) {
     super(server, namespace);
@@ -85,8 +84,7 @@ public class DataTypeTestNodesFragment extends ManagedAddressSpaceFragmentWithLi
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    samplingScheduler = namespace.getSamplingScheduler();
 
     getLifecycleManager().addStartupTask(this::addDataTypeTestNodes);
   }
@@ -98,22 +96,22 @@ public class DataTypeTestNodesFragment extends ManagedAddressSpaceFragmentWithLi
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addDataTypeTestNodes() {
@@ -5,13 +5,19 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 import com.digitalpetri.opcua.server.namespace.demo.ctt.CttNodes;
 import com.digitalpetri.opcua.server.namespace.demo.debug.DebugNodesFragment;
 import com.typesafe.config.Config;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
 import org.eclipse.milo.opcua.sdk.server.AddressSpaceComposite;
 import org.eclipse.milo.opcua.sdk.server.AddressSpaceFilter;
+import org.eclipse.milo.opcua.sdk.server.AddressSpaceFragment;
+import org.eclipse.milo.opcua.sdk.server.AttributeServices.WriteContext;
 import org.eclipse.milo.opcua.sdk.server.Lifecycle;
 import org.eclipse.milo.opcua.sdk.server.LifecycleManager;
 import org.eclipse.milo.opcua.sdk.server.ManagedAddressSpaceFragmentWithLifecycle;
@@ -23,7 +29,7 @@ import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.model.objects.BaseEventTypeNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
@@ -31,7 +37,10 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,16 +53,60 @@ public class DemoNamespace extends AddressSpaceComposite implements Namespace, L
 
   private final LifecycleManager lifecycleManager = new LifecycleManager();
 
+  private final SamplingScheduler samplingScheduler;
+
+  private final RoleTable roleTable;
+
   private final DemoFragment demoFragment;
 
+  private final FragmentStartup fragmentStartup;
+
   private final UShort namespaceIndex;
 
   private final Config config;
 
+  private final @Nullable ValuePersistence valuePersistence;
+
+  private final StartupTimings startupTimings;
+
   public DemoNamespace(OpcUaServer server, Config config) {
+    this(server, config, null);
+  }
+
+  public DemoNamespace(OpcUaServer server, Config config, @Nullable Path dataDirPath) {
+    this(server, config, dataDirPath, new StartupTimings());
+  }
+
+  public DemoNamespace(
+      OpcUaServer server,
+      Config config,
+      @Nullable Path dataDirPath,
+      StartupTimings startupTimings) {
+
+    this(server, config, dataDirPath, startupTimings, new RoleTable());
+  }
+
+  /**
+   * @param server the {@link OpcUaServer}.
+   * @param config the server {@link Config}.
+   * @param dataDirPath the server data dir, or {@code null} if there isn't one; written values are
+   *     only persisted when it's non-null and {@code persistence.enabled} is set.
+   * @param startupTimings the {@link StartupTimings} the startup of each fragment is recorded in.
+   * @param roleTable the {@link RoleTable} session roles are compiled with; the server's {@code
+   *     RoleMapper} should compile the role IDs it returns with the same table.
+   */
+  public DemoNamespace(
+      OpcUaServer server,
+      Config config,
+      @Nullable Path dataDirPath,
+      StartupTimings startupTimings,
+      RoleTable roleTable) {
+
     super(server);
 
     this.config = config;
+    this.startupTimings = startupTimings;
+    this.roleTable = roleTable;
 
     namespaceIndex = server.getNamespaceTable().add(NAMESPACE_URI);
 
@@ -70,56 +123,121 @@ public class DemoNamespace extends AddressSpaceComposite implements Namespace, L
           }
         });
 
-    demoFragment = new DemoFragment(server, this, namespaceIndex);
+    samplingScheduler = new SamplingScheduler(server, this);
+    lifecycleManager.addLifecycle(samplingScheduler);
+
+    demoFragment = new DemoFragment(server, this, samplingScheduler, namespaceIndex);
     lifecycleManager.addLifecycle(demoFragment);
 
+    boolean parallelStartup =
+        config.hasPath("address-space.parallel-startup")
+            && config.getBoolean("address-space.parallel-startup");
+    fragmentStartup = new FragmentStartup(parallelStartup, startupTimings);
+    lifecycleManager.addLifecycle(fragmentStartup);
+
     boolean cttEnabled = config.getBoolean("address-space.ctt.enabled");
     if (cttEnabled) {
       var cttNodes = new CttNodes(server, this);
       register(cttNodes);
-      lifecycleManager.addLifecycle(cttNodes);
+      addFragment(cttNodes);
     }
 
+    MassNodesFragment massFragment = null;
     boolean massNodesEnabled = config.getBoolean("address-space.mass.enabled");
     if (massNodesEnabled) {
-      var massFragment = new MassNodesFragment(server, this);
-      lifecycleManager.addLifecycle(massFragment);
+      massFragment = new MassNodesFragment(server, this);
+      addFragment(massFragment);
     }
 
     boolean dataTypeTestEnabled = config.getBoolean("address-space.data-type-test.enabled");
     if (dataTypeTestEnabled) {
       var dataTypeTestFragment = new DataTypeTestNodesFragment(server, this);
-      lifecycleManager.addLifecycle(dataTypeTestFragment);
+      addFragment(dataTypeTestFragment);
     }
 
     boolean dynamicNodesEnabled = config.getBoolean("address-space.dynamic.enabled");
     if (dynamicNodesEnabled) {
       var dynamicFragment = new DynamicNodesFragment(server, this);
-      lifecycleManager.addLifecycle(dynamicFragment);
+      addFragment(dynamicFragment);
     }
 
     boolean nullNodesEnabled = config.getBoolean("address-space.null.enabled");
     if (nullNodesEnabled) {
       var nullFragment = new NullNodesFragment(server, this);
-      lifecycleManager.addLifecycle(nullFragment);
+      addFragment(nullFragment);
     }
 
     boolean turtleNodesEnabled = config.getBoolean("address-space.turtles.enabled");
     if (turtleNodesEnabled) {
       var turtleFragment = new TurtleNodesFragment(server, this);
-      lifecycleManager.addLifecycle(turtleFragment);
+      addFragment(turtleFragment);
+    }
+
+    boolean fileTransferEnabled =
+        config.hasPath("address-space.file-transfer.enabled")
+            && config.getBoolean("address-space.file-transfer.enabled");
+    if (dataDirPath != null && fileTransferEnabled) {
+      String dir =
+          config.hasPath("address-space.file-transfer.dir")
+              ? config.getString("address-space.file-transfer.dir")
+              : "files";
+      Path directory = dataDirPath.resolve(dir);
+      var fileTransferFragment = new FileTransferFragment(server, this, directory);
+      addFragment(fileTransferFragment);
     }
 
     var rbacFragment = new RbacNodesFragment(server, this);
-    lifecycleManager.addLifecycle(rbacFragment);
+    addFragment(rbacFragment);
 
     var debugFragment = new DebugNodesFragment(server, this);
-    lifecycleManager.addLifecycle(debugFragment);
+    addFragment(debugFragment);
 
     var variantFragment = new VariantNodesFragment(server, this);
-    lifecycleManager.addLifecycle(variantFragment);
+    addFragment(variantFragment);
 
     lifecycleManager.addLifecycle(new BogusEventNotifier());
+
+    boolean persistenceEnabled =
+        config.hasPath("persistence.enabled") && config.getBoolean("persistence.enabled");
+    if (dataDirPath != null && persistenceEnabled) {
+      // added last so persisted values are restored after every fragment has added its nodes.
+      valuePersistence =
+          new ValuePersistence(
+              server, dataDirPath.resolve("persistence"), config.getConfig("persistence"));
+      if (massFragment != null) {
+        // virtual Mass nodes are only materialized while in use, so go through the value store.
+        valuePersistence.addValueAccessor(massFragment.getValueAccessor());
+      }
+      lifecycleManager.addLifecycle(valuePersistence);
+    } else {
+      valuePersistence = null;
+    }
+  }
+
+  /**
+   * Write {@code writeValues} through the fragments that own them, then mark the Values that were
+   * written successfully dirty in the {@link ValuePersistence}, if it's enabled.
+   */
+  @Override
+  public List<StatusCode> write(WriteContext context, List<WriteValue> writeValues) {
+    List<StatusCode> results = super.write(context, writeValues);
+
+    if (valuePersistence != null) {
+      for (int i = 0; i < results.size(); i++) {
+        WriteValue writeValue = writeValues.get(i);
+
+        if (results.get(i).isGood()
+            && AttributeId.Value.uid().equals(writeValue.getAttributeId())) {
+          valuePersistence.markDirty(writeValue.getNodeId());
+        }
+      }
+    }
+
+    return results;
+  }
+
+  private <T extends AddressSpaceFragment & Lifecycle> void addFragment(T fragment) {
+    fragmentStartup.add(fragment);
   }
 
   @Override
@@ -150,6 +268,27 @@ public class DemoNamespace extends AddressSpaceComposite implements Namespace, L
     return demoFragment.getDemoFolder();
   }
 
+  /**
+   * @return the {@link SamplingScheduler} shared by all fragments in this namespace.
+   */
+  public SamplingScheduler getSamplingScheduler() {
+    return samplingScheduler;
+  }
+
+  /**
+   * @return the {@link StartupTimings} of the server this namespace belongs to.
+   */
+  public StartupTimings getStartupTimings() {
+    return startupTimings;
+  }
+
+  /**
+   * @return the {@link RoleTable} shared by all {@link AccessControlFilter}s in this namespace.
+   */
+  public RoleTable getRoleTable() {
+    return roleTable;
+  }
+
   private class BogusEventNotifier implements Lifecycle {
 
     private final Random random = new Random();
@@ -226,6 +365,67 @@ public class DemoNamespace extends AddressSpaceComposite implements Namespace, L
     }
   }
 
+  /**
+   * Starts the fragments added with {@link #addFragment}, either one after another or concurrently
+   * on a {@link ForkJoinPool}.
+   *
+   * <p>Fragments only build nodes in their own node manager and refer to nodes of other fragments,
+   * e.g. the Demo folder, by NodeId, so their startup tasks are independent. The wiring they do
+   * depend on stays sequential: the namespace and the Demo folder are registered before any
+   * fragment starts, and everything added after this (events, value persistence) starts only once
+   * every fragment has. Shutdown is always sequential, in reverse order.
+   */
+  private static class FragmentStartup implements Lifecycle {
+
+    private final List<Lifecycle> lifecycles = new ArrayList<>();
+
+    private final boolean parallel;
+    private final StartupTimings startupTimings;
+
+    FragmentStartup(boolean parallel, StartupTimings startupTimings) {
+      this.parallel = parallel;
+      this.startupTimings = startupTimings;
+    }
+
+    void add(Lifecycle lifecycle) {
+      lifecycles.add(lifecycle);
+    }
+
+    @Override
+    public void startup() {
+      long start = System.nanoTime();
+
+      if (parallel && lifecycles.size() > 1) {
+        int parallelism = Math.min(lifecycles.size(), Runtime.getRuntime().availableProcessors());
+
+        try (var pool = new ForkJoinPool(parallelism)) {
+          var tasks = new ArrayList<ForkJoinTask<?>>(lifecycles.size());
+          for (Lifecycle lifecycle : lifecycles) {
+            tasks.add(pool.submit(() -> startup(lifecycle)));
+          }
+          // join all, rethrowing the first failure.
+          tasks.forEach(ForkJoinTask::join);
+        }
+      } else {
+        lifecycles.forEach(this::startup);
+      }
+
+      startupTimings.record(
+          parallel ? "fragments (parallel)" : "fragments", System.nanoTime() - start);
+    }
+
+    private void startup(Lifecycle lifecycle) {
+      startupTimings.time("fragment." + lifecycle.getClass().getSimpleName(), lifecycle::startup);
+    }
+
+    @Override
+    public void shutdown() {
+      for (int i = lifecycles.size() - 1; i >= 0; i--) {
+        lifecycles.get(i).shutdown();
+      }
+    }
+  }
+
   private static class DemoFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
     private final AddressSpaceFilter filter =
@@ -233,15 +433,17 @@ public class DemoNamespace extends AddressSpaceComposite implements Namespace, L
 
     private final UaFolderNode demoFolder;
 
-    private final SubscriptionModel subscriptionModel;
+    private final SamplingScheduler samplingScheduler;
 
     public DemoFragment(
-        OpcUaServer server, AddressSpaceComposite composite, UShort namespaceIndex) {
+        OpcUaServer server,
+        AddressSpaceComposite composite,
+        SamplingScheduler samplingScheduler,
+        UShort namespaceIndex) {
 
       super(server, composite);
 
-      subscriptionModel = new SubscriptionModel(server, composite);
-      getLifecycleManager().addLifecycle(subscriptionModel);
+      this.samplingScheduler = samplingScheduler;
 
       demoFolder =
           new UaFolderNode(
@@ -294,22 +496,22 @@ public class DemoNamespace extends AddressSpaceComposite implements Namespace, L
 
     @Override
     public void onDataItemsCreated(List<DataItem> dataItems) {
-      subscriptionModel.onDataItemsCreated(dataItems);
+      samplingScheduler.onDataItemsCreated(dataItems);
     }
 
     @Override
     public void onDataItemsModified(List<DataItem> dataItems) {
-      subscriptionModel.onDataItemsModified(dataItems);
+      samplingScheduler.onDataItemsModified(dataItems);
     }
 
     @Override
     public void onDataItemsDeleted(List<DataItem> dataItems) {
-      subscriptionModel.onDataItemsDeleted(dataItems);
+      samplingScheduler.onDataItemsDeleted(dataItems);
     }
 
     @Override
     public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-      subscriptionModel.onMonitoringModeChanged(monitoredItems);
+      samplingScheduler.onMonitoringModeChanged(monitoredItems);
     }
   }
 }
@@ -1,61 +1,135 @@
 package com.digitalpetri.opcua.server.namespace.demo;
 
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
-import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static com.digitalpetri.opcua.server.namespace.demo.Util.indexName;
+import static com.digitalpetri.opcua.server.namespace.demo.Util.indexWidth;
+import static com.digitalpetri.opcua.server.namespace.demo.Util.parseIndex;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
-import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
-import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
 
+import com.typesafe.config.Config;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.eclipse.milo.opcua.sdk.core.AccessLevel;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
+import org.eclipse.milo.opcua.sdk.server.AddressSpace.ReferenceResult.ReferenceList;
 import org.eclipse.milo.opcua.sdk.server.AddressSpaceFilter;
+import org.eclipse.milo.opcua.sdk.server.AttributeReader;
 import org.eclipse.milo.opcua.sdk.server.ManagedAddressSpaceFragmentWithLifecycle;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.sdk.server.SimpleAddressSpaceFilter;
 import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
 import org.eclipse.milo.opcua.sdk.server.nodes.filters.AttributeFilters;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
-import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
-import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
 import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
-import org.eclipse.milo.opcua.stack.core.types.builtin.XmlElement;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ViewDescription;
+import org.jspecify.annotations.Nullable;
 
+/**
+ * Adds the "Dynamic" folder to the Demo folder, containing one Variable per {@link OpcUaDataType}
+ * whose value changes randomly every 100ms.
+ *
+ * <p>When {@code address-space.dynamic.push} is set, monitored Value attributes of those Variables
+ * aren't sampled. Each new value is pushed to the monitored items as it's generated instead, so
+ * the cost per update is proportional to the number of monitored items rather than the number of
+ * sampling timers, and each notification carries the exact time the value changed.
+ *
+ * <p>When {@code address-space.dynamic.simulation.enabled} is set, a "Simulation" folder is added
+ * as well, with one folder per configured {@link SimulationEngine.RateGroup}. The Variables in
+ * those folders are computed from their NodeId on browse and read, so groups can contain millions
+ * of Variables without a node being created for each.
+ */
 public class DynamicNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
+  private static final OpcUaDataType[] DATA_TYPES = OpcUaDataType.values();
+
+  private final RandomValueGenerator randomValueGenerator = new RandomValueGenerator();
   private final Map<OpcUaDataType, DataValue> randomValues = new ConcurrentHashMap<>();
 
+  /** DataType of each Dynamic Variable, by NodeId. Immutable after construction. */
+  private final Map<NodeId, OpcUaDataType> dataTypes = new HashMap<>();
+
+  /** Monitored Value items that are pushed to, by DataType. Immutable after construction. */
+  private final Map<OpcUaDataType, Set<DataItem>> pushedItems = new EnumMap<>(OpcUaDataType.class);
+
+  private final boolean pushEnabled;
+
   private final AddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final DemoNamespace namespace;
 
+  private final @Nullable SimulationEngine simulationEngine;
+  private final NodeId simulationFolderNodeId;
+
+  /** Identifier prefix of the simulation rate group folders, e.g. "Demo.Dynamic.Simulation.". */
+  private final String simulationPrefix;
+
   public DynamicNodesFragment(OpcUaServer server, DemoNamespace namespace) {
     super(server, namespace);
 
     this.namespace = namespace;
 
-    filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
+    Config config = namespace.getConfig();
+    if (config.hasPath("address-space.dynamic.simulation.enabled")
+        && config.getBoolean("address-space.dynamic.simulation.enabled")) {
+
+      simulationEngine =
+          SimulationEngine.create(config.getConfig("address-space.dynamic.simulation"));
+      getLifecycleManager().addLifecycle(simulationEngine);
+    } else {
+      simulationEngine = null;
+    }
+
+    NodeId dynamicFolderNodeId =
+        deriveChildNodeId(namespace.getDemoFolder().getNodeId(), "Dynamic");
+
+    pushEnabled =
+        config.hasPath("address-space.dynamic.push")
+            && config.getBoolean("address-space.dynamic.push");
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    for (OpcUaDataType dataType : DATA_TYPES) {
+      dataTypes.put(deriveChildNodeId(dynamicFolderNodeId, dataType.name()), dataType);
+      pushedItems.put(dataType, ConcurrentHashMap.newKeySet());
+    }
+
+    simulationFolderNodeId = deriveChildNodeId(dynamicFolderNodeId, "Simulation");
+    simulationPrefix = simulationFolderNodeId.getIdentifier() + ".";
+
+    if (simulationEngine != null) {
+      filter =
+          SimpleAddressSpaceFilter.create(
+              nodeId -> getNodeManager().containsNode(nodeId) || isSimulationNode(nodeId));
+    } else {
+      filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
+    }
+
+    samplingScheduler = namespace.getSamplingScheduler();
 
     ScheduledFuture<?> scheduledFuture =
         server
@@ -77,24 +151,196 @@ public class DynamicNodesFragment extends ManagedAddressSpaceFragmentWithLifecyc
     return filter;
   }
 
+  @Override
+  public List<ReferenceResult> browse(
+      BrowseContext context, ViewDescription view, List<NodeId> nodeIds) {
+
+    if (simulationEngine == null) {
+      return super.browse(context, view, nodeIds);
+    }
+
+    var results = new ArrayList<ReferenceResult>();
+
+    for (NodeId nodeId : nodeIds) {
+      UaNode node = getNodeManager().get(nodeId);
+
+      if (node != null) {
+        results.add(ReferenceResult.of(simulationReferences(nodeId, node.getReferences())));
+      } else if (isSimulationNode(nodeId)) {
+        results.add(ReferenceResult.of(simulationReferences(nodeId, List.of())));
+      } else {
+        results.add(ReferenceResult.unknown());
+      }
+    }
+
+    return results;
+  }
+
+  @Override
+  public ReferenceList gather(
+      BrowseContext context, ViewDescription viewDescription, NodeId nodeId) {
+
+    if (simulationEngine == null) {
+      return super.gather(context, viewDescription, nodeId);
+    }
+
+    return ReferenceResult.of(simulationReferences(nodeId, getNodeManager().getReferences(nodeId)));
+  }
+
+  @Override
+  public List<DataValue> read(
+      ReadContext context,
+      Double maxAge,
+      TimestampsToReturn timestamps,
+      List<ReadValueId> readValueIds) {
+
+    if (simulationEngine == null) {
+      return super.read(context, maxAge, timestamps, readValueIds);
+    }
+
+    var values = new ArrayList<DataValue>();
+
+    for (ReadValueId readValueId : readValueIds) {
+      UaNode node = getNodeManager().get(readValueId.getNodeId());
+      if (node == null) {
+        node = simulationNode(readValueId.getNodeId());
+      }
+
+      if (node != null) {
+        DataValue value =
+            AttributeReader.readAttribute(
+                context,
+                node,
+                readValueId.getAttributeId(),
+                timestamps,
+                readValueId.getIndexRange(),
+                readValueId.getDataEncoding());
+
+        values.add(value);
+      } else {
+        values.add(new DataValue(StatusCodes.Bad_NodeIdUnknown));
+      }
+    }
+
+    return values;
+  }
+
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    var sampledItems = new ArrayList<DataItem>();
+
+    for (DataItem item : dataItems) {
+      OpcUaDataType dataType = pushedDataType(item);
+
+      if (dataType != null) {
+        pushedItems.get(dataType).add(item);
+
+        DataValue value = randomValues.get(dataType);
+        if (value != null && item.isSamplingEnabled()) {
+          push(item, value);
+        }
+      } else {
+        sampledItems.add(item);
+      }
+    }
+
+    if (!sampledItems.isEmpty()) {
+      samplingScheduler.onDataItemsCreated(sampledItems);
+    }
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    // pushed items don't depend on the sampling interval; nothing to do for them.
+    List<DataItem> sampledItems =
+        dataItems.stream().filter(item -> pushedDataType(item) == null).toList();
+
+    if (!sampledItems.isEmpty()) {
+      samplingScheduler.onDataItemsModified(sampledItems);
+    }
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    var sampledItems = new ArrayList<DataItem>();
+
+    for (DataItem item : dataItems) {
+      OpcUaDataType dataType = pushedDataType(item);
+
+      if (dataType != null) {
+        pushedItems.get(dataType).remove(item);
+      } else {
+        sampledItems.add(item);
+      }
+    }
+
+    if (!sampledItems.isEmpty()) {
+      samplingScheduler.onDataItemsDeleted(sampledItems);
+    }
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    // pushed items check isSamplingEnabled() on every update; nothing to do for them.
+    List<MonitoredItem> sampledItems =
+        monitoredItems.stream()
+            .filter(
+                item -> !(item instanceof DataItem dataItem) || pushedDataType(dataItem) == null)
+            .toList();
+
+    if (!sampledItems.isEmpty()) {
+      samplingScheduler.onMonitoringModeChanged(sampledItems);
+    }
+  }
+
+  /**
+   * @return the {@link OpcUaDataType} of the Dynamic Variable whose Value {@code item} monitors, if
+   *     push mode is enabled, otherwise {@code null}.
+   */
+  private @Nullable OpcUaDataType pushedDataType(DataItem item) {
+    if (!pushEnabled) {
+      return null;
+    }
+
+    ReadValueId readValueId = item.getReadValueId();
+
+    if (AttributeId.Value.uid().equals(readValueId.getAttributeId())) {
+      return dataTypes.get(readValueId.getNodeId());
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Set {@code value} on a pushed {@code item}, applying the IndexRange and DataEncoding of its
+   * ReadValueId the same way a sampled read of the Variable does.
+   *
+   * <p>Like sampled values, the value keeps both timestamps; the item drops those its
+   * TimestampsToReturn doesn't ask for when it queues the value.
+   */
+  private void push(DataItem item, DataValue value) {
+    ReadValueId readValueId = item.getReadValueId();
+    String indexRange = readValueId.getIndexRange();
+    QualifiedName dataEncoding = readValueId.getDataEncoding();
+
+    if ((indexRange == null || indexRange.isEmpty())
+        && (dataEncoding == null || dataEncoding.isNull())) {
+
+      item.setValue(value);
+    } else {
+      UaNode node = getNodeManager().get(readValueId.getNodeId());
+
+      if (node != null) {
+        item.setValue(
+            AttributeReader.readAttribute(
+                new ReadContext(getServer(), null),
+                node,
+                readValueId.getAttributeId(),
+                TimestampsToReturn.Both,
+                indexRange,
+                dataEncoding));
+      }
+    }
   }
 
   private void addDynamicNodes() {
@@ -144,58 +390,216 @@ public class DynamicNodesFragment extends ManagedAddressSpaceFragmentWithLifecyc
               dynamicFolder.getNodeId().expanded(),
               Direction.INVERSE));
     }
+
+    if (simulationEngine != null) {
+      addSimulationNodes(dynamicFolder.getNodeId());
+    }
   }
 
   private void updateRandomValues() {
-    for (OpcUaDataType dataType : OpcUaDataType.values()) {
-      randomValues.put(dataType, getRandomValue(dataType));
-    }
-  }
-
-  private static DataValue getRandomValue(OpcUaDataType dataType) {
-    Object v =
-        switch (dataType) {
-          case Boolean -> Math.random() > 0.5;
-          case SByte -> (byte) (Math.random() * 256 - 128);
-          case Int16 -> (short) (Math.random() * 65536 - 32768);
-          case Int32 -> (int) (Math.random() * Integer.MAX_VALUE * 2 - Integer.MAX_VALUE);
-          case Int64 -> (long) (Math.random() * Long.MAX_VALUE);
-          case Byte -> ubyte((short) (Math.random() * 256));
-          case UInt16 -> ushort((int) (Math.random() * 65536));
-          case UInt32 -> uint((long) (Math.random() * Integer.MAX_VALUE));
-          case UInt64 -> ulong(Math.round(Math.random() * Long.MAX_VALUE));
-          case Float -> (float) Math.random() * 1000;
-          case Double -> Math.random() * 1000;
-          case String -> UUID.randomUUID().toString();
-          case DateTime -> new DateTime();
-          case Guid -> UUID.randomUUID();
-          case ByteString -> {
-            byte[] bytes = new byte[16];
-            new java.util.Random().nextBytes(bytes);
-            yield ByteString.of(bytes);
-          }
-          case XmlElement -> new XmlElement("<random>" + UUID.randomUUID() + "</random>");
-          case NodeId -> new NodeId(1, (int) (Math.random() * 1000));
-          case ExpandedNodeId -> new NodeId(1, (int) (Math.random() * 1000)).expanded();
-          case StatusCode -> new StatusCode((int) (Math.random() * 0xFFFF));
-          case QualifiedName ->
-              new QualifiedName(1, "Random-" + UUID.randomUUID().toString().substring(0, 8));
-          case LocalizedText ->
-              new LocalizedText("en", "Random-" + UUID.randomUUID().toString().substring(0, 8));
-          case ExtensionObject -> {
-            byte[] bytes = new byte[8];
-            new java.util.Random().nextBytes(bytes);
-            yield ExtensionObject.of(ByteString.of(bytes), NodeId.NULL_VALUE);
+    var now = DateTime.now();
+    var nowVariant = Variant.ofDateTime(now);
+
+    for (OpcUaDataType dataType : DATA_TYPES) {
+      DataValue previous = randomValues.get(dataType);
+      Variant value =
+          randomValueGenerator.next(
+              dataType, nowVariant, previous != null ? previous.getValue() : null);
+      var dataValue = new DataValue(value, StatusCode.GOOD, now, now);
+
+      randomValues.put(dataType, dataValue);
+
+      if (pushEnabled) {
+        for (DataItem item : pushedItems.get(dataType)) {
+          if (item.isSamplingEnabled()) {
+            push(item, dataValue);
           }
-          case DataValue -> new DataValue(Variant.of(Math.random() * 100));
-          case Variant -> Variant.of(Math.random() * 100);
-          case DiagnosticInfo -> null;
-        };
+        }
+      }
+    }
+  }
 
-    if (v instanceof Variant variant) {
-      return new DataValue(variant);
-    } else {
-      return new DataValue(Variant.of(v));
+  // region Simulation
+
+  private void addSimulationNodes(NodeId parentNodeId) {
+    assert simulationEngine != null;
+
+    var simulationFolder =
+        new UaFolderNode(
+            getNodeContext(),
+            simulationFolderNodeId,
+            new QualifiedName(namespace.getNamespaceIndex(), "Simulation"),
+            new LocalizedText("Simulation"));
+
+    getNodeManager().addNode(simulationFolder);
+
+    simulationFolder.addReference(
+        new Reference(
+            simulationFolder.getNodeId(),
+            ReferenceTypes.Organizes,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
+
+    for (SimulationEngine.RateGroup group : simulationEngine.getGroups()) {
+      var groupFolder =
+          new UaFolderNode(
+              getNodeContext(),
+              deriveChildNodeId(simulationFolderNodeId, group.getName()),
+              new QualifiedName(namespace.getNamespaceIndex(), group.getName()),
+              new LocalizedText(group.getName()));
+
+      groupFolder.setDescription(
+          new LocalizedText(
+              "%d %s values updated every %.3fms"
+                  .formatted(group.getCount(), group.getWaveform(), group.getRateNanos() / 1e6)));
+
+      getNodeManager().addNode(groupFolder);
+
+      groupFolder.addReference(
+          new Reference(
+              groupFolder.getNodeId(),
+              ReferenceTypes.Organizes,
+              simulationFolder.getNodeId().expanded(),
+              Direction.INVERSE));
     }
   }
+
+  /**
+   * Synthesize a transient Variable for the simulated value identified by {@code nodeId}.
+   *
+   * @param nodeId the NodeId of the simulated Variable.
+   * @return the synthesized Variable, or {@code null} if {@code nodeId} doesn't identify one.
+   */
+  private @Nullable UaVariableNode simulationNode(NodeId nodeId) {
+    SimulationEngine.RateGroup group = simulationGroup(nodeId);
+    if (group == null) {
+      return null;
+    }
+
+    int index = simulationIndex(nodeId, group);
+    if (index < 0) {
+      return null;
+    }
+
+    String name = indexName(index, indexWidth(group.getCount()));
+
+    var variableNode =
+        new UaVariableNode(
+            getNodeContext(),
+            nodeId,
+            new QualifiedName(namespace.getNamespaceIndex(), name),
+            new LocalizedText(name),
+            LocalizedText.NULL_VALUE,
+            uint(0),
+            uint(0));
+
+    variableNode.setDataType(NodeIds.Double);
+    variableNode.setAccessLevel(AccessLevel.toValue(AccessLevel.READ_ONLY));
+    variableNode.setUserAccessLevel(AccessLevel.toValue(AccessLevel.READ_ONLY));
+    variableNode.setMinimumSamplingInterval(group.getRateNanos() / 1e6);
+    variableNode.setValue(simulationValue(group, index));
+
+    return variableNode;
+  }
+
+  private static DataValue simulationValue(SimulationEngine.RateGroup group, int index) {
+    double value = group.getValue(index);
+    var sourceTime = new DateTime(Instant.ofEpochMilli(group.getTickTime()));
+
+    return new DataValue(Variant.ofDouble(value), StatusCode.GOOD, sourceTime, DateTime.now());
+  }
+
+  /**
+   * Compute the virtual child references of a rate group folder, or the references of a simulated
+   * Variable.
+   *
+   * <p>The child references of a rate group folder are created as they're accessed rather than up
+   * front, see {@link VirtualReferenceList}.
+   *
+   * @param nodeId the NodeId to compute references for.
+   * @param references the stored references of {@code nodeId}, if any.
+   * @return {@code references} followed by the computed references.
+   */
+  private List<Reference> simulationReferences(NodeId nodeId, List<Reference> references) {
+    SimulationEngine.RateGroup group = simulationGroup(nodeId);
+    if (group == null) {
+      return references;
+    }
+
+    NodeId groupFolderNodeId = deriveChildNodeId(simulationFolderNodeId, group.getName());
+
+    if (nodeId.equals(groupFolderNodeId)) {
+      int width = indexWidth(group.getCount());
+
+      return new VirtualReferenceList(
+          references,
+          group.getCount(),
+          i ->
+              new Reference(
+                  nodeId,
+                  ReferenceTypes.HasComponent,
+                  deriveChildNodeId(groupFolderNodeId, indexName(i, width)).expanded(),
+                  Direction.FORWARD));
+    }
+
+    if (simulationIndex(nodeId, group) >= 0) {
+      // simulated Variables are never stored, so they have no references of their own.
+      return List.of(
+          new Reference(
+              nodeId,
+              NodeIds.HasTypeDefinition,
+              NodeIds.BaseDataVariableType.expanded(),
+              Direction.FORWARD),
+          new Reference(
+              nodeId,
+              ReferenceTypes.HasComponent,
+              groupFolderNodeId.expanded(),
+              Direction.INVERSE));
+    }
+
+    return references;
+  }
+
+  private boolean isSimulationNode(NodeId nodeId) {
+    SimulationEngine.RateGroup group = simulationGroup(nodeId);
+
+    return group != null && simulationIndex(nodeId, group) >= 0;
+  }
+
+  /**
+   * @return the rate group that {@code nodeId} is, or is a Variable of, or {@code null}.
+   */
+  private SimulationEngine.@Nullable RateGroup simulationGroup(NodeId nodeId) {
+    if (simulationEngine != null
+        && nodeId.getIdentifier() instanceof String id
+        && nodeId.getNamespaceIndex().equals(namespace.getNamespaceIndex())
+        && id.startsWith(simulationPrefix)) {
+
+      int start = simulationPrefix.length();
+      int end = id.indexOf('.', start);
+      String groupName = end < 0 ? id.substring(start) : id.substring(start, end);
+
+      return simulationEngine.getGroup(groupName);
+    }
+    return null;
+  }
+
+  /**
+   * @return the index of the simulated Variable identified by {@code nodeId} in {@code group}, or
+   *     -1 if it doesn't identify one.
+   */
+  private int simulationIndex(NodeId nodeId, SimulationEngine.RateGroup group) {
+    String id = (String) nodeId.getIdentifier();
+    int offset = simulationPrefix.length() + group.getName().length() + 1;
+    int width = indexWidth(group.getCount());
+
+    if (id.length() != offset + width || id.charAt(offset - 1) != '.') {
+      return -1;
+    }
+
+    int value = parseIndex(id, offset, width);
+    return value < group.getCount() ? value : -1;
+  }
+
+  // endregion
 }
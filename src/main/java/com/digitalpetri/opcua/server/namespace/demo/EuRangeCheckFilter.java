@@ -1,5 +1,6 @@
 package com.digitalpetri.opcua.server.namespace.demo;
 
+import java.lang.reflect.Array;
 import org.eclipse.milo.opcua.sdk.server.model.variables.ArrayItemType;
 import org.eclipse.milo.opcua.sdk.server.model.variables.BaseAnalogType;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
@@ -53,8 +54,9 @@ public class EuRangeCheckFilter implements AttributeFilter {
 
         switch (v) {
           case Number n -> validateScalarValue(n, low, high);
-          case Object[] array -> validateArrayValue(array, low, high);
           case Matrix matrix -> validateMatrixValue(matrix, low, high);
+          case Object array when array.getClass().isArray() ->
+              validateArrayValue(array, low, high);
           case null, default ->
               throw new UaException(
                   StatusCodes.Bad_TypeMismatch,
@@ -73,43 +75,137 @@ public class EuRangeCheckFilter implements AttributeFilter {
     }
   }
 
-  static void validateArrayValue(Object[] array, Double low, Double high) throws UaException {
-    for (int i = 0; i < array.length; i++) {
-      Object element = array[i];
-      if (element instanceof Number n) {
-        if (n.doubleValue() < low || n.doubleValue() > high) {
-          throw new UaException(
-              StatusCodes.Bad_OutOfRange,
-              "array element [%d] value %s is out of range [%s, %s]".formatted(i, n, low, high));
-        }
-      } else {
-        throw new UaException(
-            StatusCodes.Bad_TypeMismatch,
-            "array element [%d] value %s is not a number".formatted(i, element));
-      }
-    }
+  /**
+   * Validate every element of {@code array} is within [low, high].
+   *
+   * @param array an array of {@link Number}s, or of a primitive numeric type.
+   * @param low the low end of the EU range.
+   * @param high the high end of the EU range.
+   * @throws UaException {@code Bad_OutOfRange} for the first element out of range, or {@code
+   *     Bad_TypeMismatch} if an element isn't a number.
+   */
+  static void validateArrayValue(Object array, Double low, Double high) throws UaException {
+    validateElements("array", array, low, high);
   }
 
+  /**
+   * Validate every element of {@code matrix} is within [low, high].
+   *
+   * @param matrix a {@link Matrix} of {@link Number}s, or of a primitive numeric type.
+   * @param low the low end of the EU range.
+   * @param high the high end of the EU range.
+   * @throws UaException {@code Bad_OutOfRange} for the first element out of range, or {@code
+   *     Bad_TypeMismatch} if an element isn't a number.
+   */
   static void validateMatrixValue(Matrix matrix, Double low, Double high) throws UaException {
     Object elements = matrix.getElements();
-    if (elements instanceof Object[] array) {
-      for (int i = 0; i < array.length; i++) {
-        Object element = array[i];
-        if (element instanceof Number n) {
-          if (n.doubleValue() < low || n.doubleValue() > high) {
-            throw new UaException(
-                StatusCodes.Bad_OutOfRange,
-                "matrix element [%d] value %s is out of range [%s, %s]".formatted(i, n, low, high));
-          }
-        } else {
-          throw new UaException(
-              StatusCodes.Bad_TypeMismatch,
-              "matrix element [%d] value %s is not a number".formatted(i, element));
-        }
-      }
+    if (elements != null && elements.getClass().isArray()) {
+      validateElements("matrix", elements, low, high);
     } else {
       throw new UaException(
           StatusCodes.Bad_TypeMismatch, "matrix elements are not an array: %s".formatted(elements));
     }
   }
+
+  private static void validateElements(String kind, Object array, Double low, Double high)
+      throws UaException {
+
+    int index = firstOutOfRange(kind, array, low, high);
+
+    if (index >= 0) {
+      throw new UaException(
+          StatusCodes.Bad_OutOfRange,
+          "%s element [%d] value %s is out of range [%s, %s]"
+              .formatted(kind, index, Array.get(array, index), low, high));
+    }
+  }
+
+  /**
+   * Find the first element of {@code array} outside [low, high].
+   *
+   * <p>Primitive arrays and the common boxed array types are checked in a loop specialized for
+   * their element type, so there's no per-element virtual call to {@link Number#doubleValue()}.
+   *
+   * @return the index of the first element out of range, or -1 if all elements are in range.
+   * @throws UaException {@code Bad_TypeMismatch} if an element isn't a number.
+   */
+  static int firstOutOfRange(String kind, Object array, double low, double high)
+      throws UaException {
+
+    switch (array) {
+      case double[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] < low || a[i] > high) return i;
+        }
+      }
+      case float[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] < low || a[i] > high) return i;
+        }
+      }
+      case long[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] < low || a[i] > high) return i;
+        }
+      }
+      case int[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] < low || a[i] > high) return i;
+        }
+      }
+      case short[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] < low || a[i] > high) return i;
+        }
+      }
+      case byte[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] < low || a[i] > high) return i;
+        }
+      }
+      case Double[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          Double v = a[i];
+          if (v == null) throw notANumber(kind, i, null);
+          if (v < low || v > high) return i;
+        }
+      }
+      case Float[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          Float v = a[i];
+          if (v == null) throw notANumber(kind, i, null);
+          if (v < low || v > high) return i;
+        }
+      }
+      case Integer[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          Integer v = a[i];
+          if (v == null) throw notANumber(kind, i, null);
+          if (v < low || v > high) return i;
+        }
+      }
+      case Object[] a -> {
+        for (int i = 0; i < a.length; i++) {
+          if (a[i] instanceof Number n) {
+            double v = n.doubleValue();
+            if (v < low || v > high) return i;
+          } else {
+            throw notANumber(kind, i, a[i]);
+          }
+        }
+      }
+      default ->
+          throw new UaException(
+              StatusCodes.Bad_TypeMismatch,
+              "%s of %s is not numeric".formatted(kind, array.getClass().getComponentType()));
+    }
+
+    return -1;
+  }
+
+  private static UaException notANumber(String kind, int index, @Nullable Object element) {
+    return new UaException(
+        StatusCodes.Bad_TypeMismatch,
+        "%s element [%d] value %s is not a number".formatted(kind, index, element));
+  }
 }
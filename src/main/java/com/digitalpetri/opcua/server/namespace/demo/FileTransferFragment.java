@@ -0,0 +1,255 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+
+import com.digitalpetri.opcua.server.objects.FileTransferObject;
+import com.digitalpetri.opcua.server.objects.FileTransferObject.Statistics;
+import com.typesafe.config.Config;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import org.eclipse.milo.opcua.sdk.core.AccessLevel;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
+import org.eclipse.milo.opcua.sdk.server.AddressSpaceFilter;
+import org.eclipse.milo.opcua.sdk.server.ManagedAddressSpaceFragmentWithLifecycle;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.SimpleAddressSpaceFilter;
+import org.eclipse.milo.opcua.sdk.server.items.DataItem;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
+import org.eclipse.milo.opcua.sdk.server.model.objects.FileTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
+import org.eclipse.milo.opcua.sdk.server.nodes.filters.AttributeFilters;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
+import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exposes the regular files in a directory as FileType Objects under Demo/FileTransfer, for
+ * benchmarking OPC UA file transfer.
+ *
+ * <p>Each file is implemented by a {@link FileTransferObject}. The Reads, BytesRead, Writes and
+ * BytesWritten Variables of the FileTransfer/Statistics folder count the transfers of all files
+ * since startup; sample them to get the transfer rate.
+ */
+public class FileTransferFragment extends ManagedAddressSpaceFragmentWithLifecycle {
+
+  private final Logger logger = LoggerFactory.getLogger(FileTransferFragment.class);
+
+  private final List<FileTransferObject> fileObjects = new ArrayList<>();
+  private final Statistics statistics = new Statistics();
+
+  private final Path directory;
+  private final boolean writable;
+  private final int readAheadSize;
+  private final int writeBehindSize;
+
+  private final AddressSpaceFilter filter;
+  private final SamplingScheduler samplingScheduler;
+
+  private final DemoNamespace namespace;
+
+  /**
+   * @param server the {@link OpcUaServer}.
+   * @param namespace the {@link DemoNamespace} this fragment belongs to.
+   * @param directory the directory whose files are exposed; created if it doesn't exist.
+   */
+  public FileTransferFragment(OpcUaServer server, DemoNamespace namespace, Path directory) {
+    super(server, namespace);
+
+    this.namespace = namespace;
+    this.directory = directory;
+
+    Config config = namespace.getConfig();
+
+    writable =
+        config.hasPath("address-space.file-transfer.writable")
+            && config.getBoolean("address-space.file-transfer.writable");
+
+    readAheadSize =
+        config.hasPath("address-space.file-transfer.read-ahead")
+            ? config.getBytes("address-space.file-transfer.read-ahead").intValue()
+            : 1 << 20;
+
+    writeBehindSize =
+        config.hasPath("address-space.file-transfer.write-behind")
+            ? config.getBytes("address-space.file-transfer.write-behind").intValue()
+            : 0;
+
+    filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
+
+    samplingScheduler = namespace.getSamplingScheduler();
+
+    getLifecycleManager().addStartupTask(this::addFileTransferNodes);
+    getLifecycleManager().addShutdownTask(this::shutdownFileObjects);
+  }
+
+  private void addFileTransferNodes() {
+    var fileTransferFolder =
+        new UaFolderNode(
+            getNodeContext(),
+            deriveChildNodeId(namespace.getDemoFolder().getNodeId(), "FileTransfer"),
+            new QualifiedName(namespace.getNamespaceIndex(), "FileTransfer"),
+            new LocalizedText("FileTransfer"));
+
+    getNodeManager().addNode(fileTransferFolder);
+
+    fileTransferFolder.addReference(
+        new Reference(
+            fileTransferFolder.getNodeId(),
+            ReferenceTypes.Organizes,
+            namespace.getDemoFolder().getNodeId().expanded(),
+            Direction.INVERSE));
+
+    addStatisticsNodes(fileTransferFolder.getNodeId());
+
+    List<Path> files;
+    try {
+      Files.createDirectories(directory);
+
+      try (Stream<Path> paths = Files.list(directory)) {
+        files = paths.filter(Files::isRegularFile).sorted().toList();
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to list file transfer directory: {}", directory, e);
+      return;
+    }
+
+    for (Path file : files) {
+      try {
+        addFileNode(fileTransferFolder.getNodeId(), file);
+      } catch (UaException e) {
+        logger.warn("Failed to add file transfer node for {}", file, e);
+      }
+    }
+
+    logger.info("Exposing {} files from {} under Demo/FileTransfer", files.size(), directory);
+  }
+
+  private void addFileNode(NodeId parentNodeId, Path file) throws UaException {
+    String name = file.getFileName().toString();
+
+    UaNode node =
+        getNodeFactory().createNode(deriveChildNodeId(parentNodeId, name), NodeIds.FileType);
+
+    if (node instanceof FileTypeNode fileNode) {
+      fileNode.setBrowseName(new QualifiedName(namespace.getNamespaceIndex(), name));
+      fileNode.setDisplayName(new LocalizedText(name));
+      fileNode.setWritable(writable);
+      fileNode.setUserWritable(writable);
+
+      getNodeManager().addNode(fileNode);
+
+      fileNode.addReference(
+          new Reference(
+              fileNode.getNodeId(),
+              ReferenceTypes.Organizes,
+              parentNodeId.expanded(),
+              Direction.INVERSE));
+
+      var fileObject =
+          new FileTransferObject(
+              fileNode, file.toFile(), writable, readAheadSize, writeBehindSize, statistics);
+      fileObject.startup();
+
+      fileObjects.add(fileObject);
+    }
+  }
+
+  private void addStatisticsNodes(NodeId parentNodeId) {
+    var statisticsFolder =
+        new UaFolderNode(
+            getNodeContext(),
+            deriveChildNodeId(parentNodeId, "Statistics"),
+            new QualifiedName(namespace.getNamespaceIndex(), "Statistics"),
+            new LocalizedText("Statistics"));
+
+    getNodeManager().addNode(statisticsFolder);
+
+    statisticsFolder.addReference(
+        new Reference(
+            statisticsFolder.getNodeId(),
+            ReferenceTypes.Organizes,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
+
+    addStatisticsVariable(statisticsFolder.getNodeId(), "Reads", statistics::getReads);
+    addStatisticsVariable(statisticsFolder.getNodeId(), "BytesRead", statistics::getBytesRead);
+    addStatisticsVariable(statisticsFolder.getNodeId(), "Writes", statistics::getWrites);
+    addStatisticsVariable(
+        statisticsFolder.getNodeId(), "BytesWritten", statistics::getBytesWritten);
+  }
+
+  private void addStatisticsVariable(NodeId parentNodeId, String name, LongSupplier value) {
+    var builder = new UaVariableNodeBuilder(getNodeContext());
+    builder
+        .setNodeId(deriveChildNodeId(parentNodeId, name))
+        .setBrowseName(new QualifiedName(namespace.getNamespaceIndex(), name))
+        .setDisplayName(new LocalizedText(name))
+        .setDataType(NodeIds.UInt64)
+        .setAccessLevel(AccessLevel.toValue(AccessLevel.READ_ONLY))
+        .setUserAccessLevel(AccessLevel.toValue(AccessLevel.READ_ONLY))
+        .setMinimumSamplingInterval(100.0);
+
+    UaVariableNode variableNode = builder.build();
+
+    variableNode
+        .getFilterChain()
+        .addLast(
+            AttributeFilters.getValue(ctx -> new DataValue(new Variant(ulong(value.getAsLong())))));
+
+    getNodeManager().addNode(variableNode);
+
+    variableNode.addReference(
+        new Reference(
+            variableNode.getNodeId(),
+            ReferenceTypes.HasComponent,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
+  }
+
+  private void shutdownFileObjects() {
+    fileObjects.forEach(FileTransferObject::shutdown);
+    fileObjects.clear();
+  }
+
+  @Override
+  public AddressSpaceFilter getFilter() {
+    return filter;
+  }
+
+  @Override
+  public void onDataItemsCreated(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsCreated(dataItems);
+  }
+
+  @Override
+  public void onDataItemsModified(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsModified(dataItems);
+  }
+
+  @Override
+  public void onDataItemsDeleted(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsDeleted(dataItems);
+  }
+
+  @Override
+  public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
+  }
+}
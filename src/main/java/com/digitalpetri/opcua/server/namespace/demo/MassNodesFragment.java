@@ -1,49 +1,133 @@
 package com.digitalpetri.opcua.server.namespace.demo;
 
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
-
+import static com.digitalpetri.opcua.server.namespace.demo.Util.indexName;
+import static com.digitalpetri.opcua.server.namespace.demo.Util.indexWidth;
+import static com.digitalpetri.opcua.server.namespace.demo.Util.parseIndex;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+import com.typesafe.config.Config;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import org.eclipse.milo.opcua.sdk.core.AccessLevel;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
+import org.eclipse.milo.opcua.sdk.server.AddressSpace.ReferenceResult.ReferenceList;
 import org.eclipse.milo.opcua.sdk.server.AddressSpaceFilter;
+import org.eclipse.milo.opcua.sdk.server.AttributeReader;
 import org.eclipse.milo.opcua.sdk.server.ManagedAddressSpaceFragmentWithLifecycle;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.sdk.server.SimpleAddressSpaceFilter;
 import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectNode.UaObjectNodeBuilder;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
+import org.eclipse.milo.opcua.sdk.server.nodes.filters.AttributeFilter;
+import org.eclipse.milo.opcua.sdk.server.nodes.filters.AttributeFilterContext;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
-import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
-
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ViewDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Adds the "Mass" folder to the Demo folder: a flat folder containing a large number of Objects
+ * and a nested folder containing a large number of Variables.
+ *
+ * <p>When {@code address-space.mass.virtual} is enabled the Mass nodes are not created at startup.
+ * Instead, like {@link TurtleNodesFragment}, they are computed from their NodeId whenever they are
+ * browsed or read, and are only materialized into the NodeManager while a MonitoredItem or a Value
+ * Write targets them. Browsing the Flat and Nested folders creates their child references only as
+ * they're returned, so the heap doesn't grow with the number of Mass nodes.
+ *
+ * <p>In either mode the values of the Nested Variables are kept in a {@link MassValueStore} and
+ * read and written through it, rather than being held by each Variable.
+ */
 public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
-  private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final AddressSpaceFilter filter;
+  private final SamplingScheduler samplingScheduler;
+
+  private final MassValueStore valueStore;
+  private final AttributeFilter valueStoreFilter = new ValueStoreFilter();
 
   private final DemoNamespace namespace;
   private final UShort namespaceIndex;
 
+  private final boolean virtual;
+  private final int flatQuantity;
+  private final int nestedQuantity1;
+  private final int nestedQuantity2;
+  private final int flatWidth;
+  private final int nestedWidth1;
+  private final int nestedWidth2;
+
+  private final NodeId massFolderNodeId;
+  private final NodeId flatFolderNodeId;
+  private final NodeId nestedFolderNodeId;
+
+  /** Identifier prefix of the virtual Objects in the Flat folder, e.g. "Demo.Mass.Flat.". */
+  private final String flatPrefix;
+
+  /** Identifier prefix of the virtual nodes in the Nested folder, e.g. "Demo.Mass.Nested.". */
+  private final String nestedPrefix;
+
+  /** Materialized virtual nodes, by the number of MonitoredItems and Writes pinning them. */
+  private final Map<NodeId, Integer> pins = new HashMap<>();
+
   public MassNodesFragment(OpcUaServer server, DemoNamespace namespace) {
     super(server, namespace);
 
     this.namespace = namespace;
     this.namespaceIndex = namespace.getNamespaceIndex();
 
-    filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
+    Config config = namespace.getConfig();
+    virtual =
+        config.hasPath("address-space.mass.virtual")
+            && config.getBoolean("address-space.mass.virtual");
+    flatQuantity = config.getInt("address-space.mass.flat-quantity");
+    nestedQuantity1 = config.getInt("address-space.mass.nested-quantity1");
+    nestedQuantity2 = config.getInt("address-space.mass.nested-quantity2");
+    flatWidth = indexWidth(flatQuantity);
+    nestedWidth1 = indexWidth(nestedQuantity1);
+    nestedWidth2 = indexWidth(nestedQuantity2);
+
+    valueStore = new MassValueStore(nestedQuantity1, nestedQuantity2);
+
+    massFolderNodeId = deriveChildNodeId(namespace.getDemoFolder().getNodeId(), "Mass");
+    flatFolderNodeId = deriveChildNodeId(massFolderNodeId, "Flat");
+    nestedFolderNodeId = deriveChildNodeId(massFolderNodeId, "Nested");
+    flatPrefix = flatFolderNodeId.getIdentifier() + ".";
+    nestedPrefix = nestedFolderNodeId.getIdentifier() + ".";
+
+    if (virtual) {
+      filter =
+          SimpleAddressSpaceFilter.create(
+              nodeId -> getNodeManager().containsNode(nodeId) || isVirtualNode(nodeId));
+    } else {
+      filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
+    }
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    samplingScheduler = namespace.getSamplingScheduler();
 
     getLifecycleManager().addStartupTask(this::addMassNodes);
   }
@@ -53,31 +137,157 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
     return filter;
   }
 
+  @Override
+  public List<ReferenceResult> browse(
+      BrowseContext context, ViewDescription view, List<NodeId> nodeIds) {
+
+    if (!virtual) {
+      return super.browse(context, view, nodeIds);
+    }
+
+    var results = new ArrayList<ReferenceResult>();
+
+    for (NodeId nodeId : nodeIds) {
+      if (isVirtualNode(nodeId)) {
+        // Virtual nodes are never stored with references, even after being materialized.
+        results.add(ReferenceResult.of(virtualReferences(nodeId, List.of())));
+      } else {
+        UaNode node = getNodeManager().get(nodeId);
+
+        if (node != null) {
+          results.add(ReferenceResult.of(virtualReferences(nodeId, node.getReferences())));
+        } else {
+          results.add(ReferenceResult.unknown());
+        }
+      }
+    }
+
+    return results;
+  }
+
+  @Override
+  public ReferenceList gather(
+      BrowseContext context, ViewDescription viewDescription, NodeId nodeId) {
+
+    if (!virtual) {
+      return super.gather(context, viewDescription, nodeId);
+    }
+
+    return ReferenceResult.of(virtualReferences(nodeId, getNodeManager().getReferences(nodeId)));
+  }
+
+  @Override
+  public List<DataValue> read(
+      ReadContext context,
+      Double maxAge,
+      TimestampsToReturn timestamps,
+      List<ReadValueId> readValueIds) {
+
+    if (!virtual) {
+      return super.read(context, maxAge, timestamps, readValueIds);
+    }
+
+    var values = new ArrayList<DataValue>();
+
+    for (ReadValueId readValueId : readValueIds) {
+      UaNode node = getNodeManager().get(readValueId.getNodeId());
+      if (node == null) {
+        node = virtualNode(readValueId.getNodeId());
+      }
+
+      if (node != null) {
+        DataValue value =
+            AttributeReader.readAttribute(
+                context,
+                node,
+                readValueId.getAttributeId(),
+                timestamps,
+                readValueId.getIndexRange(),
+                readValueId.getDataEncoding());
+
+        values.add(value);
+      } else {
+        values.add(new DataValue(StatusCodes.Bad_NodeIdUnknown));
+      }
+    }
+
+    return values;
+  }
+
+  @Override
+  public List<StatusCode> write(WriteContext context, List<WriteValue> writeValues) {
+    if (!virtual) {
+      return super.write(context, writeValues);
+    }
+
+    var results = new ArrayList<@Nullable StatusCode>(writeValues.size());
+    var delegated = new ArrayList<WriteValue>(writeValues.size());
+    var pinned = new ArrayList<NodeId>();
+
+    for (WriteValue writeValue : writeValues) {
+      NodeId nodeId = writeValue.getNodeId();
+
+      if (!isVirtualNode(nodeId)) {
+        results.add(null);
+        delegated.add(writeValue);
+      } else if (AttributeId.Value.uid().equals(writeValue.getAttributeId())) {
+        // Pin the node for the duration of the write so it's written like a materialized node.
+        pin(nodeId);
+        pinned.add(nodeId);
+        results.add(null);
+        delegated.add(writeValue);
+      } else if (AttributeId.from(writeValue.getAttributeId()).isPresent()) {
+        // Virtual nodes have a WriteMask of 0; no attribute other than Value is writable.
+        results.add(new StatusCode(StatusCodes.Bad_NotWritable));
+      } else {
+        results.add(new StatusCode(StatusCodes.Bad_AttributeIdInvalid));
+      }
+    }
+
+    try {
+      if (!delegated.isEmpty()) {
+        Iterator<StatusCode> delegatedResults = super.write(context, delegated).iterator();
+        results.replaceAll(result -> result != null ? result : delegatedResults.next());
+      }
+      return results;
+    } finally {
+      pinned.forEach(this::unpin);
+    }
+  }
+
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    if (virtual) {
+      dataItems.forEach(item -> pin(item.getReadValueId().getNodeId()));
+    }
+
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
+
+    if (virtual) {
+      dataItems.forEach(item -> unpin(item.getReadValueId().getNodeId()));
+    }
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addMassNodes() {
     var massFolder =
         new UaFolderNode(
             getNodeContext(),
-            deriveChildNodeId(namespace.getDemoFolder().getNodeId(), "Mass"),
+            massFolderNodeId,
             new QualifiedName(namespaceIndex, "Mass"),
             new LocalizedText("Mass"));
 
@@ -98,7 +308,7 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
     var nestedFolder =
         new UaFolderNode(
             getNodeContext(),
-            deriveChildNodeId(parentNodeId, "Nested"),
+            nestedFolderNodeId,
             new QualifiedName(namespaceIndex, "Nested"),
             new LocalizedText("Nested"));
 
@@ -111,13 +321,13 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
             parentNodeId.expanded(),
             Direction.INVERSE));
 
-    int nestedQuantity1 = namespace.getConfig().getInt("address-space.mass.nested-quantity1");
-    int nestedQuantity2 = namespace.getConfig().getInt("address-space.mass.nested-quantity2");
-    var formatString1 = "%%0%dd".formatted((int) Math.log10(nestedQuantity1 - 1) + 1);
-    var formatString2 = "%%0%dd".formatted((int) Math.log10(nestedQuantity2 - 1) + 1);
+    if (virtual) {
+      // Nested nodes are computed on demand from their NodeId.
+      return;
+    }
 
     for (int i = 0; i < nestedQuantity1; i++) {
-      String outerName = formatString1.formatted(i);
+      String outerName = indexName(i, nestedWidth1);
       var folder =
           new UaFolderNode(
               getNodeContext(),
@@ -135,17 +345,7 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
               Direction.INVERSE));
 
       for (int j = 0; j < nestedQuantity2; j++) {
-        String innerName = formatString2.formatted(j);
-        var builder = new UaVariableNodeBuilder(getNodeContext());
-        builder
-            .setNodeId(deriveChildNodeId(folder.getNodeId(), innerName))
-            .setBrowseName(new QualifiedName(namespaceIndex, innerName))
-            .setDisplayName(new LocalizedText(innerName))
-            .setDataType(NodeIds.Int32);
-
-        builder.setValue(new DataValue(Variant.ofInt32(j)));
-
-        UaVariableNode variableNode = builder.build();
+        UaVariableNode variableNode = buildNestedVariableNode(i, j);
 
         getNodeManager().addNode(variableNode);
 
@@ -163,7 +363,7 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
     var flatFolder =
         new UaFolderNode(
             getNodeContext(),
-            deriveChildNodeId(parentNodeId, "Flat"),
+            flatFolderNodeId,
             new QualifiedName(namespaceIndex, "Flat"),
             new LocalizedText("Flat"));
 
@@ -176,18 +376,13 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
             parentNodeId.expanded(),
             Direction.INVERSE));
 
-    int flatQuantity = namespace.getConfig().getInt("address-space.mass.flat-quantity");
-    var formatString = "%%0%dd".formatted((int) Math.log10(flatQuantity - 1) + 1);
+    if (virtual) {
+      // Flat nodes are computed on demand from their NodeId.
+      return;
+    }
 
     for (int i = 0; i < flatQuantity; i++) {
-      String name = formatString.formatted(i);
-      var builder = new UaObjectNodeBuilder(getNodeContext());
-      builder
-          .setNodeId(deriveChildNodeId(flatFolder.getNodeId(), name))
-          .setBrowseName(new QualifiedName(namespaceIndex, name))
-          .setDisplayName(new LocalizedText(name));
-
-      UaObjectNode objectNode = builder.build();
+      UaObjectNode objectNode = buildFlatObjectNode(i);
 
       getNodeManager().addNode(objectNode);
 
@@ -199,4 +394,423 @@ public class MassNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
               Direction.INVERSE));
     }
   }
+
+  private UaObjectNode buildFlatObjectNode(int i) {
+    String name = indexName(i, flatWidth);
+    var builder = new UaObjectNodeBuilder(getNodeContext());
+    builder
+        .setNodeId(flatNodeId(i))
+        .setBrowseName(new QualifiedName(namespaceIndex, name))
+        .setDisplayName(new LocalizedText(name));
+
+    return builder.build();
+  }
+
+  private UaVariableNode buildNestedVariableNode(int i, int j) {
+    String innerName = indexName(j, nestedWidth2);
+    var builder = new UaVariableNodeBuilder(getNodeContext());
+    builder
+        .setNodeId(nestedVariableNodeId(i, j))
+        .setBrowseName(new QualifiedName(namespaceIndex, innerName))
+        .setDisplayName(new LocalizedText(innerName))
+        .setDataType(NodeIds.Int32)
+        .setAccessLevel(AccessLevel.toValue(AccessLevel.READ_WRITE))
+        .setUserAccessLevel(AccessLevel.toValue(AccessLevel.READ_WRITE));
+
+    UaVariableNode variableNode = builder.build();
+
+    // The value lives in the store; the node only holds the filter that reaches it.
+    variableNode.getFilterChain().addLast(valueStoreFilter);
+
+    return variableNode;
+  }
+
+  // region Virtual Nodes
+
+  /**
+   * Pin the virtual node identified by {@code nodeId}, materializing it into the NodeManager if it
+   * isn't already pinned, so that it can be monitored or written like any other node.
+   *
+   * <p>The references of materialized nodes continue to be computed by {@link
+   * #virtualReferences(NodeId, List)}. Each call must be matched by a call to {@link
+   * #unpin(NodeId)}.
+   *
+   * @param nodeId the NodeId of the node to pin.
+   */
+  private synchronized void pin(NodeId nodeId) {
+    Integer count = pins.get(nodeId);
+
+    if (count != null) {
+      pins.put(nodeId, count + 1);
+      return;
+    }
+
+    UaNode node;
+
+    long nestedIndex = parseNestedVariableIndex(nodeId);
+    if (nestedIndex >= 0) {
+      node = buildNestedVariableNode((int) (nestedIndex >>> 32), (int) nestedIndex);
+    } else {
+      node = virtualNode(nodeId);
+    }
+
+    if (node != null) {
+      getNodeManager().addNode(node);
+      pins.put(nodeId, 1);
+    }
+  }
+
+  /**
+   * Release a pin taken by {@link #pin(NodeId)}, removing the node from the NodeManager once it's
+   * no longer pinned. Its value, if any, stays in the {@link MassValueStore}.
+   *
+   * @param nodeId the NodeId of the node to unpin.
+   */
+  private synchronized void unpin(NodeId nodeId) {
+    Integer count = pins.get(nodeId);
+
+    if (count == null) {
+      return;
+    }
+
+    if (count > 1) {
+      pins.put(nodeId, count - 1);
+    } else {
+      pins.remove(nodeId);
+      getNodeManager().removeNode(nodeId);
+    }
+  }
+
+  /**
+   * Synthesize a transient node for the virtual node identified by {@code nodeId}.
+   *
+   * <p>The node is not added to the NodeManager and has no references; it exists only long enough
+   * to have its attributes read.
+   *
+   * @param nodeId the NodeId of the virtual node.
+   * @return the synthesized node, or {@code null} if {@code nodeId} doesn't identify a virtual
+   *     node.
+   */
+  private @Nullable UaNode virtualNode(NodeId nodeId) {
+    int flatIndex = parseFlatIndex(nodeId);
+    if (flatIndex >= 0) {
+      return newObjectNode(nodeId, indexName(flatIndex, flatWidth));
+    }
+
+    int outerIndex = parseNestedFolderIndex(nodeId);
+    if (outerIndex >= 0) {
+      return newObjectNode(nodeId, indexName(outerIndex, nestedWidth1));
+    }
+
+    long nestedIndex = parseNestedVariableIndex(nodeId);
+    if (nestedIndex >= 0) {
+      int i = (int) (nestedIndex >>> 32);
+      int j = (int) nestedIndex;
+      String innerName = indexName(j, nestedWidth2);
+
+      var variableNode =
+          new UaVariableNode(
+              getNodeContext(),
+              nodeId,
+              new QualifiedName(namespaceIndex, innerName),
+              new LocalizedText(innerName),
+              LocalizedText.NULL_VALUE,
+              uint(0),
+              uint(0));
+
+      variableNode.setDataType(NodeIds.Int32);
+      variableNode.setAccessLevel(AccessLevel.toValue(AccessLevel.READ_WRITE));
+      variableNode.setUserAccessLevel(AccessLevel.toValue(AccessLevel.READ_WRITE));
+      variableNode.setValue(valueStore.getDataValue(i, j));
+
+      return variableNode;
+    }
+
+    return null;
+  }
+
+  private UaObjectNode newObjectNode(NodeId nodeId, String name) {
+    return new UaObjectNode(
+        getNodeContext(),
+        nodeId,
+        new QualifiedName(namespaceIndex, name),
+        new LocalizedText(name),
+        LocalizedText.NULL_VALUE,
+        uint(0),
+        uint(0),
+        ubyte(0));
+  }
+
+  /**
+   * Compute the references of a virtual node, or the virtual child references of the Flat and
+   * Nested folders.
+   *
+   * <p>Child references are created as they're accessed rather than up front, see {@link
+   * VirtualReferenceList}.
+   *
+   * @param nodeId the NodeId to compute references for.
+   * @param references the stored references of {@code nodeId}, if any.
+   * @return {@code references} followed by the computed references.
+   */
+  private List<Reference> virtualReferences(NodeId nodeId, List<Reference> references) {
+    if (nodeId.equals(flatFolderNodeId)) {
+      return new VirtualReferenceList(
+          references,
+          flatQuantity,
+          i ->
+              new Reference(
+                  nodeId,
+                  ReferenceTypes.HasComponent,
+                  flatNodeId(i).expanded(),
+                  Direction.FORWARD));
+    }
+
+    if (nodeId.equals(nestedFolderNodeId)) {
+      return new VirtualReferenceList(
+          references,
+          nestedQuantity1,
+          i ->
+              new Reference(
+                  nodeId,
+                  ReferenceTypes.HasComponent,
+                  nestedFolderNodeId(i).expanded(),
+                  Direction.FORWARD));
+    }
+
+    if (parseFlatIndex(nodeId) >= 0) {
+      return concat(
+          references,
+          new Reference(
+              nodeId,
+              NodeIds.HasTypeDefinition,
+              NodeIds.BaseObjectType.expanded(),
+              Direction.FORWARD),
+          new Reference(
+              nodeId, ReferenceTypes.HasComponent, flatFolderNodeId.expanded(), Direction.INVERSE));
+    }
+
+    int outerIndex = parseNestedFolderIndex(nodeId);
+    if (outerIndex >= 0) {
+      List<Reference> head =
+          concat(
+              references,
+              new Reference(
+                  nodeId,
+                  NodeIds.HasTypeDefinition,
+                  NodeIds.FolderType.expanded(),
+                  Direction.FORWARD),
+              new Reference(
+                  nodeId,
+                  ReferenceTypes.HasComponent,
+                  nestedFolderNodeId.expanded(),
+                  Direction.INVERSE));
+
+      return new VirtualReferenceList(
+          head,
+          nestedQuantity2,
+          j ->
+              new Reference(
+                  nodeId,
+                  ReferenceTypes.HasComponent,
+                  nestedVariableNodeId(outerIndex, j).expanded(),
+                  Direction.FORWARD));
+    }
+
+    long nestedIndex = parseNestedVariableIndex(nodeId);
+    if (nestedIndex >= 0) {
+      int i = (int) (nestedIndex >>> 32);
+      return concat(
+          references,
+          new Reference(
+              nodeId,
+              NodeIds.HasTypeDefinition,
+              NodeIds.BaseDataVariableType.expanded(),
+              Direction.FORWARD),
+          new Reference(
+              nodeId,
+              ReferenceTypes.HasComponent,
+              nestedFolderNodeId(i).expanded(),
+              Direction.INVERSE));
+    }
+
+    return references;
+  }
+
+  private static List<Reference> concat(List<Reference> references, Reference... more) {
+    if (references.isEmpty()) {
+      return List.of(more);
+    }
+
+    var concatenated = new ArrayList<Reference>(references.size() + more.length);
+    concatenated.addAll(references);
+    concatenated.addAll(List.of(more));
+    return concatenated;
+  }
+
+  private boolean isVirtualNode(NodeId nodeId) {
+    return parseFlatIndex(nodeId) >= 0
+        || parseNestedFolderIndex(nodeId) >= 0
+        || parseNestedVariableIndex(nodeId) >= 0;
+  }
+
+  private NodeId flatNodeId(int i) {
+    return deriveChildNodeId(flatFolderNodeId, indexName(i, flatWidth));
+  }
+
+  private NodeId nestedFolderNodeId(int i) {
+    return deriveChildNodeId(nestedFolderNodeId, indexName(i, nestedWidth1));
+  }
+
+  private NodeId nestedVariableNodeId(int i, int j) {
+    return deriveChildNodeId(nestedFolderNodeId(i), indexName(j, nestedWidth2));
+  }
+
+  /**
+   * @return the index of the Flat Object identified by {@code nodeId}, or -1 if it doesn't
+   *     identify one.
+   */
+  private int parseFlatIndex(NodeId nodeId) {
+    if (nodeId.getIdentifier() instanceof String id
+        && nodeId.getNamespaceIndex().equals(namespaceIndex)
+        && id.length() == flatPrefix.length() + flatWidth
+        && id.startsWith(flatPrefix)) {
+
+      int i = parseIndex(id, flatPrefix.length(), flatWidth);
+      return i < flatQuantity ? i : -1;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index of the Nested folder identified by {@code nodeId}, or -1 if it doesn't
+   *     identify one.
+   */
+  private int parseNestedFolderIndex(NodeId nodeId) {
+    if (nodeId.getIdentifier() instanceof String id
+        && nodeId.getNamespaceIndex().equals(namespaceIndex)
+        && id.length() == nestedPrefix.length() + nestedWidth1
+        && id.startsWith(nestedPrefix)) {
+
+      int i = parseIndex(id, nestedPrefix.length(), nestedWidth1);
+      return i < nestedQuantity1 ? i : -1;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the outer index in the upper 32 bits and the inner index in the lower 32 bits of the
+   *     Nested Variable identified by {@code nodeId}, or -1 if it doesn't identify one.
+   */
+  private long parseNestedVariableIndex(NodeId nodeId) {
+    if (nodeId.getIdentifier() instanceof String id
+        && nodeId.getNamespaceIndex().equals(namespaceIndex)
+        && id.length() == nestedPrefix.length() + nestedWidth1 + 1 + nestedWidth2
+        && id.startsWith(nestedPrefix)
+        && id.charAt(nestedPrefix.length() + nestedWidth1) == '.') {
+
+      int i = parseIndex(id, nestedPrefix.length(), nestedWidth1);
+      int j = parseIndex(id, nestedPrefix.length() + nestedWidth1 + 1, nestedWidth2);
+
+      if (i >= 0 && i < nestedQuantity1 && j >= 0 && j < nestedQuantity2) {
+        return ((long) i << 32) | j;
+      }
+    }
+    return -1L;
+  }
+
+  // endregion
+
+  /**
+   * @return a {@link ValuePersistence.ValueAccessor} for the Values of the Nested Variables, which
+   *     reads and sets them in the {@link MassValueStore}, whether or not their nodes exist.
+   */
+  ValuePersistence.ValueAccessor getValueAccessor() {
+    return new ValuePersistence.ValueAccessor() {
+      @Override
+      public @Nullable DataValue getValue(NodeId nodeId) {
+        long nestedIndex = parseNestedVariableIndex(nodeId);
+
+        return nestedIndex >= 0
+            ? valueStore.getDataValue((int) (nestedIndex >>> 32), (int) nestedIndex)
+            : null;
+      }
+
+      @Override
+      public boolean setValue(NodeId nodeId, DataValue value) {
+        long nestedIndex = parseNestedVariableIndex(nodeId);
+
+        if (nestedIndex >= 0 && value.getValue().getValue() instanceof Integer v) {
+          valueStore.set((int) (nestedIndex >>> 32), (int) nestedIndex, v);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Reads and writes the Value attribute of Nested Variables through {@link #valueStore}, creating
+   * a {@link DataValue} only when the value is read.
+   *
+   * <p>Values set directly on the node, e.g. restored by {@link ValuePersistence}, go to the store
+   * as well, since the node's own Value is never read.
+   */
+  private class ValueStoreFilter implements AttributeFilter {
+
+    @Override
+    public @Nullable Object getAttribute(AttributeFilterContext ctx, AttributeId attributeId) {
+      if (attributeId == AttributeId.Value) {
+        long nestedIndex = parseNestedVariableIndex(ctx.getNode().getNodeId());
+
+        if (nestedIndex >= 0) {
+          return valueStore.getDataValue((int) (nestedIndex >>> 32), (int) nestedIndex);
+        }
+      }
+
+      return ctx.getAttribute(attributeId);
+    }
+
+    @Override
+    public void setAttribute(
+        AttributeFilterContext ctx, AttributeId attributeId, @Nullable Object value) {
+
+      if (attributeId == AttributeId.Value
+          && value instanceof DataValue dataValue
+          && dataValue.getValue().getValue() instanceof Integer v) {
+
+        long nestedIndex = parseNestedVariableIndex(ctx.getNode().getNodeId());
+
+        if (nestedIndex >= 0) {
+          valueStore.set((int) (nestedIndex >>> 32), (int) nestedIndex, v);
+          return;
+        }
+      }
+
+      ctx.setAttribute(attributeId, value);
+    }
+
+    @Override
+    public void writeAttribute(
+        AttributeFilterContext ctx, AttributeId attributeId, @Nullable Object value)
+        throws UaException {
+
+      if (attributeId == AttributeId.Value) {
+        long nestedIndex = parseNestedVariableIndex(ctx.getNode().getNodeId());
+
+        if (nestedIndex >= 0) {
+          if (value instanceof DataValue dataValue
+              && dataValue.getValue().getValue() instanceof Integer v) {
+
+            valueStore.set((int) (nestedIndex >>> 32), (int) nestedIndex, v);
+            return;
+          } else {
+            throw new UaException(
+                StatusCodes.Bad_TypeMismatch, "value %s is not an Int32".formatted(value));
+          }
+        }
+      }
+
+      ctx.writeAttribute(attributeId, value);
+    }
+  }
 }
@@ -0,0 +1,70 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+/**
+ * Columnar storage for the values of the Int32 Variables in the Mass "Nested" folder.
+ *
+ * <p>Values live in a single primitive slab indexed by the outer and inner folder numbers, so each
+ * Variable costs 4 bytes rather than a boxed {@link DataValue}. DataValues are only created when a
+ * value is read.
+ */
+final class MassValueStore {
+
+  private final int quantity1;
+  private final int quantity2;
+  private final AtomicIntegerArray values;
+
+  /**
+   * Create a store for {@code quantity1 * quantity2} values, each initialized to its inner index.
+   *
+   * @param quantity1 the number of outer folders.
+   * @param quantity2 the number of Variables in each outer folder.
+   */
+  MassValueStore(int quantity1, int quantity2) {
+    long size = (long) quantity1 * quantity2;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException(
+          "too many values: %d x %d = %d".formatted(quantity1, quantity2, size));
+    }
+
+    this.quantity1 = quantity1;
+    this.quantity2 = quantity2;
+    this.values = new AtomicIntegerArray((int) size);
+
+    for (int i = 0; i < quantity1; i++) {
+      int offset = i * quantity2;
+      for (int j = 0; j < quantity2; j++) {
+        values.lazySet(offset + j, j);
+      }
+    }
+  }
+
+  int get(int i, int j) {
+    return values.get(index(i, j));
+  }
+
+  void set(int i, int j, int value) {
+    values.set(index(i, j), value);
+  }
+
+  /**
+   * Get the value at {@code [i, j]} as a {@link DataValue}.
+   *
+   * @param i the outer folder number.
+   * @param j the inner Variable number.
+   * @return a new {@link DataValue} containing the current value.
+   */
+  DataValue getDataValue(int i, int j) {
+    return new DataValue(Variant.ofInt32(get(i, j)));
+  }
+
+  private int index(int i, int j) {
+    if (i < 0 || i >= quantity1 || j < 0 || j >= quantity2) {
+      throw new IndexOutOfBoundsException("[%d, %d]".formatted(i, j));
+    }
+    return i * quantity2 + j;
+  }
+}
@@ -14,7 +14,6 @@ import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
@@ -25,7 +24,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 public class NullNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final DemoNamespace namespace;
 
@@ -36,8 +35,7 @@ public class NullNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    samplingScheduler = namespace.getSamplingScheduler();
 
     getLifecycleManager().addStartupTask(this::addNullNodes);
   }
@@ -94,21 +92,21 @@ public class NullNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 }
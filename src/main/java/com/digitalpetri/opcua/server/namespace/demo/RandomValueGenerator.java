@@ -0,0 +1,144 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+import java.util.LinkedHashSet;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.XmlElement;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Generates random {@link Variant}s for each {@link OpcUaDataType} without allocating on every
+ * call.
+ *
+ * <p>A pool of distinct random values is generated up front for each data type, and each call
+ * picks one at random using a per-thread {@link SplittableRandom}, skipping the value it's given as
+ * the previous one so that every update is a change a subscription reports. The pooled values are
+ * immutable so they can be shared freely. Only {@link OpcUaDataType#DateTime} is created on demand,
+ * since a random timestamp isn't useful.
+ */
+final class RandomValueGenerator {
+
+  /**
+   * The maximum number of pre-generated values per data type. Types with fewer possible values,
+   * e.g. Boolean, get a smaller pool.
+   */
+  static final int POOL_SIZE = 256;
+
+  private static final SplittableRandom SEED = new SplittableRandom();
+
+  private static final ThreadLocal<SplittableRandom> RANDOM =
+      ThreadLocal.withInitial(
+          () -> {
+            synchronized (SEED) {
+              return SEED.split();
+            }
+          });
+
+  private final Variant[][] pools = new Variant[OpcUaDataType.values().length][];
+
+  RandomValueGenerator() {
+    var random = new SplittableRandom();
+
+    for (OpcUaDataType dataType : OpcUaDataType.values()) {
+      var pool = new LinkedHashSet<Variant>();
+      for (int i = 0; i < POOL_SIZE * 4 && pool.size() < POOL_SIZE; i++) {
+        pool.add(randomVariant(dataType, random));
+      }
+      pools[dataType.ordinal()] = pool.toArray(Variant[]::new);
+    }
+  }
+
+  /**
+   * Get a random value of {@code dataType}.
+   *
+   * @param dataType the {@link OpcUaDataType} of the value.
+   * @param now the current time, returned for {@link OpcUaDataType#DateTime}.
+   * @param previous the value previously returned for the node being updated, or {@code null}.
+   * @return a random value of {@code dataType} that isn't equal to {@code previous}. {@link
+   *     Variant#NULL_VALUE} for {@link OpcUaDataType#DiagnosticInfo}.
+   */
+  Variant next(OpcUaDataType dataType, Variant now, @Nullable Variant previous) {
+    if (dataType == OpcUaDataType.DateTime) {
+      return now;
+    }
+
+    Variant[] pool = pools[dataType.ordinal()];
+    if (pool.length == 1) {
+      return pool[0];
+    }
+
+    SplittableRandom random = RANDOM.get();
+    int index = random.nextInt(pool.length);
+
+    if (pool[index].equals(previous)) {
+      // the pool is distinct, so any other index holds a different value.
+      index = (index + 1 + random.nextInt(pool.length - 1)) % pool.length;
+    }
+
+    return pool[index];
+  }
+
+  private static Variant randomVariant(OpcUaDataType dataType, SplittableRandom random) {
+    return switch (dataType) {
+      case Boolean -> Variant.ofBoolean(random.nextBoolean());
+      case SByte -> Variant.ofSByte((byte) random.nextInt());
+      case Int16 -> Variant.ofInt16((short) random.nextInt());
+      case Int32 -> Variant.ofInt32(random.nextInt());
+      case Int64 -> Variant.ofInt64(random.nextLong(Long.MAX_VALUE));
+      case Byte -> Variant.ofByte(ubyte(random.nextInt(256)));
+      case UInt16 -> Variant.ofUInt16(ushort(random.nextInt(65536)));
+      case UInt32 -> Variant.ofUInt32(uint(random.nextInt(Integer.MAX_VALUE)));
+      case UInt64 -> Variant.ofUInt64(ulong(random.nextLong(Long.MAX_VALUE)));
+      case Float -> Variant.ofFloat((float) random.nextDouble() * 1000);
+      case Double -> Variant.ofDouble(random.nextDouble() * 1000);
+      case String -> Variant.ofString(randomUuid(random).toString());
+      case DateTime -> Variant.ofDateTime(DateTime.now());
+      case Guid -> Variant.ofGuid(randomUuid(random));
+      case ByteString -> Variant.ofByteString(ByteString.of(randomBytes(random, 16)));
+      case XmlElement ->
+          Variant.ofXmlElement(new XmlElement("<random>" + randomUuid(random) + "</random>"));
+      case NodeId -> Variant.ofNodeId(new NodeId(1, random.nextInt(1000)));
+      case ExpandedNodeId ->
+          Variant.ofExpandedNodeId(new NodeId(1, random.nextInt(1000)).expanded());
+      case StatusCode -> Variant.ofStatusCode(new StatusCode(random.nextInt(0xFFFF)));
+      case QualifiedName -> Variant.ofQualifiedName(new QualifiedName(1, randomName(random)));
+      case LocalizedText -> Variant.ofLocalizedText(new LocalizedText("en", randomName(random)));
+      case ExtensionObject ->
+          Variant.ofExtensionObject(
+              ExtensionObject.of(ByteString.of(randomBytes(random, 8)), NodeId.NULL_VALUE));
+      case DataValue ->
+          Variant.ofDataValue(new DataValue(Variant.ofDouble(random.nextDouble() * 100)));
+      case Variant -> Variant.ofVariant(Variant.ofDouble(random.nextDouble() * 100));
+      case DiagnosticInfo -> Variant.NULL_VALUE;
+    };
+  }
+
+  private static UUID randomUuid(SplittableRandom random) {
+    return new UUID(random.nextLong(), random.nextLong());
+  }
+
+  private static String randomName(SplittableRandom random) {
+    return "Random-" + randomUuid(random).toString().substring(0, 8);
+  }
+
+  private static byte[] randomBytes(SplittableRandom random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -3,7 +3,9 @@ package com.digitalpetri.opcua.server.namespace.demo;
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
 
 import com.typesafe.config.Config;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.milo.opcua.sdk.core.AccessLevel;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
@@ -16,7 +18,6 @@ import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
@@ -30,10 +31,13 @@ import org.eclipse.milo.opcua.stack.core.types.structured.RolePermissionType;
 
 public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
+  /** Config path of the RBAC stress subtree. */
+  public static final String STRESS_CONFIG_PATH = "rbac.stress";
+
   private final AddressSpaceFilter filter =
       SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final DemoNamespace namespace;
 
@@ -42,8 +46,7 @@ public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
     this.namespace = namespace;
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    samplingScheduler = namespace.getSamplingScheduler();
 
     getLifecycleManager().addStartupTask(this::addRbacNodes);
   }
@@ -55,22 +58,22 @@ public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addRbacNodes() {
@@ -92,10 +95,107 @@ public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
     addSiteNode(rbacFolder.getNodeId(), "SiteA", "rbac.site-a");
     addSiteNode(rbacFolder.getNodeId(), "SiteB", "rbac.site-b");
+
+    Config config = namespace.getConfig();
+    if (config.hasPath(STRESS_CONFIG_PATH + ".enabled")
+        && config.getBoolean(STRESS_CONFIG_PATH + ".enabled")) {
+
+      addStressNodes(rbacFolder.getNodeId(), config.getConfig(STRESS_CONFIG_PATH));
+    }
+  }
+
+  /**
+   * Add a "Stress" folder with {@code sites} site folders of {@code variables-per-site}
+   * permission-protected Variables each, for measuring how RBAC checks scale.
+   *
+   * <p>Site {@code s} grants {@code read-permissions} to the {@code roles-per-site} stress roles
+   * starting at {@code s % roles}, and additionally {@code write-permissions} to the first of them.
+   * All Variables in a site share one {@link AccessControlFilter}.
+   */
+  private void addStressNodes(NodeId parentNodeId, Config stressConfig) {
+    int sites = stressConfig.getInt("sites");
+    int variablesPerSite = stressConfig.getInt("variables-per-site");
+    int roles = stressConfig.getInt("roles");
+    int rolesPerSite = Math.min(stressConfig.getInt("roles-per-site"), roles);
+
+    Set<Field> readPermissions = permissions(stressConfig.getStringList("read-permissions"));
+    Set<Field> writePermissions = permissions(stressConfig.getStringList("write-permissions"));
+
+    var stressFolder =
+        new UaFolderNode(
+            getNodeContext(),
+            deriveChildNodeId(parentNodeId, "Stress"),
+            new QualifiedName(namespace.getNamespaceIndex(), "Stress"),
+            new LocalizedText("Stress"));
+
+    getNodeManager().addNode(stressFolder);
+
+    stressFolder.addReference(
+        new Reference(
+            stressFolder.getNodeId(),
+            ReferenceTypes.Organizes,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
+
+    for (int site = 0; site < sites; site++) {
+      RolePermissionType[] rolePermissions =
+          stressRolePermissions(site, roles, rolesPerSite, readPermissions, writePermissions);
+
+      addSiteNode(
+          stressFolder.getNodeId(),
+          "Site%05d".formatted(site),
+          new AccessControlFilter(namespace.getRoleTable(), rolePermissions),
+          variablesPerSite);
+    }
+  }
+
+  /**
+   * @param role the stress role number, in [0, roles).
+   * @return the NodeId of stress role {@code role}.
+   */
+  public static NodeId stressRoleId(int role) {
+    return new NodeId(1, "StressRole" + role);
+  }
+
+  static RolePermissionType[] stressRolePermissions(
+      int site,
+      int roles,
+      int rolesPerSite,
+      Set<Field> readPermissions,
+      Set<Field> writePermissions) {
+
+    var readWriteFields = EnumSet.noneOf(Field.class);
+    readWriteFields.addAll(readPermissions);
+    readWriteFields.addAll(writePermissions);
+
+    PermissionType read = PermissionType.of(readPermissions.toArray(Field[]::new));
+    PermissionType readWrite = PermissionType.of(readWriteFields.toArray(Field[]::new));
+
+    var rolePermissions = new RolePermissionType[rolesPerSite];
+
+    for (int i = 0; i < rolesPerSite; i++) {
+      rolePermissions[i] =
+          new RolePermissionType(stressRoleId((site + i) % roles), i == 0 ? readWrite : read);
+    }
+
+    return rolePermissions;
+  }
+
+  private static Set<Field> permissions(List<String> permissions) {
+    var fields = EnumSet.noneOf(Field.class);
+    permissions.forEach(p -> fields.add(Field.valueOf(p)));
+    return fields;
   }
 
   private void addSiteNode(NodeId parentNodeId, String site, String key) {
-    var accessControlFilter = createAccessControlFilter(namespace.getConfig(), key);
+    var accessControlFilter =
+        createAccessControlFilter(namespace.getConfig(), key, namespace.getRoleTable());
+
+    addSiteNode(parentNodeId, site, accessControlFilter, 5);
+  }
+
+  private void addSiteNode(
+      NodeId parentNodeId, String site, AccessControlFilter accessControlFilter, int variables) {
 
     var siteFolder =
         new UaFolderNode(
@@ -113,7 +213,7 @@ public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
             parentNodeId.expanded(),
             Direction.INVERSE));
 
-    for (int i = 0; i < 5; i++) {
+    for (int i = 0; i < variables; i++) {
       var builder = new UaVariableNodeBuilder(getNodeContext());
       builder
           .setNodeId(deriveChildNodeId(siteFolder.getNodeId(), "Variable" + i))
@@ -140,7 +240,9 @@ public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
     }
   }
 
-  private static AccessControlFilter createAccessControlFilter(Config config, String key) {
+  private static AccessControlFilter createAccessControlFilter(
+      Config config, String key, RoleTable roleTable) {
+
     RolePermissionType[] rolePermissions =
         config.getConfigList(key).stream()
             .map(
@@ -156,6 +258,6 @@ public class RbacNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
                 })
             .toArray(RolePermissionType[]::new);
 
-    return new AccessControlFilter(rolePermissions);
+    return new AccessControlFilter(roleTable, rolePermissions);
   }
 }
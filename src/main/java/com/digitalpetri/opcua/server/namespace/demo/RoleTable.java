@@ -0,0 +1,118 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.milo.opcua.sdk.server.Session;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * Interns role NodeIds to small integer indices so a session's roles can be represented as a
+ * bitset shared by every {@link AccessControlFilter} in the namespace.
+ *
+ * <p>Role IDs are meant to be compiled before a session is activated: a {@code RoleMapper} that
+ * returns {@link SessionRoles} compiled by this table hands each session its bitset as its role
+ * IDs, so looking it up when evaluating a user attribute is a type check, with no map or lock.
+ * Role IDs that weren't compiled this way are compiled on every lookup.
+ */
+public class RoleTable {
+
+  private final Map<NodeId, Integer> indices = new ConcurrentHashMap<>();
+  private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+  /**
+   * Get the index of {@code roleId}, assigning the next free index if it hasn't been seen before.
+   *
+   * @param roleId the role NodeId.
+   * @return the index of {@code roleId}.
+   */
+  public int intern(NodeId roleId) {
+    return indices.computeIfAbsent(roleId, k -> nextIndex.getAndIncrement());
+  }
+
+  /**
+   * @return the number of roles interned so far.
+   */
+  public int size() {
+    return indices.size();
+  }
+
+  /**
+   * Get the compiled roles of {@code session}.
+   *
+   * @param session the {@link Session}.
+   * @return the role IDs of {@code session} if they were compiled by this table, otherwise the
+   *     result of compiling them.
+   */
+  public SessionRoles getSessionRoles(Session session) {
+    return compile(session.getRoleIds().orElse(List.of()));
+  }
+
+  /**
+   * Compile {@code roleIds} into a {@link SessionRoles} bitset.
+   *
+   * @param roleIds the role IDs.
+   * @return {@code roleIds} if it's already a {@link SessionRoles} compiled by this table,
+   *     otherwise a new {@link SessionRoles} containing the same role IDs.
+   */
+  public SessionRoles compile(List<NodeId> roleIds) {
+    if (roleIds instanceof SessionRoles roles && roles.roleTable == this) {
+      return roles;
+    }
+
+    long[] words = new long[0];
+
+    for (NodeId roleId : roleIds) {
+      int index = intern(roleId);
+      int word = index >>> 6;
+
+      if (word >= words.length) {
+        words = Arrays.copyOf(words, word + 1);
+      }
+      words[word] |= 1L << index;
+    }
+
+    return new SessionRoles(this, List.copyOf(roleIds), words);
+  }
+
+  /**
+   * An immutable list of role IDs, and the same roles as a bitset over the indices of the {@link
+   * RoleTable} that compiled it.
+   */
+  public static final class SessionRoles extends AbstractList<NodeId> implements RandomAccess {
+
+    private final RoleTable roleTable;
+    private final List<NodeId> roleIds;
+    private final long[] words;
+
+    private SessionRoles(RoleTable roleTable, List<NodeId> roleIds, long[] words) {
+      this.roleTable = roleTable;
+      this.roleIds = roleIds;
+      this.words = words;
+    }
+
+    /**
+     * @param index a role index from {@link RoleTable#intern(NodeId)}.
+     * @return {@code true} if the role at {@code index} is in this set.
+     */
+    public boolean containsIndex(int index) {
+      int word = index >>> 6;
+
+      return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    @Override
+    public NodeId get(int index) {
+      return roleIds.get(index);
+    }
+
+    @Override
+    public int size() {
+      return roleIds.size();
+    }
+  }
+}
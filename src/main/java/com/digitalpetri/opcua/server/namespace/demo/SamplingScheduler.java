@@ -0,0 +1,240 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.milo.opcua.sdk.server.AttributeServices;
+import org.eclipse.milo.opcua.sdk.server.AttributeServices.ReadContext;
+import org.eclipse.milo.opcua.sdk.server.Lifecycle;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.items.DataItem;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Samples the {@link DataItem}s of every fragment in a namespace, replacing a {@code
+ * SubscriptionModel} per fragment.
+ *
+ * <p>Items are grouped by their revised sampling interval. Each group has a single timer and is
+ * sampled with one batched read when it fires, so the cost of a tick is proportional to the number
+ * of items due rather than the number of items or fragments. Creating, modifying, or deleting an
+ * item only touches the group it belongs to.
+ *
+ * <p>Fragments delegate their {@code onDataItems*} and {@code onMonitoringModeChanged} callbacks to
+ * this scheduler the same way they would to a {@code SubscriptionModel}.
+ */
+public class SamplingScheduler implements Lifecycle {
+
+  private final Logger logger = LoggerFactory.getLogger(SamplingScheduler.class);
+
+  /** Sampling groups by interval, in milliseconds. Guarded by {@code this}. */
+  private final Map<Long, SamplingGroup> groups = new HashMap<>();
+
+  private final Map<DataItem, SamplingGroup> itemGroups = new ConcurrentHashMap<>();
+
+  /** Guarded by {@code this}. */
+  private boolean running = false;
+
+  private final OpcUaServer server;
+  private final AttributeServices attributeServices;
+
+  /**
+   * @param server the {@link OpcUaServer}.
+   * @param attributeServices the {@link AttributeServices} sampled items are read from.
+   */
+  public SamplingScheduler(OpcUaServer server, AttributeServices attributeServices) {
+    this.server = server;
+    this.attributeServices = attributeServices;
+  }
+
+  @Override
+  public synchronized void startup() {
+    running = true;
+
+    groups.values().forEach(SamplingGroup::schedule);
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    running = false;
+
+    groups.values().forEach(SamplingGroup::cancel);
+  }
+
+  public void onDataItemsCreated(List<DataItem> dataItems) {
+    synchronized (this) {
+      dataItems.forEach(this::add);
+    }
+
+    // sample new items right away rather than waiting up to an interval for their first value.
+    server
+        .getConfig()
+        .getExecutor()
+        .execute(
+            () -> {
+              try {
+                sample(dataItems);
+              } catch (Throwable t) {
+                logger.warn("Error sampling created items: {}", t.getMessage(), t);
+              }
+            });
+  }
+
+  public synchronized void onDataItemsModified(List<DataItem> dataItems) {
+    for (DataItem item : dataItems) {
+      SamplingGroup group = itemGroups.get(item);
+
+      if (group == null || group.intervalMillis != intervalMillis(item)) {
+        remove(item);
+        add(item);
+      }
+    }
+  }
+
+  public synchronized void onDataItemsDeleted(List<DataItem> dataItems) {
+    dataItems.forEach(this::remove);
+  }
+
+  public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
+    // isSamplingEnabled() is checked on every tick; nothing to reschedule.
+  }
+
+  /**
+   * @return the number of distinct sampling intervals currently scheduled.
+   */
+  public synchronized int getGroupCount() {
+    return groups.size();
+  }
+
+  /**
+   * @return the number of items currently being sampled.
+   */
+  public int getItemCount() {
+    return itemGroups.size();
+  }
+
+  private void add(DataItem item) {
+    long intervalMillis = intervalMillis(item);
+
+    SamplingGroup group =
+        groups.computeIfAbsent(
+            intervalMillis,
+            k -> {
+              var g = new SamplingGroup(k);
+              if (running) g.schedule();
+              return g;
+            });
+
+    group.items.add(item);
+    itemGroups.put(item, group);
+  }
+
+  private void remove(DataItem item) {
+    SamplingGroup group = itemGroups.remove(item);
+
+    if (group != null) {
+      group.items.remove(item);
+
+      if (group.items.isEmpty()) {
+        group.cancel();
+        groups.remove(group.intervalMillis);
+      }
+    }
+  }
+
+  private void sample(List<DataItem> dataItems) {
+    var enabledItems = new ArrayList<DataItem>(dataItems.size());
+    var readValueIds = new ArrayList<ReadValueId>(dataItems.size());
+
+    for (DataItem item : dataItems) {
+      if (item.isSamplingEnabled()) {
+        enabledItems.add(item);
+        readValueIds.add(item.getReadValueId());
+      }
+    }
+
+    if (enabledItems.isEmpty()) {
+      return;
+    }
+
+    var context = new ReadContext(server, null);
+
+    List<DataValue> values =
+        attributeServices.read(context, 0.0, TimestampsToReturn.Both, readValueIds);
+
+    for (int i = 0; i < enabledItems.size(); i++) {
+      enabledItems.get(i).setValue(values.get(i));
+    }
+  }
+
+  private static long intervalMillis(DataItem item) {
+    return Math.max(1L, Math.round(item.getSamplingInterval()));
+  }
+
+  private final class SamplingGroup {
+
+    private final Set<DataItem> items = ConcurrentHashMap.newKeySet();
+
+    /** Set while a sample is in progress so a slow read doesn't pile up ticks behind it. */
+    private final AtomicBoolean sampling = new AtomicBoolean(false);
+
+    private final long intervalMillis;
+
+    /** Guarded by {@link SamplingScheduler}{@code .this}. */
+    private @Nullable ScheduledFuture<?> future;
+
+    SamplingGroup(long intervalMillis) {
+      this.intervalMillis = intervalMillis;
+    }
+
+    void schedule() {
+      if (future == null) {
+        future =
+            server
+                .getConfig()
+                .getScheduledExecutorService()
+                .scheduleAtFixedRate(
+                    this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    void cancel() {
+      if (future != null) {
+        future.cancel(false);
+        future = null;
+      }
+    }
+
+    private void tick() {
+      if (!sampling.compareAndSet(false, true)) {
+        logger.debug("Skipping {}ms sample; previous sample still in progress", intervalMillis);
+        return;
+      }
+
+      server
+          .getConfig()
+          .getExecutor()
+          .execute(
+              () -> {
+                try {
+                  sample(List.copyOf(items));
+                } catch (Throwable t) {
+                  logger.warn("Error sampling {}ms group: {}", intervalMillis, t.getMessage(), t);
+                } finally {
+                  sampling.set(false);
+                }
+              });
+    }
+  }
+}
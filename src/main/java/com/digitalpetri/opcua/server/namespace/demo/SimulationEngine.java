@@ -0,0 +1,242 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import com.typesafe.config.Config;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.milo.opcua.sdk.server.Lifecycle;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates simulated values for a configurable number of nodes, organized into rate groups that
+ * each update all of their values at a fixed rate using a {@link Waveform}.
+ *
+ * <p>Values are kept in a primitive array per group and ticked on dedicated threads, so the cost of
+ * an update is a single array store per node. Configured under {@code
+ * address-space.dynamic.simulation}:
+ *
+ * <pre>{@code
+ * groups = [
+ *   { name = "Fast", count = 1000, rate = 1ms, waveform = "Sine", period = 10s, amplitude = 100 }
+ * ]
+ * }</pre>
+ */
+public class SimulationEngine implements Lifecycle {
+
+  private final Logger logger = LoggerFactory.getLogger(SimulationEngine.class);
+
+  private final Map<String, RateGroup> groups;
+
+  private volatile @Nullable ScheduledExecutorService executor;
+
+  public SimulationEngine(List<RateGroup> groups) {
+    var map = new LinkedHashMap<String, RateGroup>();
+    for (RateGroup group : groups) {
+      if (map.put(group.getName(), group) != null) {
+        throw new IllegalArgumentException("duplicate rate group: " + group.getName());
+      }
+    }
+    this.groups = Collections.unmodifiableMap(map);
+  }
+
+  @Override
+  public void startup() {
+    if (groups.isEmpty()) {
+      return;
+    }
+
+    var threadCount = new AtomicInteger(0);
+    int threads = Math.min(groups.size(), Runtime.getRuntime().availableProcessors());
+
+    ScheduledExecutorService executor =
+        Executors.newScheduledThreadPool(
+            threads,
+            r -> {
+              var thread = new Thread(r, "dynamic-simulation-" + threadCount.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    for (RateGroup group : groups.values()) {
+      executor.scheduleAtFixedRate(
+          () -> {
+            try {
+              group.tick();
+            } catch (Throwable t) {
+              logger.error("Error ticking rate group '{}'", group.getName(), t);
+            }
+          },
+          0,
+          group.getRateNanos(),
+          TimeUnit.NANOSECONDS);
+    }
+
+    this.executor = executor;
+
+    long changesPerSecond =
+        groups.values().stream()
+            .mapToLong(g -> (long) (g.getCount() * (1_000_000_000.0 / g.getRateNanos())))
+            .sum();
+
+    logger.info(
+        "Simulation started: {} rate groups, {} value changes/s", groups.size(), changesPerSecond);
+  }
+
+  @Override
+  public void shutdown() {
+    ScheduledExecutorService executor = this.executor;
+    if (executor != null) {
+      executor.shutdownNow();
+      this.executor = null;
+    }
+  }
+
+  public List<RateGroup> getGroups() {
+    return List.copyOf(groups.values());
+  }
+
+  public @Nullable RateGroup getGroup(String name) {
+    return groups.get(name);
+  }
+
+  /**
+   * Create a {@link SimulationEngine} from the {@code address-space.dynamic.simulation} config.
+   *
+   * @param config the {@code simulation} config object.
+   * @return a new {@link SimulationEngine}.
+   */
+  public static SimulationEngine create(Config config) {
+    var groups = new ArrayList<RateGroup>();
+
+    for (Config groupConfig : config.getConfigList("groups")) {
+      String name = groupConfig.getString("name");
+      if (name.isEmpty() || name.contains(".")) {
+        throw new IllegalArgumentException("invalid rate group name: '%s'".formatted(name));
+      }
+
+      long rateNanos = groupConfig.getDuration("rate", TimeUnit.NANOSECONDS);
+      if (rateNanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+        throw new IllegalArgumentException("rate group '%s': rate must be >= 1ms".formatted(name));
+      }
+
+      groups.add(
+          new RateGroup(
+              name,
+              groupConfig.getInt("count"),
+              rateNanos,
+              Waveform.valueOf(groupConfig.getString("waveform")),
+              groupConfig.getDuration("period", TimeUnit.NANOSECONDS),
+              groupConfig.getDouble("amplitude")));
+    }
+
+    return new SimulationEngine(groups);
+  }
+
+  /**
+   * A group of simulated values that all update at the same rate with the same {@link Waveform}.
+   *
+   * <p>Each value is offset in phase by its index so that the values in a group differ from one
+   * another. Values are written only by the tick thread and published by the volatile write of the
+   * tick time.
+   */
+  public static final class RateGroup {
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private final String name;
+    private final int count;
+    private final long rateNanos;
+    private final Waveform waveform;
+    private final long periodNanos;
+    private final double amplitude;
+
+    private final double[] values;
+    private final long startNanos = System.nanoTime();
+
+    private volatile long tickTime = System.currentTimeMillis();
+
+    public RateGroup(
+        String name,
+        int count,
+        long rateNanos,
+        Waveform waveform,
+        long periodNanos,
+        double amplitude) {
+
+      if (count < 0) {
+        throw new IllegalArgumentException("count must be >= 0");
+      }
+      if (periodNanos <= 0) {
+        throw new IllegalArgumentException("period must be > 0");
+      }
+
+      this.name = name;
+      this.count = count;
+      this.rateNanos = rateNanos;
+      this.waveform = waveform;
+      this.periodNanos = periodNanos;
+      this.amplitude = amplitude;
+      this.values = new double[count];
+    }
+
+    /** Compute the next value of every node in this group. */
+    void tick() {
+      double cycles = (double) (System.nanoTime() - startNanos) / periodNanos;
+      double base = cycles - Math.floor(cycles);
+
+      for (int i = 0; i < count; i++) {
+        double phase = base + (double) i / count;
+        if (phase >= 1.0) {
+          phase -= 1.0;
+        }
+        values[i] = waveform.next(values[i], phase, amplitude, random);
+      }
+
+      tickTime = System.currentTimeMillis();
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public long getRateNanos() {
+      return rateNanos;
+    }
+
+    public Waveform getWaveform() {
+      return waveform;
+    }
+
+    /**
+     * @return the time, in milliseconds since the epoch, the values were last updated.
+     */
+    public long getTickTime() {
+      return tickTime;
+    }
+
+    /**
+     * Get the current value at {@code index}.
+     *
+     * @param index the index of the value, in [0, count).
+     * @return the current value at {@code index}.
+     */
+    public double getValue(int index) {
+      // read the volatile first so the values written by the last tick are visible.
+      long ignored = tickTime;
+      return values[index];
+    }
+  }
+}
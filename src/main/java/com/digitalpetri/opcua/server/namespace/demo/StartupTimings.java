@@ -0,0 +1,100 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records how long each phase of server startup took, e.g. PKI initialization, NodeSet parsing,
+ * and the startup of each address space fragment.
+ *
+ * <p>Phases are kept in the order they finished and may be recorded concurrently. Each one is
+ * logged at DEBUG level as it's recorded; {@link #logSummary()} logs all of them at once.
+ */
+public class StartupTimings {
+
+  private final Logger logger = LoggerFactory.getLogger(StartupTimings.class);
+
+  /** Duration in nanoseconds by phase. Guarded by itself. */
+  private final Map<String, Long> durations = new LinkedHashMap<>();
+
+  /** An unmodifiable copy of {@link #durations}, replaced each time a phase is recorded. */
+  private volatile Map<String, Long> snapshot = Map.of();
+
+  /**
+   * Record that {@code phase} took {@code durationNanos}, replacing any earlier duration of it.
+   *
+   * @param phase the name of the phase.
+   * @param durationNanos how long the phase took, in nanoseconds.
+   */
+  public void record(String phase, long durationNanos) {
+    synchronized (durations) {
+      durations.remove(phase);
+      durations.put(phase, durationNanos);
+      snapshot = Collections.unmodifiableMap(new LinkedHashMap<>(durations));
+    }
+
+    logger.debug("{} took {}ms", phase, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+  }
+
+  /**
+   * Run {@code runnable} and record how long it took as {@code phase}.
+   *
+   * @param phase the name of the phase.
+   * @param runnable the phase.
+   */
+  public void time(String phase, Runnable runnable) {
+    long start = System.nanoTime();
+    try {
+      runnable.run();
+    } finally {
+      record(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Call {@code callable} and record how long it took as {@code phase}.
+   *
+   * @param phase the name of the phase.
+   * @param callable the phase.
+   * @param <T> the type of the result.
+   * @return the result of {@code callable}.
+   * @throws Exception if {@code callable} throws.
+   */
+  public <T> T time(String phase, Callable<T> callable) throws Exception {
+    long start = System.nanoTime();
+    try {
+      return callable.call();
+    } finally {
+      record(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return an unmodifiable snapshot of the recorded durations in nanoseconds, by phase, in the
+   *     order they were recorded. The same instance is returned until another phase is recorded.
+   */
+  public Map<String, Long> getDurations() {
+    return snapshot;
+  }
+
+  /** Log every recorded phase and its duration at INFO level. */
+  public void logSummary() {
+    var sb = new StringBuilder("Startup phases:");
+
+    getDurations()
+        .forEach(
+            (phase, nanos) ->
+                sb.append("\n  ")
+                    .append(phase)
+                    .append(": ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(nanos))
+                    .append("ms"));
+
+    logger.info(sb.toString());
+  }
+}
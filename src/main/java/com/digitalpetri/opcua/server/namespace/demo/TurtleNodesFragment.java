@@ -1,10 +1,13 @@
 package com.digitalpetri.opcua.server.namespace.demo;
 
+import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 
+import com.typesafe.config.Config;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
 import org.eclipse.milo.opcua.sdk.core.nodes.ObjectNodeProperties;
@@ -17,9 +20,9 @@ import org.eclipse.milo.opcua.sdk.server.SimpleAddressSpaceFilter;
 import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectNode;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
@@ -29,15 +32,28 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
 import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 import org.eclipse.milo.opcua.stack.core.types.structured.ViewDescription;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
+  /** Identifier prefix of the turtle nodes; turtle {@code n} is {@code "[turtles]n"}. */
+  static final String TURTLE_PREFIX = "[turtles]";
+
+  private final Logger logger = LoggerFactory.getLogger(TurtleNodesFragment.class);
+
   private final long depth;
+  private final int maxWalk;
+
+  /** Turtle nodes synthesized for reads, by turtle number, or null if caching is disabled. */
+  private final @Nullable ClockCache<UaObjectNode> nodeCache;
+
   private final AddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final DemoNamespace namespace;
 
@@ -46,16 +62,32 @@ public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycl
 
     this.namespace = namespace;
 
-    depth = namespace.getConfig().getLong("address-space.turtles.depth");
+    Config config = namespace.getConfig();
+
+    depth = config.getLong("address-space.turtles.depth");
+
+    maxWalk = maxWalk(config);
+
+    int cacheSize =
+        config.hasPath("address-space.turtles.cache-size")
+            ? config.getInt("address-space.turtles.cache-size")
+            : 0;
+
+    long cacheExpiry =
+        config.hasPath("address-space.turtles.cache-expiry")
+            ? config.getDuration("address-space.turtles.cache-expiry", TimeUnit.NANOSECONDS)
+            : 0L;
+
+    nodeCache = cacheSize > 0 ? new ClockCache<>(cacheSize, cacheExpiry) : null;
 
     filter =
         SimpleAddressSpaceFilter.create(
-            nodeId -> getNodeManager().containsNode(nodeId) || validTurtleNode(nodeId, depth));
+            nodeId -> getNodeManager().containsNode(nodeId) || turtleNumber(nodeId, depth) >= 0);
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    samplingScheduler = namespace.getSamplingScheduler();
 
     getLifecycleManager().addStartupTask(this::addTurtleNodes);
+    getLifecycleManager().addShutdownTask(this::logNodeCacheStats);
   }
 
   @Override
@@ -72,10 +104,12 @@ public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycl
     for (NodeId nodeId : nodeIds) {
       UaNode node = getNodeManager().get(nodeId);
 
+      long turtleNumber;
+
       if (node != null) {
         results.add(ReferenceResult.of(node.getReferences()));
-      } else if (validTurtleNode(nodeId, depth)) {
-        results.add(ReferenceResult.of(turtleReferences(nodeId)));
+      } else if ((turtleNumber = turtleNumber(nodeId, depth)) >= 0) {
+        results.add(ReferenceResult.of(turtleReferences(nodeId, turtleNumber)));
       } else {
         results.add(ReferenceResult.unknown());
       }
@@ -88,9 +122,15 @@ public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycl
   public ReferenceList gather(
       BrowseContext context, ViewDescription viewDescription, NodeId nodeId) {
 
-    var references = new ArrayList<Reference>();
-    references.addAll(getNodeManager().getReferences(nodeId));
-    references.addAll(turtleReferences(nodeId));
+    List<Reference> nodeReferences = getNodeManager().getReferences(nodeId);
+
+    long turtleNumber = turtleNumber(nodeId, depth);
+    if (turtleNumber < 0) {
+      return ReferenceResult.of(nodeReferences);
+    }
+
+    var references = new ArrayList<Reference>(nodeReferences);
+    references.addAll(turtleReferences(nodeId, turtleNumber));
 
     return ReferenceResult.of(references);
   }
@@ -107,7 +147,13 @@ public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycl
     for (ReadValueId readValueId : readValueIds) {
       UaNode node = getNodeManager().get(readValueId.getNodeId());
       if (node == null) {
-        node = turtleNode(readValueId.getNodeId());
+        long turtleNumber = turtleNumber(readValueId.getNodeId(), depth);
+        if (turtleNumber >= 0) {
+          node =
+              nodeCache != null
+                  ? nodeCache.get(turtleNumber, n -> turtleNode(turtleNodeId(n), n))
+                  : turtleNode(readValueId.getNodeId(), turtleNumber);
+        }
       }
 
       if (node != null) {
@@ -131,29 +177,29 @@ public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycl
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addTurtleNodes() {
     var turtlesFolder =
         new UaFolderNode(
             getNodeContext(),
-            new NodeId(namespace.getNamespaceIndex(), "[turtles]"),
+            getTurtlesFolderNodeId(),
             new QualifiedName(namespace.getNamespaceIndex(), "Turtles"),
             new LocalizedText("Turtles"));
 
@@ -182,71 +228,163 @@ public class TurtleNodesFragment extends ManagedAddressSpaceFragmentWithLifecycl
         new Reference(
             turtlesFolder.getNodeId(),
             ReferenceTypes.Organizes,
-            new NodeId(namespace.getNamespaceIndex(), "[turtles]0").expanded(),
+            turtleNodeId(0).expanded(),
             Direction.FORWARD));
-  }
 
-  private @Nullable UaObjectNode turtleNode(NodeId nodeId) {
-    try {
-      long turtleNumber = Long.parseLong(nodeId.getIdentifier().toString().substring(9));
+    addWalkMethod(turtlesFolder.getNodeId());
+  }
 
-      if (turtleNumber < depth) {
-        return new UaObjectNode(
+  private void addWalkMethod(NodeId parentNodeId) {
+    UaMethodNode walkNode =
+        new UaMethodNode(
             getNodeContext(),
-            new NodeId(namespace.getNamespaceIndex(), "[turtles]" + turtleNumber),
-            new QualifiedName(namespace.getNamespaceIndex(), "Turtle" + turtleNumber),
-            new LocalizedText("Turtle" + turtleNumber),
-            LocalizedText.NULL_VALUE,
+            deriveChildNodeId(parentNodeId, "Walk"),
+            new QualifiedName(namespace.getNamespaceIndex(), "Walk"),
+            LocalizedText.english("Walk"),
+            new LocalizedText("Get the NodeIds of consecutive turtles, many per call."),
             uint(0),
             uint(0),
-            ubyte(0));
-      }
-    } catch (Exception ignored) {
+            true,
+            true);
+
+    walkNode.setInputArguments(
+        new Argument[] {
+          TurtleWalkMethod.STARTING_NODE_ID,
+          TurtleWalkMethod.CONTINUATION_POINT,
+          TurtleWalkMethod.MAX_TURTLES
+        });
+    walkNode.setOutputArguments(
+        new Argument[] {TurtleWalkMethod.TURTLES, TurtleWalkMethod.CONTINUATION_POINT});
+    walkNode.setInvocationHandler(new TurtleWalkMethod(walkNode, this, depth, maxWalk));
+
+    getNodeManager().addNode(walkNode);
+
+    walkNode.addReference(
+        new Reference(
+            walkNode.getNodeId(),
+            NodeIds.HasComponent,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
+  }
+
+  private void logNodeCacheStats() {
+    if (nodeCache != null) {
+      logger.info(
+          "Turtle node cache: size={} hits={} misses={} evictions={}",
+          nodeCache.size(),
+          nodeCache.getHitCount(),
+          nodeCache.getMissCount(),
+          nodeCache.getEvictionCount());
     }
+  }
+
+  /**
+   * Get the most turtles returned by one call to the Walk Method.
+   *
+   * @param config the server {@link Config}.
+   * @return {@code address-space.turtles.max-walk}, or 10000 if it isn't set.
+   * @throws IllegalArgumentException if {@code address-space.turtles.max-walk} is less than 1.
+   */
+  static int maxWalk(Config config) {
+    int maxWalk =
+        config.hasPath("address-space.turtles.max-walk")
+            ? config.getInt("address-space.turtles.max-walk")
+            : 10_000;
+
+    if (maxWalk < 1) {
+      throw new IllegalArgumentException("address-space.turtles.max-walk must be >= 1: " + maxWalk);
+    }
+
+    return maxWalk;
+  }
+
+  NodeId getTurtlesFolderNodeId() {
+    return new NodeId(namespace.getNamespaceIndex(), TURTLE_PREFIX);
+  }
 
-    return null;
+  private UaObjectNode turtleNode(NodeId nodeId, long turtleNumber) {
+    String name = "Turtle" + turtleNumber;
+
+    return new UaObjectNode(
+        getNodeContext(),
+        nodeId,
+        new QualifiedName(namespace.getNamespaceIndex(), name),
+        new LocalizedText(name),
+        LocalizedText.NULL_VALUE,
+        uint(0),
+        uint(0),
+        ubyte(0));
   }
 
-  private List<Reference> turtleReferences(NodeId nodeId) {
-    try {
-      long turtleNumber = Long.parseLong(nodeId.getIdentifier().toString().substring(9));
-      long previousTurtle = turtleNumber - 1;
-      long nextTurtle = turtleNumber + 1;
-      var references = new ArrayList<Reference>();
+  private List<Reference> turtleReferences(NodeId nodeId, long turtleNumber) {
+    long previousTurtle = turtleNumber - 1;
+    long nextTurtle = turtleNumber + 1;
 
-      if (previousTurtle >= 0) {
-        references.add(
-            new Reference(
+    @Nullable Reference previous =
+        previousTurtle >= 0
+            ? new Reference(
                 nodeId,
                 ReferenceTypes.Organizes,
-                new NodeId(namespace.getNamespaceIndex(), "[turtles]" + previousTurtle).expanded(),
-                Direction.INVERSE));
-      }
-      if (nextTurtle < depth) {
-        references.add(
-            new Reference(
+                turtleNodeId(previousTurtle).expanded(),
+                Direction.INVERSE)
+            : null;
+
+    @Nullable Reference next =
+        nextTurtle < depth
+            ? new Reference(
                 nodeId,
                 ReferenceTypes.Organizes,
-                new NodeId(namespace.getNamespaceIndex(), "[turtles]" + nextTurtle).expanded(),
-                Direction.FORWARD));
-      }
-
-      return references;
-    } catch (Exception e) {
+                turtleNodeId(nextTurtle).expanded(),
+                Direction.FORWARD)
+            : null;
+
+    if (previous != null && next != null) {
+      return List.of(previous, next);
+    } else if (previous != null) {
+      return List.of(previous);
+    } else if (next != null) {
+      return List.of(next);
+    } else {
       return List.of();
     }
   }
 
-  private static boolean validTurtleNode(NodeId nodeId, long depth) {
-    String id = nodeId.getIdentifier().toString();
+  NodeId turtleNodeId(long turtleNumber) {
+    return new NodeId(namespace.getNamespaceIndex(), TURTLE_PREFIX + turtleNumber);
+  }
+
+  /**
+   * Parse the number of the turtle identified by {@code nodeId} without allocating.
+   *
+   * <p>Only canonical identifiers are accepted: {@code "[turtles]"} followed by a number with no
+   * sign or leading zeros.
+   *
+   * @param nodeId the NodeId to parse.
+   * @param depth the number of turtles.
+   * @return the turtle number, in [0, depth), or -1 if {@code nodeId} doesn't identify a turtle.
+   */
+  static long turtleNumber(NodeId nodeId, long depth) {
+    if (!(nodeId.getIdentifier() instanceof String id) || !id.startsWith(TURTLE_PREFIX)) {
+      return -1;
+    }
 
-    if (id.startsWith("[turtles]")) {
-      String idWithoutPrefix = id.substring(9);
-      try {
-        return Long.parseLong(idWithoutPrefix) < depth;
-      } catch (NumberFormatException ignored) {
+    int start = TURTLE_PREFIX.length();
+    int length = id.length() - start;
+
+    // 19 digits covers Long.MAX_VALUE; leading zeros are only allowed for turtle 0 itself.
+    if (length == 0 || length > 19 || (id.charAt(start) == '0' && length > 1)) {
+      return -1;
+    }
+
+    long value = 0;
+    for (int i = start; i < id.length(); i++) {
+      int digit = id.charAt(i) - '0';
+      if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+        return -1;
       }
+      value = value * 10 + digit;
     }
-    return false;
+
+    return value < depth ? value : -1;
   }
 }
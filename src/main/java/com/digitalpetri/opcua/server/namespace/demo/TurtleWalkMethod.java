@@ -0,0 +1,139 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+import java.nio.ByteBuffer;
+import org.eclipse.milo.opcua.sdk.core.ValueRanks;
+import org.eclipse.milo.opcua.sdk.server.methods.AbstractMethodInvocationHandler;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
+
+/**
+ * Walks the turtle chain in batches, returning the NodeIds of up to {@code MaxTurtles} consecutive
+ * turtles per call instead of one Browse per turtle.
+ *
+ * <p>A walk starts at {@code StartingNodeId}, either a turtle or the Turtles folder (turtle 0).
+ * While turtles remain, the returned {@code ContinuationPoint} is non-null; passing it back
+ * continues the walk where the previous call stopped, and {@code StartingNodeId} is ignored.
+ * Continuation points are stateless, so there is nothing to release if a walk is abandoned.
+ */
+public class TurtleWalkMethod extends AbstractMethodInvocationHandler {
+
+  public static final Argument STARTING_NODE_ID =
+      new Argument("StartingNodeId", NodeIds.NodeId, ValueRanks.Scalar, null, null);
+
+  public static final Argument CONTINUATION_POINT =
+      new Argument("ContinuationPoint", NodeIds.ByteString, ValueRanks.Scalar, null, null);
+
+  public static final Argument MAX_TURTLES =
+      new Argument("MaxTurtles", NodeIds.UInt32, ValueRanks.Scalar, null, null);
+
+  public static final Argument TURTLES =
+      new Argument(
+          "Turtles", NodeIds.NodeId, ValueRanks.OneDimension, new UInteger[] {uint(0)}, null);
+
+  private final TurtleNodesFragment fragment;
+  private final long depth;
+  private final int maxTurtles;
+
+  /**
+   * @param node the {@link UaMethodNode} this handler is installed on.
+   * @param fragment the {@link TurtleNodesFragment} whose turtles are walked.
+   * @param depth the number of turtles.
+   * @param maxTurtles the most turtles returned by one call, regardless of {@code MaxTurtles}.
+   */
+  public TurtleWalkMethod(
+      UaMethodNode node, TurtleNodesFragment fragment, long depth, int maxTurtles) {
+
+    super(node);
+
+    this.fragment = fragment;
+    this.depth = depth;
+    this.maxTurtles = maxTurtles;
+  }
+
+  @Override
+  public Argument[] getInputArguments() {
+    return new Argument[] {STARTING_NODE_ID, CONTINUATION_POINT, MAX_TURTLES};
+  }
+
+  @Override
+  public Argument[] getOutputArguments() {
+    return new Argument[] {TURTLES, CONTINUATION_POINT};
+  }
+
+  @Override
+  protected Variant[] invoke(InvocationContext invocationContext, Variant[] inputValues)
+      throws UaException {
+
+    Object iv0 = inputValues[0].getValue();
+    Object iv1 = inputValues[1].getValue();
+    Object iv2 = inputValues[2].getValue();
+
+    if (!(iv2 instanceof UInteger requested)) {
+      throw new UaException(StatusCodes.Bad_InvalidArgument);
+    }
+
+    long start;
+    if (iv1 instanceof ByteString continuationPoint && continuationPoint.isNotNull()) {
+      start = decodeContinuationPoint(continuationPoint);
+    } else if (iv0 instanceof NodeId startingNodeId) {
+      start = startingTurtle(startingNodeId);
+    } else {
+      throw new UaException(StatusCodes.Bad_InvalidArgument);
+    }
+
+    long limit =
+        requested.longValue() == 0 ? maxTurtles : Math.min(requested.longValue(), maxTurtles);
+    int count = (int) Math.min(limit, depth - start);
+
+    var turtles = new NodeId[count];
+    for (int i = 0; i < count; i++) {
+      turtles[i] = fragment.turtleNodeId(start + i);
+    }
+
+    long next = start + count;
+
+    ByteString continuationPoint =
+        next < depth ? encodeContinuationPoint(next) : ByteString.NULL_VALUE;
+
+    return new Variant[] {new Variant(turtles), new Variant(continuationPoint)};
+  }
+
+  private long startingTurtle(NodeId startingNodeId) throws UaException {
+    if (startingNodeId.equals(fragment.getTurtlesFolderNodeId())) {
+      return 0L;
+    }
+
+    long turtleNumber = TurtleNodesFragment.turtleNumber(startingNodeId, depth);
+    if (turtleNumber < 0) {
+      throw new UaException(StatusCodes.Bad_NodeIdUnknown);
+    }
+    return turtleNumber;
+  }
+
+  private long decodeContinuationPoint(ByteString continuationPoint) throws UaException {
+    byte[] bytes = continuationPoint.bytesOrEmpty();
+
+    if (bytes.length != Long.BYTES) {
+      throw new UaException(StatusCodes.Bad_ContinuationPointInvalid);
+    }
+
+    long next = ByteBuffer.wrap(bytes).getLong();
+    if (next <= 0 || next >= depth) {
+      throw new UaException(StatusCodes.Bad_ContinuationPointInvalid);
+    }
+    return next;
+  }
+
+  private static ByteString encodeContinuationPoint(long next) {
+    return ByteString.of(ByteBuffer.allocate(Long.BYTES).putLong(next).array());
+  }
+}
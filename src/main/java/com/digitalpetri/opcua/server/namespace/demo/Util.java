@@ -44,6 +44,49 @@ public class Util {
         parentNodeId.getNamespaceIndex(), "%s.%s".formatted(parentNodeId.getIdentifier(), name));
   }
 
+  /**
+   * Get the width needed to name each of {@code quantity} indexed nodes with the same number of
+   * digits, see {@link #indexName(int, int)}.
+   *
+   * @param quantity the number of nodes.
+   * @return the number of digits in the largest index, {@code quantity - 1}.
+   */
+  public static int indexWidth(int quantity) {
+    return Math.max(1, (int) Math.log10(quantity - 1) + 1);
+  }
+
+  /**
+   * Name an indexed node by its index, zero-padded to {@code width} digits.
+   *
+   * @param index the index of the node.
+   * @param width the width from {@link #indexWidth(int)}.
+   * @return the zero-padded index.
+   */
+  public static String indexName(int index, int width) {
+    var s = Integer.toString(index);
+    return s.length() >= width ? s : "0".repeat(width - s.length()) + s;
+  }
+
+  /**
+   * Parse an index named by {@link #indexName(int, int)} out of {@code s}, without allocating.
+   *
+   * @param s the String containing the index.
+   * @param offset the offset of the index in {@code s}.
+   * @param width the width of the index.
+   * @return the parsed index, or -1 if any of the characters isn't a decimal digit.
+   */
+  public static int parseIndex(String s, int offset, int width) {
+    int value = 0;
+    for (int k = offset; k < offset + width; k++) {
+      char c = s.charAt(k);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
   public static Object getDefaultScalarValue(OpcUaDataType dataType) {
     return switch (dataType) {
       case Boolean -> Boolean.FALSE;
@@ -0,0 +1,252 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A memory-mapped, append-only log of opaque records, used by {@link ValuePersistence}.
+ *
+ * <p>Format: a 4-byte magic number, then records of a 4-byte length, a 4-byte CRC-32C of the
+ * record, and the record itself. A zero length marks the end of the log.
+ *
+ * <p>An append writes the record, its CRC, and the zero length that follows it before the record's
+ * own length, so a process that dies mid-append leaves the log ending at the previous record. If
+ * the OS or machine fails instead, pages of the mapping may reach the disk in any order; a record
+ * whose length made it but whose contents didn't fails its CRC, and {@link #replay} treats it as
+ * the end of the log. Records are only durable once {@link #force} returns.
+ *
+ * <p>Not thread-safe; {@link ValuePersistence} only uses it while holding its own lock.
+ */
+final class ValueLog implements AutoCloseable {
+
+  static final int MAGIC = 0x4D56_4C32; // "MVL2"
+
+  static final int DEFAULT_GROWTH_BYTES = 4 * 1024 * 1024;
+
+  /** Bytes preceding each record: its length and CRC. */
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+  private final CRC32C crc = new CRC32C();
+
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+
+  private final Path path;
+  private final int growthBytes;
+
+  private ValueLog(Path path, int growthBytes, FileChannel channel, MappedByteBuffer buffer) {
+    this.path = path;
+    this.growthBytes = growthBytes;
+    this.channel = channel;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Open the log at {@code path}, creating it if it doesn't exist.
+   *
+   * <p>The log is positioned after its magic number; call {@link #replay} before appending to
+   * position it at the end of its records.
+   *
+   * @param path the log file.
+   * @param growthBytes how much the mapping grows by, at least, when it runs out of space.
+   * @return the opened {@link ValueLog}.
+   * @throws IOException if the file can't be opened or mapped, or isn't a value log.
+   */
+  static ValueLog open(Path path, int growthBytes) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    try {
+      long size = Math.max(channel.size(), growthBytes);
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("value log is too large: " + path);
+      }
+
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+      int magic = buffer.getInt(0);
+      if (magic == 0) {
+        buffer.putInt(0, MAGIC);
+      } else if (magic != MAGIC) {
+        throw new IOException("not a value log: " + path);
+      }
+      buffer.position(Integer.BYTES);
+
+      return new ValueLog(path, growthBytes, channel, buffer);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Read every record from the start of the log, in the order they were appended, and position the
+   * log after the last intact one so appends overwrite whatever follows it.
+   *
+   * @param consumer receives each record.
+   * @return the position of the first record that was torn or failed its CRC, or -1 if the log
+   *     ended cleanly.
+   */
+  int replay(Consumer<byte[]> consumer) {
+    int position = Integer.BYTES;
+
+    while (true) {
+      int length = position + HEADER_BYTES <= buffer.capacity() ? buffer.getInt(position) : 0;
+
+      if (length == 0) {
+        buffer.position(position);
+        return -1;
+      }
+
+      if (length < 0 || length > buffer.capacity() - position - HEADER_BYTES) {
+        buffer.position(position);
+        return position;
+      }
+
+      byte[] record = new byte[length];
+      buffer.get(position + HEADER_BYTES, record);
+
+      if (buffer.getInt(position + Integer.BYTES) != crc(record)) {
+        buffer.position(position);
+        return position;
+      }
+
+      consumer.accept(record);
+
+      position += recordSize(record);
+    }
+  }
+
+  /**
+   * Append {@code record}, growing the mapping if it doesn't fit.
+   *
+   * @param record the record; must not be empty.
+   * @throws IOException if the log can't grow.
+   */
+  void append(byte[] record) throws IOException {
+    int position = buffer.position();
+    int end = position + recordSize(record);
+
+    // room for the record and the zero length that terminates the log after it.
+    if (buffer.capacity() - end < Integer.BYTES) {
+      long size = Math.max(buffer.capacity() * 2L, (long) end + Integer.BYTES + growthBytes);
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("value log is full: " + path);
+      }
+
+      buffer.force();
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    buffer.put(position + HEADER_BYTES, record);
+    buffer.putInt(position + Integer.BYTES, crc(record));
+    buffer.putInt(end, 0);
+    buffer.putInt(position, record.length);
+    buffer.position(end);
+  }
+
+  /** Force appended records to the file. */
+  void force() {
+    buffer.force();
+  }
+
+  /**
+   * @return the number of bytes in use, including the magic number.
+   */
+  int position() {
+    return buffer.position();
+  }
+
+  /**
+   * @return the size of the mapping, i.e. the number of bytes that can be used before it grows.
+   */
+  int capacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Replace the contents of the log with {@code records}.
+   *
+   * <p>The records are written to a new file that atomically replaces the log, so a failure at any
+   * point leaves either the old or the new log on disk.
+   *
+   * @param records the records to keep.
+   * @throws IOException if the new log can't be written or moved into place. If writing the new
+   *     log failed, this log is still open on its previous contents; otherwise it's closed.
+   */
+  void compact(Collection<byte[]> records) throws IOException {
+    Path compactPath = path.resolveSibling(path.getFileName() + ".compact");
+
+    long size = Integer.BYTES;
+    for (byte[] record : records) {
+      size += recordSize(record);
+    }
+    long mappedSize = size + Integer.BYTES + growthBytes;
+    if (mappedSize > Integer.MAX_VALUE) {
+      throw new IOException("compacted value log is too large: " + path);
+    }
+
+    try (FileChannel compactChannel =
+        FileChannel.open(
+            compactPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+
+      MappedByteBuffer compactBuffer =
+          compactChannel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+
+      compactBuffer.putInt(MAGIC);
+      for (byte[] record : records) {
+        compactBuffer.putInt(record.length);
+        compactBuffer.putInt(crc(record));
+        compactBuffer.put(record);
+      }
+      compactBuffer.force();
+    }
+
+    close();
+    Files.move(
+        compactPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    buffer.position((int) size);
+  }
+
+  /**
+   * @return {@code true} unless the log was closed, or a failed {@link #compact} left it closed.
+   */
+  boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int crc(byte[] record) {
+    crc.reset();
+    crc.update(record);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * @param record a record.
+   * @return the number of bytes {@code record} occupies in the log, including its length and CRC.
+   */
+  static int recordSize(byte[] record) {
+    return HEADER_BYTES + record.length;
+  }
+}
@@ -0,0 +1,334 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import com.typesafe.config.Config;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.milo.opcua.sdk.server.Lifecycle;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.encoding.EncodingContext;
+import org.eclipse.milo.opcua.stack.core.encoding.binary.OpcUaBinaryDecoder;
+import org.eclipse.milo.opcua.stack.core.encoding.binary.OpcUaBinaryEncoder;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the values written to Variables in the demo namespace across restarts.
+ *
+ * <p>Writes only mark a NodeId dirty. A background task periodically reads the current value of
+ * each dirty Variable, encodes it with the OPC UA binary encoding, and appends it to a {@link
+ * ValueLog} in the data dir, so the write path never waits on I/O. When the log grows past a
+ * threshold and is mostly superseded records, it's compacted by writing the latest record of each
+ * Variable to a new log that replaces the old one.
+ *
+ * <p>At startup the log is replayed straight from the mapped file, the last record for each NodeId
+ * winning, and the values are set on the Variables that still exist.
+ *
+ * <p>Values are read and restored through the {@link ValueAccessor}s added with {@link
+ * #addValueAccessor}, if one holds the Variable, and otherwise through its node, so Variables that
+ * are only materialized while in use, e.g. virtual Mass nodes, are persisted too.
+ *
+ * <p>Each record is an encoded NodeId and DataValue, checksummed by the log. Values written since
+ * the last flush are lost if the server dies, and a crash of the OS or machine during a flush can
+ * lose the records of that flush; replay stops at the first record that fails its checksum, so a
+ * damaged log loses its tail rather than restoring garbage.
+ */
+public class ValuePersistence implements Lifecycle {
+
+  private final Logger logger = LoggerFactory.getLogger(ValuePersistence.class);
+
+  private final Set<NodeId> dirty = ConcurrentHashMap.newKeySet();
+
+  private final List<ValueAccessor> valueAccessors = new CopyOnWriteArrayList<>();
+
+  /** The latest record of each persisted NodeId. Guarded by {@code this}. */
+  private final Map<NodeId, byte[]> records = new HashMap<>();
+
+  /** Total size of {@link #records} in the log. Guarded by {@code this}. */
+  private long liveBytes = 0L;
+
+  /** Guarded by {@code this}. */
+  private @Nullable ValueLog log;
+
+  /** Guarded by {@code this}. */
+  private @Nullable ScheduledFuture<?> flushFuture;
+
+  private final OpcUaServer server;
+  private final Path logPath;
+  private final long flushIntervalMillis;
+  private final long compactThreshold;
+
+  /**
+   * @param server the {@link OpcUaServer}.
+   * @param persistenceDirPath the directory the value log is kept in.
+   * @param config the {@code persistence} config.
+   */
+  public ValuePersistence(OpcUaServer server, Path persistenceDirPath, Config config) {
+    this.server = server;
+
+    logPath = persistenceDirPath.resolve("values.log");
+
+    flushIntervalMillis =
+        config.hasPath("flush-interval")
+            ? config.getDuration("flush-interval", TimeUnit.MILLISECONDS)
+            : 1000L;
+
+    compactThreshold =
+        config.hasPath("compact-threshold") ? config.getBytes("compact-threshold") : 16L << 20;
+  }
+
+  @Override
+  public synchronized void startup() {
+    try {
+      Files.createDirectories(logPath.getParent());
+
+      log = ValueLog.open(logPath, ValueLog.DEFAULT_GROWTH_BYTES);
+      restore(log);
+    } catch (IOException e) {
+      logger.error("Value persistence disabled; failed to open {}", logPath, e);
+      close();
+      return;
+    }
+
+    flushFuture =
+        server
+            .getConfig()
+            .getScheduledExecutorService()
+            .scheduleWithFixedDelay(
+                this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    if (flushFuture != null) {
+      flushFuture.cancel(false);
+      flushFuture = null;
+    }
+
+    flushSafely();
+    close();
+  }
+
+  /**
+   * Add a {@link ValueAccessor} for Variables that may not exist as nodes. Must be called before
+   * {@link #startup()} for the values it holds to be restored.
+   *
+   * @param valueAccessor the {@link ValueAccessor}.
+   */
+  public void addValueAccessor(ValueAccessor valueAccessor) {
+    valueAccessors.add(valueAccessor);
+  }
+
+  /**
+   * Mark the Value of {@code nodeId} as written, to be persisted by the next flush.
+   *
+   * @param nodeId the NodeId of the Variable that was written.
+   */
+  public void markDirty(NodeId nodeId) {
+    dirty.add(nodeId);
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (Throwable t) {
+      logger.warn("Error persisting values: {}", t.getMessage(), t);
+    }
+  }
+
+  synchronized void flush() throws IOException {
+    if (log == null || dirty.isEmpty()) {
+      return;
+    }
+
+    var nodeIds = new ArrayList<NodeId>(dirty.size());
+    for (Iterator<NodeId> iterator = dirty.iterator(); iterator.hasNext(); ) {
+      nodeIds.add(iterator.next());
+      iterator.remove();
+    }
+
+    EncodingContext encodingContext = server.getStaticEncodingContext();
+
+    for (NodeId nodeId : nodeIds) {
+      DataValue value = getValue(nodeId);
+
+      if (value != null) {
+        byte[] record = encode(encodingContext, nodeId, value);
+
+        if (record != null) {
+          log.append(record);
+          put(nodeId, record);
+        }
+      }
+    }
+
+    log.force();
+
+    if (log.position() > compactThreshold && log.position() > 2 * liveBytes) {
+      int before = log.position();
+
+      try {
+        log.compact(records.values());
+      } catch (IOException e) {
+        if (!log.isOpen()) {
+          log = null;
+        }
+        throw e;
+      }
+
+      logger.debug("Compacted {} from {} to {} bytes", logPath, before, log.position());
+    }
+  }
+
+  private void restore(ValueLog log) {
+    EncodingContext encodingContext = server.getStaticEncodingContext();
+
+    var values = new HashMap<NodeId, DataValue>();
+
+    int corrupt =
+        log.replay(
+            record -> {
+              try {
+                ByteBuf recordBuffer = Unpooled.wrappedBuffer(record);
+                var decoder = new OpcUaBinaryDecoder(encodingContext);
+                decoder.setBuffer(recordBuffer);
+
+                NodeId nodeId = decoder.decodeNodeId();
+                values.put(nodeId, decoder.decodeDataValue());
+                put(nodeId, record);
+              } catch (RuntimeException e) {
+                logger.warn("Skipping undecodable value record: {}", e.getMessage());
+              }
+            });
+
+    if (corrupt >= 0) {
+      logger.warn("Value log {} is damaged at {}; ignoring the rest of it", logPath, corrupt);
+    }
+
+    int restored = 0;
+    for (Map.Entry<NodeId, DataValue> entry : values.entrySet()) {
+      if (setValue(entry.getKey(), entry.getValue())) {
+        restored++;
+      }
+    }
+
+    logger.info("Restored {} of {} persisted values from {}", restored, values.size(), logPath);
+  }
+
+  private @Nullable DataValue getValue(NodeId nodeId) {
+    for (ValueAccessor valueAccessor : valueAccessors) {
+      DataValue value = valueAccessor.getValue(nodeId);
+      if (value != null) {
+        return value;
+      }
+    }
+
+    if (server.getAddressSpaceManager().getManagedNode(nodeId).orElse(null)
+        instanceof UaVariableNode node) {
+
+      return node.getValue();
+    }
+
+    return null;
+  }
+
+  private boolean setValue(NodeId nodeId, DataValue value) {
+    for (ValueAccessor valueAccessor : valueAccessors) {
+      if (valueAccessor.setValue(nodeId, value)) {
+        return true;
+      }
+    }
+
+    if (server.getAddressSpaceManager().getManagedNode(nodeId).orElse(null)
+        instanceof UaVariableNode node) {
+
+      node.setValue(value);
+      return true;
+    }
+
+    return false;
+  }
+
+  private void put(NodeId nodeId, byte[] record) {
+    byte[] previous = records.put(nodeId, record);
+    liveBytes += ValueLog.recordSize(record);
+    if (previous != null) {
+      liveBytes -= ValueLog.recordSize(previous);
+    }
+  }
+
+  private void close() {
+    if (log != null) {
+      try {
+        log.close();
+      } catch (IOException e) {
+        logger.warn("Error closing {}: {}", logPath, e.getMessage());
+      }
+      log = null;
+    }
+  }
+
+  private byte @Nullable [] encode(
+      EncodingContext encodingContext, NodeId nodeId, DataValue value) {
+
+    ByteBuf recordBuffer = Unpooled.buffer();
+
+    try {
+      var encoder = new OpcUaBinaryEncoder(encodingContext);
+      encoder.setBuffer(recordBuffer);
+      encoder.encodeNodeId(nodeId);
+      encoder.encodeDataValue(value);
+
+      return ByteBufUtil.getBytes(recordBuffer);
+    } catch (RuntimeException e) {
+      logger.debug("Not persisting {}: {}", nodeId, e.getMessage());
+      return null;
+    } finally {
+      recordBuffer.release();
+    }
+  }
+
+  /**
+   * @return the number of NodeIds with a persisted value.
+   */
+  synchronized int size() {
+    return records.size();
+  }
+
+  /**
+   * Gets and sets the Values of Variables that don't necessarily exist as nodes, e.g. the Nested
+   * Variables of virtual Mass nodes, which are only materialized while they're in use.
+   */
+  public interface ValueAccessor {
+
+    /**
+     * @param nodeId the NodeId of a Variable.
+     * @return the Value of the Variable, or {@code null} if this accessor doesn't hold it.
+     */
+    @Nullable DataValue getValue(NodeId nodeId);
+
+    /**
+     * @param nodeId the NodeId of a Variable.
+     * @param value the Value to set.
+     * @return {@code true} if this accessor holds the Variable and set its Value.
+     */
+    boolean setValue(NodeId nodeId, DataValue value);
+  }
+}
@@ -0,0 +1,46 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+
+/**
+ * A read-only list of references to a large number of virtual child nodes, creating each
+ * {@link Reference} only when it's accessed.
+ *
+ * <p>Browsing a folder with millions of virtual children then only creates the references that
+ * are actually returned, e.g. one page at a time as a client follows continuation points, instead
+ * of a million-element list per Browse.
+ */
+final class VirtualReferenceList extends AbstractList<Reference> implements RandomAccess {
+
+  private final List<Reference> head;
+  private final int count;
+  private final IntFunction<Reference> reference;
+
+  /**
+   * @param head references that precede the virtual ones, e.g. those of a stored node.
+   * @param count the number of virtual references.
+   * @param reference creates the virtual reference at an index in {@code [0, count)}.
+   */
+  VirtualReferenceList(List<Reference> head, int count, IntFunction<Reference> reference) {
+    this.head = head;
+    this.count = count;
+    this.reference = reference;
+  }
+
+  @Override
+  public Reference get(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return index < head.size() ? head.get(index) : reference.apply(index - head.size());
+  }
+
+  @Override
+  public int size() {
+    return head.size() + count;
+  }
+}
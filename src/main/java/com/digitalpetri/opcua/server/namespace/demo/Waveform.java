@@ -0,0 +1,54 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import java.util.SplittableRandom;
+
+/** The waveforms a {@link SimulationEngine} rate group can generate. */
+public enum Waveform {
+
+  /** Rises linearly from 0 to the amplitude over each period, then drops back to 0. */
+  Ramp {
+    @Override
+    double next(double previous, double phase, double amplitude, SplittableRandom random) {
+      return amplitude * phase;
+    }
+  },
+
+  /** A sine wave between -amplitude and +amplitude. */
+  Sine {
+    @Override
+    double next(double previous, double phase, double amplitude, SplittableRandom random) {
+      return amplitude * Math.sin(2.0 * Math.PI * phase);
+    }
+  },
+
+  /** A square wave: 0 for the first half of each period, the amplitude for the second half. */
+  Step {
+    @Override
+    double next(double previous, double phase, double amplitude, SplittableRandom random) {
+      return phase < 0.5 ? 0.0 : amplitude;
+    }
+  },
+
+  /**
+   * Moves the previous value by a random step of up to 1% of the amplitude, bounded to
+   * [-amplitude, +amplitude]. The period is ignored.
+   */
+  RandomWalk {
+    @Override
+    double next(double previous, double phase, double amplitude, SplittableRandom random) {
+      double step = (random.nextDouble() * 2.0 - 1.0) * amplitude * 0.01;
+      return Math.max(-amplitude, Math.min(amplitude, previous + step));
+    }
+  };
+
+  /**
+   * Compute the next value of this waveform.
+   *
+   * @param previous the previous value.
+   * @param phase the position within the current period, in [0, 1).
+   * @param amplitude the amplitude of the waveform.
+   * @param random the random source, used by {@link #RandomWalk}.
+   * @return the next value.
+   */
+  abstract double next(double previous, double phase, double amplitude, SplittableRandom random);
+}
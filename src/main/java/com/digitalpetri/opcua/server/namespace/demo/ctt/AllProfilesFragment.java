@@ -3,6 +3,7 @@ package com.digitalpetri.opcua.server.namespace.demo.ctt;
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
 import com.digitalpetri.opcua.server.namespace.demo.Util;
 import java.util.List;
 import org.eclipse.milo.opcua.sdk.core.AccessLevel;
@@ -19,7 +20,6 @@ import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
@@ -35,7 +35,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 public class AllProfilesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final NodeId parentNodeId;
   private final UShort namespaceIndex;
@@ -43,6 +43,7 @@ public class AllProfilesFragment extends ManagedAddressSpaceFragmentWithLifecycl
   public AllProfilesFragment(
       OpcUaServer server,
       AddressSpaceComposite composite,
+      SamplingScheduler samplingScheduler,
       NodeId parentNodeId,
       UShort namespaceIndex) {
 
@@ -53,8 +54,7 @@ public class AllProfilesFragment extends ManagedAddressSpaceFragmentWithLifecycl
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, composite);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    this.samplingScheduler = samplingScheduler;
 
     getLifecycleManager().addStartupTask(this::addNodes);
   }
@@ -66,22 +66,22 @@ public class AllProfilesFragment extends ManagedAddressSpaceFragmentWithLifecycl
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addNodes() {
@@ -1,6 +1,7 @@
 package com.digitalpetri.opcua.server.namespace.demo.ctt;
 
 import com.digitalpetri.opcua.server.namespace.demo.DemoNamespace;
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
 import java.util.List;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
@@ -14,7 +15,6 @@ import org.eclipse.milo.opcua.sdk.server.SimpleAddressSpaceFilter;
 import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
@@ -32,35 +32,41 @@ public class CttNodes extends AddressSpaceComposite implements Lifecycle {
     super(server);
 
     UShort namespaceIndex = namespace.getNamespaceIndex();
+    SamplingScheduler samplingScheduler = namespace.getSamplingScheduler();
 
     // Create and add the root fragment that manages CTT and Static folders
-    rootFragment = new RootFragment(server, this, namespaceIndex);
+    rootFragment = new RootFragment(server, this, samplingScheduler, namespaceIndex);
     lifecycleManager.addLifecycle(rootFragment);
 
     // Create and add all child fragments
     var allProfilesFragment =
-        new AllProfilesFragment(server, this, rootFragment.getStaticFolderNodeId(), namespaceIndex);
+        new AllProfilesFragment(
+            server, this, samplingScheduler, rootFragment.getStaticFolderNodeId(), namespaceIndex);
     lifecycleManager.addLifecycle(allProfilesFragment);
 
     var dataAccessProfileFragment =
         new DataAccessProfileFragment(
-            server, this, rootFragment.getStaticFolderNodeId(), namespaceIndex);
+            server, this, samplingScheduler, rootFragment.getStaticFolderNodeId(), namespaceIndex);
     lifecycleManager.addLifecycle(dataAccessProfileFragment);
 
     var referencesFragment =
-        new ReferencesFragment(server, this, rootFragment.getStaticFolderNodeId(), namespaceIndex);
+        new ReferencesFragment(
+            server, this, samplingScheduler, rootFragment.getStaticFolderNodeId(), namespaceIndex);
     lifecycleManager.addLifecycle(referencesFragment);
 
     var pathsFragment =
-        new PathsFragment(server, this, rootFragment.getStaticFolderNodeId(), namespaceIndex);
+        new PathsFragment(
+            server, this, samplingScheduler, rootFragment.getStaticFolderNodeId(), namespaceIndex);
     lifecycleManager.addLifecycle(pathsFragment);
 
     var methodsFragment =
-        new MethodsFragment(server, this, rootFragment.getCttFolderNodeId(), namespaceIndex);
+        new MethodsFragment(
+            server, this, samplingScheduler, rootFragment.getCttFolderNodeId(), namespaceIndex);
     lifecycleManager.addLifecycle(methodsFragment);
 
     var securityAccessFragment =
-        new SecurityAccessFragment(server, this, rootFragment.getCttFolderNodeId(), namespaceIndex);
+        new SecurityAccessFragment(
+            server, this, samplingScheduler, rootFragment.getCttFolderNodeId(), namespaceIndex);
     lifecycleManager.addLifecycle(securityAccessFragment);
   }
 
@@ -90,15 +96,17 @@ public class CttNodes extends AddressSpaceComposite implements Lifecycle {
     private final UaFolderNode cttFolder;
     private final UaFolderNode staticFolder;
 
-    private final SubscriptionModel subscriptionModel;
+    private final SamplingScheduler samplingScheduler;
 
     public RootFragment(
-        OpcUaServer server, AddressSpaceComposite composite, UShort namespaceIndex) {
+        OpcUaServer server,
+        AddressSpaceComposite composite,
+        SamplingScheduler samplingScheduler,
+        UShort namespaceIndex) {
 
       super(server, composite);
 
-      subscriptionModel = new SubscriptionModel(server, composite);
-      getLifecycleManager().addLifecycle(subscriptionModel);
+      this.samplingScheduler = samplingScheduler;
 
       cttFolder =
           new UaFolderNode(
@@ -152,22 +160,22 @@ public class CttNodes extends AddressSpaceComposite implements Lifecycle {
 
     @Override
     public void onDataItemsCreated(List<DataItem> dataItems) {
-      subscriptionModel.onDataItemsCreated(dataItems);
+      samplingScheduler.onDataItemsCreated(dataItems);
     }
 
     @Override
     public void onDataItemsModified(List<DataItem> dataItems) {
-      subscriptionModel.onDataItemsModified(dataItems);
+      samplingScheduler.onDataItemsModified(dataItems);
     }
 
     @Override
     public void onDataItemsDeleted(List<DataItem> dataItems) {
-      subscriptionModel.onDataItemsDeleted(dataItems);
+      samplingScheduler.onDataItemsDeleted(dataItems);
     }
 
     @Override
     public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-      subscriptionModel.onMonitoringModeChanged(monitoredItems);
+      samplingScheduler.onMonitoringModeChanged(monitoredItems);
     }
   }
 }
@@ -4,6 +4,7 @@ import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeI
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 
 import com.digitalpetri.opcua.server.namespace.demo.EuRangeCheckFilter;
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
 import com.digitalpetri.opcua.server.namespace.demo.Util;
 import java.util.List;
 import org.eclipse.milo.opcua.sdk.core.AccessLevel;
@@ -29,7 +30,6 @@ import org.eclipse.milo.opcua.sdk.server.model.variables.XYArrayItemTypeNode;
 import org.eclipse.milo.opcua.sdk.server.model.variables.YArrayItemTypeNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
@@ -51,7 +51,7 @@ import org.eclipse.milo.opcua.stack.core.types.structured.Range;
 public class DataAccessProfileFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final NodeId parentNodeId;
   private final UShort namespaceIndex;
@@ -59,6 +59,7 @@ public class DataAccessProfileFragment extends ManagedAddressSpaceFragmentWithLi
   public DataAccessProfileFragment(
       OpcUaServer server,
       AddressSpaceComposite composite,
+      SamplingScheduler samplingScheduler,
       NodeId parentNodeId,
       UShort namespaceIndex) {
 
@@ -69,8 +70,7 @@ public class DataAccessProfileFragment extends ManagedAddressSpaceFragmentWithLi
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, composite);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    this.samplingScheduler = samplingScheduler;
 
     getLifecycleManager().addStartupTask(this::addNodes);
   }
@@ -82,22 +82,22 @@ public class DataAccessProfileFragment extends ManagedAddressSpaceFragmentWithLi
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addNodes() {
@@ -244,7 +244,7 @@ public class DataAccessProfileFragment extends ManagedAddressSpaceFragmentWithLi
           analogItemNode.setValue(new DataValue(Variant.of(arrayValue)));
         }
 
-        // analogItemNode.getFilterChain().addLast(EuRangeCheckFilter.INSTANCE);
+        analogItemNode.getFilterChain().addLast(EuRangeCheckFilter.INSTANCE);
 
         getNodeManager().addNode(analogItemNode);
 
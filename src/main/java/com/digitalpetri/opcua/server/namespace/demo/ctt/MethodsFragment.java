@@ -2,6 +2,7 @@ package com.digitalpetri.opcua.server.namespace.demo.ctt;
 
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
 
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
 import java.util.List;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
@@ -16,7 +17,6 @@ import org.eclipse.milo.opcua.sdk.server.methods.AbstractMethodInvocationHandler
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode.UaMethodNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
@@ -37,7 +37,7 @@ public class MethodsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
   };
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final NodeId parentNodeId;
   private final UShort namespaceIndex;
@@ -45,6 +45,7 @@ public class MethodsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
   public MethodsFragment(
       OpcUaServer server,
       AddressSpaceComposite composite,
+      SamplingScheduler samplingScheduler,
       NodeId parentNodeId,
       UShort namespaceIndex) {
 
@@ -55,8 +56,7 @@ public class MethodsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, composite);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    this.samplingScheduler = samplingScheduler;
 
     getLifecycleManager().addStartupTask(this::addNodes);
   }
@@ -68,22 +68,22 @@ public class MethodsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addNodes() {
@@ -2,6 +2,7 @@ package com.digitalpetri.opcua.server.namespace.demo.ctt;
 
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
 
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
 import java.util.List;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
@@ -13,7 +14,6 @@ import org.eclipse.milo.opcua.sdk.server.SimpleAddressSpaceFilter;
 import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
@@ -23,7 +23,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 public class PathsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final NodeId parentNodeId;
   private final UShort namespaceIndex;
@@ -31,6 +31,7 @@ public class PathsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
   public PathsFragment(
       OpcUaServer server,
       AddressSpaceComposite composite,
+      SamplingScheduler samplingScheduler,
       NodeId parentNodeId,
       UShort namespaceIndex) {
 
@@ -41,8 +42,7 @@ public class PathsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, composite);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    this.samplingScheduler = samplingScheduler;
 
     getLifecycleManager().addStartupTask(this::addNodes);
   }
@@ -54,22 +54,22 @@ public class PathsFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addNodes() {
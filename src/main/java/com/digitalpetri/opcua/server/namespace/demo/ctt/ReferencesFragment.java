@@ -2,6 +2,7 @@ package com.digitalpetri.opcua.server.namespace.demo.ctt;
 
 import static com.digitalpetri.opcua.server.namespace.demo.Util.deriveChildNodeId;
 
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
 import java.util.List;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
@@ -15,7 +16,6 @@ import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaFolderNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
@@ -28,7 +28,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 public class ReferencesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   private final SimpleAddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final NodeId parentNodeId;
   private final UShort namespaceIndex;
@@ -36,6 +36,7 @@ public class ReferencesFragment extends ManagedAddressSpaceFragmentWithLifecycle
   public ReferencesFragment(
       OpcUaServer server,
       AddressSpaceComposite composite,
+      SamplingScheduler samplingScheduler,
       NodeId parentNodeId,
       UShort namespaceIndex) {
 
@@ -46,8 +47,7 @@ public class ReferencesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, composite);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    this.samplingScheduler = samplingScheduler;
 
     getLifecycleManager().addStartupTask(this::addNodes);
   }
@@ -59,22 +59,22 @@ public class ReferencesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addNodes() {
@@ -5,9 +5,15 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 
 import com.digitalpetri.opcua.server.namespace.demo.DemoNamespace;
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
+import com.digitalpetri.opcua.server.namespace.demo.StartupTimings;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.eclipse.milo.opcua.sdk.core.AccessLevel;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
+import org.eclipse.milo.opcua.sdk.core.ValueRanks;
 import org.eclipse.milo.opcua.sdk.server.AddressSpaceFilter;
 import org.eclipse.milo.opcua.sdk.server.ManagedAddressSpaceFragmentWithLifecycle;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
@@ -16,21 +22,30 @@ import org.eclipse.milo.opcua.sdk.server.items.DataItem;
 import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectNode;
-import org.eclipse.milo.opcua.sdk.server.util.SubscriptionModel;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode.UaVariableNodeBuilder;
+import org.eclipse.milo.opcua.sdk.server.nodes.filters.AttributeFilters;
 import org.eclipse.milo.opcua.stack.core.NodeIds;
 import org.eclipse.milo.opcua.stack.core.ReferenceTypes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
+import org.jspecify.annotations.Nullable;
 
 public class DebugNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle {
 
   private final AddressSpaceFilter filter;
-  private final SubscriptionModel subscriptionModel;
+  private final SamplingScheduler samplingScheduler;
 
   private final DemoNamespace namespace;
 
+  /** The sample the Startup Variables were last read from, or {@code null} before the first. */
+  private volatile @Nullable StartupSample startupSample;
+
   public DebugNodesFragment(OpcUaServer server, DemoNamespace namespace) {
     super(server, namespace);
 
@@ -38,8 +53,7 @@ public class DebugNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
     filter = SimpleAddressSpaceFilter.create(getNodeManager()::containsNode);
 
-    subscriptionModel = new SubscriptionModel(server, this);
-    getLifecycleManager().addLifecycle(subscriptionModel);
+    samplingScheduler = namespace.getSamplingScheduler();
 
     getLifecycleManager().addStartupTask(this::addDebugNodes);
   }
@@ -51,22 +65,22 @@ public class DebugNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
 
   @Override
   public void onDataItemsCreated(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsCreated(dataItems);
+    samplingScheduler.onDataItemsCreated(dataItems);
   }
 
   @Override
   public void onDataItemsModified(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsModified(dataItems);
+    samplingScheduler.onDataItemsModified(dataItems);
   }
 
   @Override
   public void onDataItemsDeleted(List<DataItem> dataItems) {
-    subscriptionModel.onDataItemsDeleted(dataItems);
+    samplingScheduler.onDataItemsDeleted(dataItems);
   }
 
   @Override
   public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
-    subscriptionModel.onMonitoringModeChanged(monitoredItems);
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
   }
 
   private void addDebugNodes() {
@@ -91,6 +105,88 @@ public class DebugNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
             Direction.INVERSE));
 
     addDeleteSubscriptionMethod(debugNode.getNodeId());
+    addStartupNodes(debugNode.getNodeId());
+  }
+
+  /**
+   * Add the Startup Object, whose Phases and DurationsMillis Variables list the startup phases
+   * recorded in the namespace's {@link StartupTimings} and how long each took. Their values are
+   * read from the timings on every read, so phases recorded after this fragment started show up.
+   * Both come from the same {@link StartupSample}, so their elements stay aligned.
+   */
+  private void addStartupNodes(NodeId parentNodeId) {
+    UaObjectNode startupNode =
+        new UaObjectNode(
+            getNodeContext(),
+            deriveChildNodeId(parentNodeId, "Startup"),
+            new QualifiedName(namespace.getNamespaceIndex(), "Startup"),
+            LocalizedText.english("Startup"),
+            LocalizedText.NULL_VALUE,
+            uint(0),
+            uint(0),
+            ubyte(0));
+
+    getNodeManager().addNode(startupNode);
+
+    startupNode.addReference(
+        new Reference(
+            startupNode.getNodeId(),
+            NodeIds.HasComponent,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
+
+    addStartupVariable(
+        startupNode.getNodeId(), "Phases", NodeIds.String, () -> startupSample().phases());
+
+    addStartupVariable(
+        startupNode.getNodeId(),
+        "DurationsMillis",
+        NodeIds.Double,
+        () -> startupSample().durationsMillis());
+  }
+
+  /**
+   * @return the {@link StartupSample} of the current {@link StartupTimings#getDurations()}
+   *     snapshot, reusing the last one if no phase has been recorded since.
+   */
+  private StartupSample startupSample() {
+    Map<String, Long> durations = namespace.getStartupTimings().getDurations();
+
+    StartupSample sample = startupSample;
+    if (sample == null || sample.durations() != durations) {
+      startupSample = sample = new StartupSample(durations);
+    }
+    return sample;
+  }
+
+  private void addStartupVariable(
+      NodeId parentNodeId, String name, NodeId dataType, Supplier<Object[]> value) {
+
+    var builder = new UaVariableNodeBuilder(getNodeContext());
+    builder
+        .setNodeId(deriveChildNodeId(parentNodeId, name))
+        .setBrowseName(new QualifiedName(namespace.getNamespaceIndex(), name))
+        .setDisplayName(LocalizedText.english(name))
+        .setDataType(dataType)
+        .setValueRank(ValueRanks.OneDimension)
+        .setArrayDimensions(new UInteger[] {uint(0)})
+        .setAccessLevel(AccessLevel.toValue(AccessLevel.READ_ONLY))
+        .setUserAccessLevel(AccessLevel.toValue(AccessLevel.READ_ONLY));
+
+    UaVariableNode variableNode = builder.build();
+
+    variableNode
+        .getFilterChain()
+        .addLast(AttributeFilters.getValue(ctx -> new DataValue(new Variant(value.get()))));
+
+    getNodeManager().addNode(variableNode);
+
+    variableNode.addReference(
+        new Reference(
+            variableNode.getNodeId(),
+            NodeIds.HasComponent,
+            parentNodeId.expanded(),
+            Direction.INVERSE));
   }
 
   private void addDeleteSubscriptionMethod(NodeId parentNodeId) {
@@ -121,4 +217,19 @@ public class DebugNodesFragment extends ManagedAddressSpaceFragmentWithLifecycle
             parentNodeId.expanded(),
             Direction.INVERSE));
   }
+
+  /**
+   * The phases and durations of one {@link StartupTimings#getDurations()} snapshot, derived
+   * together so the arrays are aligned by index.
+   */
+  private record StartupSample(
+      Map<String, Long> durations, String[] phases, Double[] durationsMillis) {
+
+    StartupSample(Map<String, Long> durations) {
+      this(
+          durations,
+          durations.keySet().toArray(String[]::new),
+          durations.values().stream().map(nanos -> nanos / 1_000_000.0).toArray(Double[]::new));
+    }
+  }
 }
@@ -0,0 +1,73 @@
+package com.digitalpetri.opcua.server.namespace.nodeset;
+
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import org.eclipse.milo.opcua.sdk.server.ManagedNamespaceWithLifecycle;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.items.DataItem;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
+
+/** A namespace whose nodes are loaded from a UANodeSet XML file by a {@link NodeSetParser}. */
+class NodeSetFileNamespace extends ManagedNamespaceWithLifecycle {
+
+  private final SamplingScheduler samplingScheduler;
+
+  private final Path file;
+
+  /**
+   * @param server the {@link OpcUaServer}.
+   * @param namespaceUri the URI of the model the file defines.
+   * @param file the UANodeSet XML file.
+   */
+  NodeSetFileNamespace(OpcUaServer server, String namespaceUri, Path file) {
+    super(server, namespaceUri);
+
+    this.file = file;
+
+    samplingScheduler = new SamplingScheduler(server, this);
+    getLifecycleManager().addLifecycle(samplingScheduler);
+  }
+
+  /**
+   * Parse the file, adding its nodes to this namespace. May be called before {@link #startup()}
+   * and concurrently with other namespaces loading.
+   *
+   * @return the number of nodes loaded.
+   * @throws IOException if the file can't be read.
+   * @throws XMLStreamException if the file isn't well-formed XML.
+   */
+  int load() throws IOException, XMLStreamException {
+    var parser =
+        new NodeSetParser(getServer().getNamespaceTable(), getServer().getStaticEncodingContext());
+
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+      return parser.parse(inputStream, getNodeContext(), getNodeManager());
+    }
+  }
+
+  @Override
+  public void onDataItemsCreated(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsCreated(dataItems);
+  }
+
+  @Override
+  public void onDataItemsModified(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsModified(dataItems);
+  }
+
+  @Override
+  public void onDataItemsDeleted(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsDeleted(dataItems);
+  }
+
+  @Override
+  public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
+  }
+}
@@ -0,0 +1,126 @@
+package com.digitalpetri.opcua.server.namespace.nodeset;
+
+import com.digitalpetri.opcua.server.namespace.demo.StartupTimings;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.xml.stream.XMLStreamException;
+import org.eclipse.milo.opcua.sdk.server.Lifecycle;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads UANodeSet XML files, e.g. companion specifications, each into its own namespace.
+ *
+ * <p>Loading happens in three steps. First the NamespaceUris of every file are registered, in the
+ * order the files are listed, so namespace indices don't depend on which file finishes parsing
+ * first. Then the files are parsed concurrently, each streaming its nodes into its own namespace.
+ * Finally the namespaces are started, again in the order listed.
+ */
+public final class NodeSetLoader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeSetLoader.class);
+
+  private NodeSetLoader() {}
+
+  /**
+   * Load {@code files} and start a namespace for each of them.
+   *
+   * @param server the {@link OpcUaServer}.
+   * @param files the UANodeSet XML files to load.
+   * @param startupTimings the {@link StartupTimings} the parsing of each file is recorded in.
+   * @return the started namespaces, in the order of {@code files}.
+   * @throws IOException if a file can't be read.
+   * @throws XMLStreamException if a file isn't well-formed XML.
+   */
+  public static List<Lifecycle> load(
+      OpcUaServer server, List<Path> files, StartupTimings startupTimings)
+      throws IOException, XMLStreamException {
+
+    var namespaces = new ArrayList<NodeSetFileNamespace>(files.size());
+
+    for (Path file : files) {
+      List<String> namespaceUris;
+      try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file))) {
+        namespaceUris = NodeSetParser.readNamespaceUris(inputStream);
+      }
+
+      if (namespaceUris.isEmpty()) {
+        throw new IOException("NodeSet declares no NamespaceUris: " + file);
+      }
+
+      namespaceUris.forEach(uri -> server.getNamespaceTable().add(uri));
+
+      // the first NamespaceUri is the model the file defines.
+      namespaces.add(new NodeSetFileNamespace(server, namespaceUris.getFirst(), file));
+    }
+
+    int parallelism =
+        Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+
+    try (var pool = new ForkJoinPool(parallelism)) {
+      var tasks = new ArrayList<ForkJoinTask<?>>(namespaces.size());
+
+      for (int i = 0; i < namespaces.size(); i++) {
+        NodeSetFileNamespace namespace = namespaces.get(i);
+        Path file = files.get(i);
+
+        tasks.add(
+            pool.submit(
+                () -> {
+                  int nodeCount =
+                      startupTimings.time("nodeset." + file.getFileName(), namespace::load);
+                  LOGGER.info("Loaded {} nodes from {}", nodeCount, file);
+                  return nodeCount;
+                }));
+      }
+
+      // join all, rethrowing the first failure as the parser threw it.
+      for (ForkJoinTask<?> task : tasks) {
+        try {
+          task.join();
+        } catch (Exception e) {
+          throw rethrow(e);
+        }
+      }
+    }
+
+    namespaces.forEach(NodeSetFileNamespace::startup);
+
+    return List.copyOf(namespaces);
+  }
+
+  /**
+   * Rethrow the failure of a parse task. {@link ForkJoinTask#join()} throws the checked exceptions
+   * of a task wrapped in one or more plain {@link RuntimeException}s, or, depending on the JDK, as
+   * they are.
+   *
+   * @param e the exception thrown by {@link ForkJoinTask#join()}.
+   * @return never returns; declared so callers can {@code throw} it.
+   * @throws IOException if the task failed reading a file.
+   * @throws XMLStreamException if the task failed parsing a file.
+   */
+  private static RuntimeException rethrow(Exception e) throws IOException, XMLStreamException {
+    Throwable cause = e;
+    while (cause.getClass() == RuntimeException.class && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+
+    if (cause instanceof IOException ioException) {
+      throw ioException;
+    } else if (cause instanceof XMLStreamException xmlStreamException) {
+      throw xmlStreamException;
+    } else if (cause instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    } else {
+      throw new RuntimeException(cause);
+    }
+  }
+}
@@ -0,0 +1,789 @@
+package com.digitalpetri.opcua.server.namespace.nodeset;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaDataTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaReferenceTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaViewNode;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
+import org.eclipse.milo.opcua.stack.core.encoding.EncodingContext;
+import org.eclipse.milo.opcua.stack.core.types.UaStructuredType;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.StructureType;
+import org.eclipse.milo.opcua.stack.core.types.structured.Argument;
+import org.eclipse.milo.opcua.stack.core.types.structured.EUInformation;
+import org.eclipse.milo.opcua.stack.core.types.structured.EnumDefinition;
+import org.eclipse.milo.opcua.stack.core.types.structured.EnumField;
+import org.eclipse.milo.opcua.stack.core.types.structured.EnumValueType;
+import org.eclipse.milo.opcua.stack.core.types.structured.Range;
+import org.eclipse.milo.opcua.stack.core.types.structured.StructureDefinition;
+import org.eclipse.milo.opcua.stack.core.types.structured.StructureField;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams a UANodeSet XML document into a {@link UaNodeManager}, building each node as soon as its
+ * element has been read.
+ *
+ * <p>NamespaceIndexes in the document are remapped to the server's namespace table and aliases are
+ * resolved. Values are decoded for the built-in types and for the ExtensionObject bodies companion
+ * specs commonly use (Argument, EnumValueType, Range, EUInformation); other values, and values that
+ * are malformed, are left unset and counted.
+ *
+ * <p>A parser is used for a single document and isn't safe for concurrent use.
+ */
+final class NodeSetParser {
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+
+  private final Logger logger = LoggerFactory.getLogger(NodeSetParser.class);
+
+  private final Map<String, String> aliases = new HashMap<>();
+
+  /** Server namespace index by document namespace index. Index 0 is always 0. */
+  private UShort[] namespaceIndices = {ushort(0)};
+
+  /** Structure DataTypes whose default encoding and base type are resolved after parsing. */
+  private final List<UaDataTypeNode> structureDataTypes = new ArrayList<>();
+
+  private int nodeCount = 0;
+  private int unsupportedValueCount = 0;
+
+  private final NamespaceTable namespaceTable;
+  private final EncodingContext encodingContext;
+
+  NodeSetParser(NamespaceTable namespaceTable, EncodingContext encodingContext) {
+    this.namespaceTable = namespaceTable;
+    this.encodingContext = encodingContext;
+  }
+
+  /**
+   * Read the NamespaceUris a UANodeSet document declares, stopping as soon as they've been read.
+   *
+   * @param inputStream the document.
+   * @return the NamespaceUris, in document order; document namespace index {@code i + 1} refers to
+   *     element {@code i}.
+   * @throws XMLStreamException if the document is malformed.
+   */
+  static List<String> readNamespaceUris(InputStream inputStream) throws XMLStreamException {
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+          switch (reader.getLocalName()) {
+            case "UANodeSet" -> {}
+            case "NamespaceUris" -> {
+              return XmlNode.read(reader).children("Uri").stream().map(XmlNode::text).toList();
+            }
+            default -> {
+              return List.of();
+            }
+          }
+        }
+      }
+      return List.of();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Parse the document, adding its nodes and references to {@code nodeManager}.
+   *
+   * <p>The document's NamespaceUris must already be registered in the server's namespace table.
+   *
+   * @param inputStream the document.
+   * @param context the {@link UaNodeContext} to create nodes with.
+   * @param nodeManager the {@link UaNodeManager} to add nodes and references to.
+   * @return the number of nodes added.
+   * @throws XMLStreamException if the document is malformed.
+   */
+  int parse(InputStream inputStream, UaNodeContext context, UaNodeManager nodeManager)
+      throws XMLStreamException {
+
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+          continue;
+        }
+
+        switch (reader.getLocalName()) {
+          case "UANodeSet" -> {}
+          case "NamespaceUris" -> setNamespaceUris(XmlNode.read(reader));
+          case "Aliases" -> setAliases(XmlNode.read(reader));
+          case "UAObject",
+              "UAVariable",
+              "UAMethod",
+              "UAObjectType",
+              "UAVariableType",
+              "UADataType",
+              "UAReferenceType",
+              "UAView" -> addNode(XmlNode.read(reader), context, nodeManager);
+          default -> XmlNode.skip(reader);
+        }
+      }
+    } finally {
+      reader.close();
+    }
+
+    structureDataTypes.forEach(node -> resolveStructureDefinition(node, nodeManager));
+
+    if (unsupportedValueCount > 0) {
+      logger.debug(
+          "{} values with unsupported types or malformed content were not loaded",
+          unsupportedValueCount);
+    }
+
+    return nodeCount;
+  }
+
+  private void setNamespaceUris(XmlNode element) {
+    List<XmlNode> uris = element.children("Uri");
+
+    namespaceIndices = new UShort[uris.size() + 1];
+    namespaceIndices[0] = ushort(0);
+
+    for (int i = 0; i < uris.size(); i++) {
+      UShort index = namespaceTable.getIndex(uris.get(i).text());
+      if (index == null) {
+        throw new IllegalStateException("namespace not registered: " + uris.get(i).text());
+      }
+      namespaceIndices[i + 1] = index;
+    }
+  }
+
+  private void setAliases(XmlNode element) {
+    for (XmlNode alias : element.children("Alias")) {
+      String name = alias.attribute("Alias");
+      if (name != null) {
+        aliases.put(name, alias.text());
+      }
+    }
+  }
+
+  // region Nodes
+
+  private void addNode(XmlNode element, UaNodeContext context, UaNodeManager nodeManager) {
+    NodeId nodeId = nodeId(requireAttribute(element, "NodeId"));
+    QualifiedName browseName = qualifiedName(requireAttribute(element, "BrowseName"));
+    LocalizedText displayName = localizedText(element.child("DisplayName"), browseName.getName());
+    LocalizedText description = localizedText(element.child("Description"), null);
+    UInteger writeMask = uint(longAttribute(element, "WriteMask", 0L));
+    UInteger userWriteMask = uint(longAttribute(element, "UserWriteMask", 0L));
+
+    UaNode node =
+        switch (element.name()) {
+          case "UAObject" ->
+              new UaObjectNode(
+                  context,
+                  nodeId,
+                  browseName,
+                  displayName,
+                  description,
+                  writeMask,
+                  userWriteMask,
+                  ubyte(longAttribute(element, "EventNotifier", 0L)));
+
+          case "UAVariable" -> {
+            var variableNode =
+                new UaVariableNode(
+                    context,
+                    nodeId,
+                    browseName,
+                    displayName,
+                    description,
+                    writeMask,
+                    userWriteMask);
+
+            variableNode.setValue(dataValue(element.child("Value")));
+            variableNode.setDataType(nodeId(attribute(element, "DataType", "i=24")));
+            variableNode.setValueRank((int) longAttribute(element, "ValueRank", -1L));
+            variableNode.setArrayDimensions(arrayDimensions(element.attribute("ArrayDimensions")));
+            variableNode.setAccessLevel(ubyte(longAttribute(element, "AccessLevel", 1L) & 0xFF));
+            variableNode.setUserAccessLevel(
+                ubyte(longAttribute(element, "UserAccessLevel", 1L) & 0xFF));
+            variableNode.setHistorizing(booleanAttribute(element, "Historizing", false));
+
+            String minimumSamplingInterval = element.attribute("MinimumSamplingInterval");
+            if (minimumSamplingInterval != null) {
+              variableNode.setMinimumSamplingInterval(parseDouble(minimumSamplingInterval));
+            }
+
+            yield variableNode;
+          }
+
+          case "UAMethod" ->
+              new UaMethodNode(
+                  context,
+                  nodeId,
+                  browseName,
+                  displayName,
+                  description,
+                  writeMask,
+                  userWriteMask,
+                  booleanAttribute(element, "Executable", true),
+                  booleanAttribute(element, "UserExecutable", true));
+
+          case "UAObjectType" ->
+              new UaObjectTypeNode(
+                  context,
+                  nodeId,
+                  browseName,
+                  displayName,
+                  description,
+                  writeMask,
+                  userWriteMask,
+                  booleanAttribute(element, "IsAbstract", false));
+
+          case "UAVariableType" ->
+              new UaVariableTypeNode(
+                  context,
+                  nodeId,
+                  browseName,
+                  displayName,
+                  description,
+                  writeMask,
+                  userWriteMask,
+                  dataValue(element.child("Value")),
+                  nodeId(attribute(element, "DataType", "i=24")),
+                  (int) longAttribute(element, "ValueRank", -1L),
+                  arrayDimensions(element.attribute("ArrayDimensions")),
+                  booleanAttribute(element, "IsAbstract", false));
+
+          case "UADataType" -> {
+            var dataTypeNode =
+                new UaDataTypeNode(
+                    context,
+                    nodeId,
+                    browseName,
+                    displayName,
+                    description,
+                    writeMask,
+                    userWriteMask,
+                    booleanAttribute(element, "IsAbstract", false));
+
+            XmlNode definition = element.child("Definition");
+            if (definition != null) {
+              addDefinition(dataTypeNode, definition);
+            }
+
+            yield dataTypeNode;
+          }
+
+          case "UAReferenceType" ->
+              new UaReferenceTypeNode(
+                  context,
+                  nodeId,
+                  browseName,
+                  displayName,
+                  description,
+                  writeMask,
+                  userWriteMask,
+                  booleanAttribute(element, "IsAbstract", false),
+                  booleanAttribute(element, "Symmetric", false),
+                  localizedText(element.child("InverseName"), null));
+
+          case "UAView" ->
+              new UaViewNode(
+                  context,
+                  nodeId,
+                  browseName,
+                  displayName,
+                  description,
+                  writeMask,
+                  userWriteMask,
+                  booleanAttribute(element, "ContainsNoLoops", false),
+                  ubyte(longAttribute(element, "EventNotifier", 0L)));
+
+          default -> throw new IllegalArgumentException("unknown node element: " + element.name());
+        };
+
+    nodeManager.addNode(node);
+    nodeCount++;
+
+    XmlNode references = element.child("References");
+    if (references != null) {
+      for (XmlNode reference : references.children("Reference")) {
+        // UaNode.addReference also adds the inverse when the target is in this server.
+        node.addReference(
+            new Reference(
+                nodeId,
+                nodeId(requireAttribute(reference, "ReferenceType")),
+                nodeId(reference.text()).expanded(),
+                booleanAttribute(reference, "IsForward", true)
+                    ? Direction.FORWARD
+                    : Direction.INVERSE));
+      }
+    }
+  }
+
+  private void addDefinition(UaDataTypeNode dataTypeNode, XmlNode definition) {
+    List<XmlNode> fields = definition.children("Field");
+
+    boolean isEnum = !fields.isEmpty() && fields.getFirst().attribute("Value") != null;
+
+    if (isEnum) {
+      var enumFields = new EnumField[fields.size()];
+      for (int i = 0; i < fields.size(); i++) {
+        XmlNode field = fields.get(i);
+        String name = requireAttribute(field, "Name");
+
+        enumFields[i] =
+            new EnumField(
+                longAttribute(field, "Value", i),
+                localizedText(field.child("DisplayName"), name),
+                localizedText(field.child("Description"), ""),
+                name);
+      }
+
+      dataTypeNode.setDataTypeDefinition(new EnumDefinition(enumFields));
+    } else {
+      boolean isUnion = booleanAttribute(definition, "IsUnion", false);
+      boolean hasOptionalFields = false;
+
+      var structureFields = new StructureField[fields.size()];
+      for (int i = 0; i < fields.size(); i++) {
+        XmlNode field = fields.get(i);
+        boolean isOptional = booleanAttribute(field, "IsOptional", false);
+        hasOptionalFields |= isOptional;
+
+        structureFields[i] =
+            new StructureField(
+                requireAttribute(field, "Name"),
+                localizedText(field.child("Description"), ""),
+                nodeId(attribute(field, "DataType", "i=24")),
+                (int) longAttribute(field, "ValueRank", -1L),
+                arrayDimensions(field.attribute("ArrayDimensions")),
+                uint(longAttribute(field, "MaxStringLength", 0L)),
+                isOptional);
+      }
+
+      StructureType structureType;
+      if (isUnion) {
+        structureType = StructureType.Union;
+      } else if (hasOptionalFields) {
+        structureType = StructureType.StructureWithOptionalFields;
+      } else {
+        structureType = StructureType.Structure;
+      }
+
+      // the default encoding and base type come from references, resolved after parsing.
+      dataTypeNode.setDataTypeDefinition(
+          new StructureDefinition(
+              NodeId.NULL_VALUE, NodeIds.Structure, structureType, structureFields));
+
+      structureDataTypes.add(dataTypeNode);
+    }
+  }
+
+  private void resolveStructureDefinition(UaDataTypeNode node, UaNodeManager nodeManager) {
+    if (!(node.getDataTypeDefinition() instanceof StructureDefinition definition)) {
+      return;
+    }
+
+    NodeId defaultEncodingId = definition.getDefaultEncodingId();
+    NodeId baseDataType = definition.getBaseDataType();
+
+    for (Reference reference : nodeManager.getReferences(node.getNodeId())) {
+      NodeId targetNodeId = reference.getTargetNodeId().toNodeId(namespaceTable).orElse(null);
+      if (targetNodeId == null) continue;
+
+      if (reference.isForward() && reference.getReferenceTypeId().equals(NodeIds.HasEncoding)) {
+        boolean isDefaultBinary =
+            nodeManager
+                .getNode(targetNodeId)
+                .map(n -> "Default Binary".equals(n.getBrowseName().getName()))
+                .orElse(false);
+
+        if (isDefaultBinary) {
+          defaultEncodingId = targetNodeId;
+        }
+      } else if (reference.isInverse()
+          && reference.getReferenceTypeId().equals(NodeIds.HasSubtype)) {
+        baseDataType = targetNodeId;
+      }
+    }
+
+    node.setDataTypeDefinition(
+        new StructureDefinition(
+            defaultEncodingId,
+            baseDataType,
+            definition.getStructureType(),
+            definition.getFields()));
+  }
+
+  // endregion
+
+  // region Values
+
+  private DataValue dataValue(@Nullable XmlNode value) {
+    if (value == null || value.children().isEmpty()) {
+      return new DataValue(Variant.NULL_VALUE);
+    }
+
+    Object decoded = decodeValue(value.children().getFirst());
+
+    if (decoded == null) {
+      unsupportedValueCount++;
+      return new DataValue(Variant.NULL_VALUE);
+    }
+
+    return new DataValue(new Variant(decoded));
+  }
+
+  /**
+   * Decode the XML encoding of a Variant's value, e.g. {@code <Int32>}, {@code <ListOfString>}, or
+   * {@code <ExtensionObject>}.
+   *
+   * <p>Numbers and DateTimes use the XML Schema syntax, e.g. {@code INF} for infinity and
+   * DateTimes without an offset, which are taken to be UTC.
+   *
+   * @param element the element holding the value.
+   * @return the decoded value, or {@code null} if its type isn't supported or it's malformed.
+   */
+  @Nullable Object decodeValue(XmlNode element) {
+    String name = element.name();
+
+    if (name.startsWith("ListOf")) {
+      String elementName = name.substring("ListOf".length());
+
+      Class<?> elementClass = builtinClass(elementName);
+      if (elementClass == null) {
+        return null;
+      }
+
+      List<XmlNode> children = element.children();
+      Object array = Array.newInstance(elementClass, children.size());
+
+      for (int i = 0; i < children.size(); i++) {
+        Object decoded = decodeValue(children.get(i));
+        if (decoded == null) {
+          return null;
+        }
+        Array.set(array, i, decoded);
+      }
+
+      return array;
+    }
+
+    try {
+      return decodeScalar(element);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      logger.debug("malformed {} value: {}", name, e.getMessage());
+      return null;
+    }
+  }
+
+  private @Nullable Object decodeScalar(XmlNode element) {
+    String text = element.text();
+
+    return switch (element.name()) {
+      case "Boolean" -> Boolean.parseBoolean(text);
+      case "SByte" -> Byte.parseByte(text);
+      case "Byte" -> ubyte(Short.parseShort(text));
+      case "Int16" -> Short.parseShort(text);
+      case "UInt16" -> ushort(Integer.parseInt(text));
+      case "Int32" -> Integer.parseInt(text);
+      case "UInt32" -> uint(Long.parseLong(text));
+      case "Int64" -> Long.parseLong(text);
+      case "UInt64" -> ULong.valueOf(text);
+      case "Float" -> parseFloat(text);
+      case "Double" -> parseDouble(text);
+      case "String" -> text;
+      case "DateTime" -> new DateTime(parseDateTime(text));
+      case "Guid" -> UUID.fromString(childText(element, "String", text));
+      case "ByteString" -> ByteString.of(Base64.getMimeDecoder().decode(text));
+      case "StatusCode" -> new StatusCode(Long.parseLong(childText(element, "Code", text)));
+      case "LocalizedText" -> localizedText(element, "");
+      case "QualifiedName" ->
+          new QualifiedName(
+              namespaceIndex(Integer.parseInt(childText(element, "NamespaceIndex", "0"))),
+              childText(element, "Name", ""));
+      case "NodeId" -> nodeId(childText(element, "Identifier", text));
+      case "ExpandedNodeId" -> nodeId(childText(element, "Identifier", text)).expanded();
+      case "ExtensionObject" -> decodeExtensionObject(element);
+      default -> null;
+    };
+  }
+
+  private @Nullable ExtensionObject decodeExtensionObject(XmlNode element) {
+    XmlNode body = element.child("Body");
+    if (body == null || body.children().isEmpty()) {
+      return null;
+    }
+
+    XmlNode struct = body.children().getFirst();
+
+    UaStructuredType decoded =
+        switch (struct.name()) {
+          case "Argument" ->
+              new Argument(
+                  childText(struct, "Name", ""),
+                  nodeId(childText(struct.child("DataType"), "Identifier", "i=24")),
+                  Integer.parseInt(childText(struct, "ValueRank", "-1")),
+                  listOfUInt32(struct.child("ArrayDimensions")),
+                  localizedText(struct.child("Description"), ""));
+
+          case "EnumValueType" ->
+              new EnumValueType(
+                  Long.parseLong(childText(struct, "Value", "0")),
+                  localizedText(struct.child("DisplayName"), ""),
+                  localizedText(struct.child("Description"), ""));
+
+          case "Range" ->
+              new Range(
+                  parseDouble(childText(struct, "Low", "0")),
+                  parseDouble(childText(struct, "High", "0")));
+
+          case "EUInformation" ->
+              new EUInformation(
+                  childText(struct, "NamespaceUri", ""),
+                  Integer.parseInt(childText(struct, "UnitId", "0")),
+                  localizedText(struct.child("DisplayName"), ""),
+                  localizedText(struct.child("Description"), ""));
+
+          default -> null;
+        };
+
+    return decoded != null ? ExtensionObject.encode(encodingContext, decoded) : null;
+  }
+
+  /**
+   * Parse an xs:float, which spells infinity {@code INF} rather than {@code Infinity}.
+   *
+   * @param text the value.
+   * @return the parsed value.
+   * @throws NumberFormatException if {@code text} isn't a number.
+   */
+  static float parseFloat(String text) {
+    return switch (text.trim()) {
+      case "INF", "+INF" -> Float.POSITIVE_INFINITY;
+      case "-INF" -> Float.NEGATIVE_INFINITY;
+      default -> Float.parseFloat(text);
+    };
+  }
+
+  /**
+   * Parse an xs:double, which spells infinity {@code INF} rather than {@code Infinity}.
+   *
+   * @param text the value.
+   * @return the parsed value.
+   * @throws NumberFormatException if {@code text} isn't a number.
+   */
+  static double parseDouble(String text) {
+    return switch (text.trim()) {
+      case "INF", "+INF" -> Double.POSITIVE_INFINITY;
+      case "-INF" -> Double.NEGATIVE_INFINITY;
+      default -> Double.parseDouble(text);
+    };
+  }
+
+  /**
+   * Parse an xs:dateTime, whose offset is optional. A DateTime without an offset is taken to be
+   * UTC.
+   *
+   * @param text the value.
+   * @return the parsed instant.
+   * @throws DateTimeParseException if {@code text} isn't a dateTime.
+   */
+  static Instant parseDateTime(String text) {
+    TemporalAccessor parsed =
+        DateTimeFormatter.ISO_DATE_TIME.parseBest(
+            text.trim(), OffsetDateTime::from, LocalDateTime::from);
+
+    return parsed instanceof OffsetDateTime dateTime
+        ? dateTime.toInstant()
+        : ((LocalDateTime) parsed).toInstant(ZoneOffset.UTC);
+  }
+
+  private static @Nullable Class<?> builtinClass(String name) {
+    return switch (name) {
+      case "Boolean" -> Boolean.class;
+      case "SByte" -> Byte.class;
+      case "Byte" -> UByte.class;
+      case "Int16" -> Short.class;
+      case "UInt16" -> UShort.class;
+      case "Int32" -> Integer.class;
+      case "UInt32" -> UInteger.class;
+      case "Int64" -> Long.class;
+      case "UInt64" -> ULong.class;
+      case "Float" -> Float.class;
+      case "Double" -> Double.class;
+      case "String" -> String.class;
+      case "DateTime" -> DateTime.class;
+      case "Guid" -> UUID.class;
+      case "ByteString" -> ByteString.class;
+      case "StatusCode" -> StatusCode.class;
+      case "LocalizedText" -> LocalizedText.class;
+      case "QualifiedName" -> QualifiedName.class;
+      case "NodeId" -> NodeId.class;
+      case "ExtensionObject" -> ExtensionObject.class;
+      default -> null;
+    };
+  }
+
+  private static UInteger @Nullable [] listOfUInt32(@Nullable XmlNode element) {
+    if (element == null || element.children().isEmpty()) {
+      return null;
+    }
+
+    List<XmlNode> children = element.children();
+    var values = new UInteger[children.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = uint(Long.parseLong(children.get(i).text()));
+    }
+    return values;
+  }
+
+  // endregion
+
+  // region Attributes
+
+  /**
+   * Parse a NodeId from the document, resolving aliases and remapping its namespace index.
+   *
+   * @param text a NodeId or alias.
+   * @return the NodeId in the server's namespace table.
+   */
+  NodeId nodeId(String text) {
+    String trimmed = text.trim();
+    NodeId local = NodeId.parse(aliases.getOrDefault(trimmed, trimmed));
+    UShort index = namespaceIndex(local.getNamespaceIndex().intValue());
+
+    return switch (local.getIdentifier()) {
+      case UInteger identifier -> new NodeId(index, identifier);
+      case String identifier -> new NodeId(index, identifier);
+      case UUID identifier -> new NodeId(index, identifier);
+      case ByteString identifier -> new NodeId(index, identifier);
+      default -> throw new IllegalArgumentException("invalid NodeId: " + text);
+    };
+  }
+
+  private QualifiedName qualifiedName(String text) {
+    QualifiedName local = QualifiedName.parse(text);
+
+    return new QualifiedName(
+        namespaceIndex(local.getNamespaceIndex().intValue()), local.getName());
+  }
+
+  private UShort namespaceIndex(int documentIndex) {
+    if (documentIndex < 0 || documentIndex >= namespaceIndices.length) {
+      throw new IllegalArgumentException("undeclared namespace index: " + documentIndex);
+    }
+    return namespaceIndices[documentIndex];
+  }
+
+  private static LocalizedText localizedText(@Nullable XmlNode element, @Nullable String text) {
+    if (element == null) {
+      return text != null ? LocalizedText.english(text) : LocalizedText.NULL_VALUE;
+    }
+
+    if (element.children().isEmpty()) {
+      // <DisplayName Locale="en">text</DisplayName>, as used by node attributes.
+      return new LocalizedText(element.attribute("Locale"), element.text());
+    } else {
+      // <LocalizedText><Locale>en</Locale><Text>text</Text></LocalizedText>, as used by values.
+      return new LocalizedText(element.childText("Locale"), element.childText("Text"));
+    }
+  }
+
+  private static UInteger @Nullable [] arrayDimensions(@Nullable String text) {
+    if (text == null || text.isBlank()) {
+      return null;
+    }
+
+    String[] parts = text.split(",");
+    var dimensions = new UInteger[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      dimensions[i] = uint(Long.parseLong(parts[i].trim()));
+    }
+    return dimensions;
+  }
+
+  private static String childText(@Nullable XmlNode element, String name, String defaultValue) {
+    String text = element != null ? element.childText(name) : null;
+    return text != null ? text : defaultValue;
+  }
+
+  private static String attribute(XmlNode element, String name, String defaultValue) {
+    String value = element.attribute(name);
+    return value != null ? value : defaultValue;
+  }
+
+  private static String requireAttribute(XmlNode element, String name) {
+    String value = element.attribute(name);
+    if (value == null) {
+      throw new IllegalArgumentException(element.name() + " is missing attribute " + name);
+    }
+    return value;
+  }
+
+  private static long longAttribute(XmlNode element, String name, long defaultValue) {
+    String value = element.attribute(name);
+    return value != null ? Long.parseLong(value.trim()) : defaultValue;
+  }
+
+  private static boolean booleanAttribute(XmlNode element, String name, boolean defaultValue) {
+    String value = element.attribute(name);
+    return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+  }
+
+  // endregion
+
+  private static XMLInputFactory newXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+}
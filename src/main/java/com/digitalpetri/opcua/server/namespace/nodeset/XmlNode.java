@@ -0,0 +1,134 @@
+package com.digitalpetri.opcua.server.namespace.nodeset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A minimal element tree for a single XML element, read from a {@link XMLStreamReader}.
+ *
+ * <p>The NodeSet parser reads one node element at a time into an {@code XmlNode} and discards it
+ * once the node is built, so only the element being processed is ever held in memory.
+ *
+ * @param name the local name of the element.
+ * @param attributes the attributes of the element, by local name.
+ * @param text the concatenated, trimmed text content of the element.
+ * @param children the child elements, in document order.
+ */
+record XmlNode(
+    String name, Map<String, String> attributes, String text, List<XmlNode> children) {
+
+  /**
+   * @param name the attribute's local name.
+   * @return the value of the attribute, or {@code null} if it isn't present.
+   */
+  @Nullable String attribute(String name) {
+    return attributes.get(name);
+  }
+
+  /**
+   * @param name the child's local name.
+   * @return the first child element named {@code name}, or {@code null} if there is none.
+   */
+  @Nullable XmlNode child(String name) {
+    for (XmlNode child : children) {
+      if (child.name.equals(name)) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param name the child's local name.
+   * @return every child element named {@code name}.
+   */
+  List<XmlNode> children(String name) {
+    var matches = new ArrayList<XmlNode>();
+    for (XmlNode child : children) {
+      if (child.name.equals(name)) {
+        matches.add(child);
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * @param name the child's local name.
+   * @return the text of the first child element named {@code name}, or {@code null} if there is
+   *     none.
+   */
+  @Nullable String childText(String name) {
+    XmlNode child = child(name);
+    return child != null ? child.text : null;
+  }
+
+  /**
+   * Read the element {@code reader} is positioned at, and all of its descendants, leaving the
+   * reader positioned at its end element.
+   *
+   * @param reader a {@link XMLStreamReader} positioned at a start element.
+   * @return the element read.
+   * @throws XMLStreamException if the XML is malformed.
+   */
+  static XmlNode read(XMLStreamReader reader) throws XMLStreamException {
+    String name = reader.getLocalName();
+
+    Map<String, String> attributes;
+    if (reader.getAttributeCount() == 0) {
+      attributes = Map.of();
+    } else {
+      var entries = new HashMap<String, String>();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+        entries.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+      }
+      attributes = entries;
+    }
+
+    List<XmlNode> children = List.of();
+    var text = new StringBuilder();
+
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT -> {
+          if (children.isEmpty()) {
+            children = new ArrayList<>();
+          }
+          children.add(read(reader));
+        }
+        case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA ->
+            text.append(reader.getText());
+        case XMLStreamConstants.END_ELEMENT -> {
+          return new XmlNode(name, attributes, text.toString().trim(), children);
+        }
+        default -> {}
+      }
+    }
+
+    throw new XMLStreamException("unexpected end of document in element: " + name);
+  }
+
+  /**
+   * Skip the element {@code reader} is positioned at, and all of its descendants, leaving the
+   * reader positioned at its end element.
+   *
+   * @param reader a {@link XMLStreamReader} positioned at a start element.
+   * @throws XMLStreamException if the XML is malformed.
+   */
+  static void skip(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+
+    while (depth > 0 && reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT -> depth++;
+        case XMLStreamConstants.END_ELEMENT -> depth--;
+        default -> {}
+      }
+    }
+  }
+}
@@ -2,15 +2,24 @@ package com.digitalpetri.opcua.server.namespace.test;
 
 import com.digitalpetri.opcua.test.DataTypeInitializer;
 import com.digitalpetri.opcua.uanodeset.namespace.NodeSetNamespace;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import org.eclipse.milo.opcua.sdk.server.Lifecycle;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.stack.core.encoding.EncodingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DataTypeTestNamespace extends NodeSetNamespace {
 
   public static final String NAMESPACE_URI = "https://github.com/digitalpetri/DataTypeTest";
 
+  private static final String NODE_SET_RESOURCE = "/DataTypeTest.NodeSet.xml";
+
   public DataTypeTestNamespace(OpcUaServer server) {
     super(server, NAMESPACE_URI);
   }
@@ -22,8 +31,7 @@ public class DataTypeTestNamespace extends NodeSetNamespace {
 
   @Override
   protected List<InputStream> getNodeSetInputStreams() {
-    InputStream inputStream =
-        DataTypeTestNamespace.class.getResourceAsStream("/DataTypeTest.NodeSet.xml");
+    InputStream inputStream = DataTypeTestNamespace.class.getResourceAsStream(NODE_SET_RESOURCE);
     assert inputStream != null;
 
     return List.of(inputStream);
@@ -37,4 +45,62 @@ public class DataTypeTestNamespace extends NodeSetNamespace {
 
     return namespace;
   }
+
+  /**
+   * Create and start the DataTypeTest namespace, restoring its nodes from the binary snapshot at
+   * {@code snapshotPath} if it was written from the current NodeSet, and otherwise parsing the
+   * NodeSet XML and writing a new snapshot for the next startup.
+   *
+   * @param server the {@link OpcUaServer}.
+   * @param snapshotPath the snapshot file.
+   * @return the started namespace.
+   */
+  public static Lifecycle createAndStart(OpcUaServer server, Path snapshotPath) {
+    Logger logger = LoggerFactory.getLogger(DataTypeTestNamespace.class);
+
+    new DataTypeInitializer()
+        .initialize(server.getNamespaceTable(), server.getStaticDataTypeManager());
+
+    byte[] digest;
+    try (InputStream inputStream =
+        DataTypeTestNamespace.class.getResourceAsStream(NODE_SET_RESOURCE)) {
+
+      assert inputStream != null;
+      digest = MessageDigest.getInstance("SHA-256").digest(inputStream.readAllBytes());
+    } catch (IOException | NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+
+    try {
+      var snapshotNamespace = new DataTypeTestSnapshotNamespace(server);
+      if (snapshotNamespace.restore(snapshotPath, digest)) {
+        snapshotNamespace.startup();
+        logger.debug("Restored DataTypeTest nodes from {}", snapshotPath);
+        return snapshotNamespace;
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to read {}, parsing NodeSet: {}", snapshotPath, e.getMessage(), e);
+    }
+
+    var namespace = new DataTypeTestNamespace(server);
+    namespace.startup();
+
+    try {
+      boolean written =
+          NodeSetSnapshot.write(
+              snapshotPath,
+              digest,
+              server.getNamespaceTable(),
+              server.getStaticEncodingContext(),
+              namespace.getNodeManager());
+
+      if (written) {
+        logger.debug("Wrote DataTypeTest snapshot to {}", snapshotPath);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to write {}: {}", snapshotPath, e.getMessage(), e);
+    }
+
+    return namespace;
+  }
 }
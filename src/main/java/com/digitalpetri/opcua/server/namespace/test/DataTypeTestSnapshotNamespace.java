@@ -0,0 +1,64 @@
+package com.digitalpetri.opcua.server.namespace.test;
+
+import com.digitalpetri.opcua.server.namespace.demo.SamplingScheduler;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.milo.opcua.sdk.server.ManagedNamespaceWithLifecycle;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.items.DataItem;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredItem;
+
+/**
+ * The DataTypeTest namespace, with its nodes restored from a {@link NodeSetSnapshot} instead of
+ * parsed from the NodeSet XML.
+ */
+class DataTypeTestSnapshotNamespace extends ManagedNamespaceWithLifecycle {
+
+  private final SamplingScheduler samplingScheduler;
+
+  DataTypeTestSnapshotNamespace(OpcUaServer server) {
+    super(server, DataTypeTestNamespace.NAMESPACE_URI);
+
+    samplingScheduler = new SamplingScheduler(server, this);
+    getLifecycleManager().addLifecycle(samplingScheduler);
+  }
+
+  /**
+   * Restore the nodes of this namespace from the snapshot at {@code snapshotPath}.
+   *
+   * @param snapshotPath the snapshot file.
+   * @param digest the digest of the current DataTypeTest NodeSet.
+   * @return {@code true} if the nodes were restored, {@code false} if there's no current snapshot.
+   * @throws IOException if the snapshot can't be read.
+   */
+  boolean restore(Path snapshotPath, byte[] digest) throws IOException {
+    return NodeSetSnapshot.read(
+        snapshotPath,
+        digest,
+        getServer().getNamespaceTable().toArray(),
+        getServer().getStaticEncodingContext(),
+        getNodeContext(),
+        getNodeManager());
+  }
+
+  @Override
+  public void onDataItemsCreated(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsCreated(dataItems);
+  }
+
+  @Override
+  public void onDataItemsModified(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsModified(dataItems);
+  }
+
+  @Override
+  public void onDataItemsDeleted(List<DataItem> dataItems) {
+    samplingScheduler.onDataItemsDeleted(dataItems);
+  }
+
+  @Override
+  public void onMonitoringModeChanged(List<MonitoredItem> monitoredItems) {
+    samplingScheduler.onMonitoringModeChanged(monitoredItems);
+  }
+}
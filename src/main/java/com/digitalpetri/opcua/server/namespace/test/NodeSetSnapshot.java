@@ -0,0 +1,384 @@
+package com.digitalpetri.opcua.server.namespace.test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.sdk.core.Reference.Direction;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaDataTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaObjectNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.encoding.EncodingContext;
+import org.eclipse.milo.opcua.stack.core.encoding.binary.OpcUaBinaryDecoder;
+import org.eclipse.milo.opcua.stack.core.encoding.binary.OpcUaBinaryEncoder;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataTypeDefinition;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A compact binary snapshot of the nodes built from a NodeSet, so they can be restored without
+ * parsing the NodeSet XML again.
+ *
+ * <p>The snapshot records the digest of the NodeSet it was built from and the server's namespace
+ * table at the time; it's only used if both still match. Nodes and references are written with the
+ * OPC UA binary encoding and read back from a memory-mapped file.
+ *
+ * <p>References are recorded as the node manager holds them, keyed by their source node. That
+ * includes references whose source is a node of another namespace, e.g. ObjectsFolder Organizes a
+ * node of the NodeSet, which are held in the node manager of the NodeSet's namespace too.
+ *
+ * <p>Only Object, Variable, and DataType nodes are supported, which is all the DataTypeTest NodeSet
+ * contains. Nodes are restored as the base node classes, not the typed subclasses a NodeSet loader
+ * might instantiate, which doesn't change what clients can browse or read.
+ */
+final class NodeSetSnapshot {
+
+  static final int MAGIC = 0x4E53_5332; // "NSS2"
+
+  private NodeSetSnapshot() {}
+
+  /**
+   * Write a snapshot of the nodes in {@code nodeManager} and the references it holds to {@code
+   * path}.
+   *
+   * @param path the snapshot file. It's replaced atomically.
+   * @param digest the digest of the NodeSet the nodes were built from.
+   * @param namespaceTable the server's namespace table.
+   * @param encodingContext the {@link EncodingContext} to encode values with.
+   * @param nodeManager the {@link UaNodeManager} holding the nodes and references to write.
+   * @return {@code true} if the snapshot was written, {@code false} if {@code nodeManager}
+   *     contains a node class that isn't supported.
+   * @throws IOException if the snapshot can't be written.
+   */
+  static boolean write(
+      Path path,
+      byte[] digest,
+      NamespaceTable namespaceTable,
+      EncodingContext encodingContext,
+      UaNodeManager nodeManager)
+      throws IOException {
+
+    List<UaNode> nodes = nodeManager.getNodes();
+    String[] namespaceUris = namespaceTable.toArray();
+
+    ByteBuf buffer = Unpooled.buffer();
+
+    try {
+      var encoder = new OpcUaBinaryEncoder(encodingContext);
+      encoder.setBuffer(buffer);
+
+      encoder.encodeInt32(MAGIC);
+      encoder.encodeByteString(ByteString.of(digest));
+      encoder.encodeInt32(namespaceUris.length);
+      for (String namespaceUri : namespaceUris) {
+        encoder.encodeString(namespaceUri);
+      }
+
+      encoder.encodeInt32(nodes.size());
+      for (UaNode node : nodes) {
+        if (!encodeNode(encoder, encodingContext, node)) {
+          return false;
+        }
+      }
+
+      Set<Reference> references = references(namespaceTable, nodeManager, nodes);
+
+      encoder.encodeInt32(references.size());
+      for (Reference reference : references) {
+        encoder.encodeNodeId(reference.getSourceNodeId());
+        encoder.encodeNodeId(reference.getReferenceTypeId());
+        encoder.encodeExpandedNodeId(reference.getTargetNodeId());
+        encoder.encodeBoolean(reference.isForward());
+      }
+
+      Files.createDirectories(path.getParent());
+
+      Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+      try (FileChannel channel =
+          FileChannel.open(
+              tmpPath,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE)) {
+
+        while (buffer.isReadable()) {
+          buffer.readBytes(channel, buffer.readableBytes());
+        }
+        channel.force(true);
+      }
+
+      Files.move(
+          tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      return true;
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * Read the snapshot at {@code path} into {@code nodeManager}.
+   *
+   * @param path the snapshot file.
+   * @param digest the digest of the NodeSet the snapshot must have been built from.
+   * @param namespaceUris the server's namespace table, which must match the snapshot's.
+   * @param encodingContext the {@link EncodingContext} to decode values with.
+   * @param context the {@link UaNodeContext} to create nodes with.
+   * @param nodeManager the {@link UaNodeManager} to add nodes and references to.
+   * @return {@code true} if the snapshot was read, {@code false} if it doesn't exist or is stale.
+   * @throws IOException if the snapshot can't be read.
+   */
+  static boolean read(
+      Path path,
+      byte[] digest,
+      String[] namespaceUris,
+      EncodingContext encodingContext,
+      UaNodeContext context,
+      UaNodeManager nodeManager)
+      throws IOException {
+
+    if (!Files.isRegularFile(path)) {
+      return false;
+    }
+
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    var decoder = new OpcUaBinaryDecoder(encodingContext);
+    decoder.setBuffer(Unpooled.wrappedBuffer(mapped));
+
+    if (decoder.decodeInt32() != MAGIC
+        || !Arrays.equals(digest, decoder.decodeByteString().bytesOrEmpty())) {
+      return false;
+    }
+
+    String[] snapshotNamespaceUris = new String[decoder.decodeInt32()];
+    for (int i = 0; i < snapshotNamespaceUris.length; i++) {
+      snapshotNamespaceUris[i] = decoder.decodeString();
+    }
+    if (!Arrays.equals(namespaceUris, snapshotNamespaceUris)) {
+      return false;
+    }
+
+    int nodeCount = decoder.decodeInt32();
+    for (int i = 0; i < nodeCount; i++) {
+      nodeManager.addNode(decodeNode(decoder, encodingContext, context));
+    }
+
+    int referenceCount = decoder.decodeInt32();
+    for (int i = 0; i < referenceCount; i++) {
+      NodeId sourceNodeId = decoder.decodeNodeId();
+      NodeId referenceTypeId = decoder.decodeNodeId();
+      var targetNodeId = decoder.decodeExpandedNodeId();
+      boolean forward = decoder.decodeBoolean();
+
+      nodeManager.addReference(
+          new Reference(
+              sourceNodeId,
+              referenceTypeId,
+              targetNodeId,
+              forward ? Direction.FORWARD : Direction.INVERSE));
+    }
+
+    return true;
+  }
+
+  /**
+   * Collect the references {@code nodeManager} holds for {@code nodes} and for the nodes they
+   * reference, which covers the references whose source is in another namespace.
+   */
+  private static Set<Reference> references(
+      NamespaceTable namespaceTable, UaNodeManager nodeManager, List<UaNode> nodes) {
+
+    var sources = new LinkedHashSet<NodeId>();
+    for (UaNode node : nodes) {
+      sources.add(node.getNodeId());
+    }
+    for (UaNode node : nodes) {
+      for (Reference reference : nodeManager.getReferences(node.getNodeId())) {
+        reference.getTargetNodeId().toNodeId(namespaceTable).ifPresent(sources::add);
+      }
+    }
+
+    var references = new LinkedHashSet<Reference>();
+    for (NodeId source : sources) {
+      references.addAll(nodeManager.getReferences(source));
+    }
+    return references;
+  }
+
+  private static boolean encodeNode(
+      OpcUaBinaryEncoder encoder, EncodingContext encodingContext, UaNode node) {
+
+    NodeClass nodeClass = node.getNodeClass();
+
+    if (nodeClass != NodeClass.Object
+        && nodeClass != NodeClass.Variable
+        && nodeClass != NodeClass.DataType) {
+      return false;
+    }
+
+    encoder.encodeInt32(nodeClass.getValue());
+    encoder.encodeNodeId(node.getNodeId());
+    encoder.encodeQualifiedName(node.getBrowseName());
+    encoder.encodeLocalizedText(node.getDisplayName());
+    encodeOptionalText(encoder, node.getDescription());
+    encodeOptionalUInt32(encoder, node.getWriteMask());
+    encodeOptionalUInt32(encoder, node.getUserWriteMask());
+
+    switch (node) {
+      case UaObjectNode objectNode -> encoder.encodeByte(objectNode.getEventNotifier());
+
+      case UaVariableNode variableNode -> {
+        encoder.encodeDataValue(variableNode.getValue());
+        encoder.encodeNodeId(variableNode.getDataType());
+        encoder.encodeInt32(variableNode.getValueRank());
+
+        UInteger[] arrayDimensions = variableNode.getArrayDimensions();
+        encoder.encodeInt32(arrayDimensions != null ? arrayDimensions.length : -1);
+        if (arrayDimensions != null) {
+          for (UInteger dimension : arrayDimensions) {
+            encoder.encodeUInt32(dimension);
+          }
+        }
+
+        encoder.encodeByte(variableNode.getAccessLevel());
+        encoder.encodeByte(variableNode.getUserAccessLevel());
+
+        Double minimumSamplingInterval = variableNode.getMinimumSamplingInterval();
+        encoder.encodeBoolean(minimumSamplingInterval != null);
+        if (minimumSamplingInterval != null) {
+          encoder.encodeDouble(minimumSamplingInterval);
+        }
+
+        encoder.encodeBoolean(Boolean.TRUE.equals(variableNode.getHistorizing()));
+      }
+
+      case UaDataTypeNode dataTypeNode -> {
+        encoder.encodeBoolean(Boolean.TRUE.equals(dataTypeNode.getIsAbstract()));
+
+        DataTypeDefinition definition = dataTypeNode.getDataTypeDefinition();
+        encoder.encodeBoolean(definition != null);
+        if (definition != null) {
+          encoder.encodeExtensionObject(ExtensionObject.encode(encodingContext, definition));
+        }
+      }
+
+      default -> {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static UaNode decodeNode(
+      OpcUaBinaryDecoder decoder, EncodingContext encodingContext, UaNodeContext context)
+      throws IOException {
+
+    NodeClass nodeClass = NodeClass.from(decoder.decodeInt32());
+    NodeId nodeId = decoder.decodeNodeId();
+    QualifiedName browseName = decoder.decodeQualifiedName();
+    LocalizedText displayName = decoder.decodeLocalizedText();
+    @Nullable LocalizedText description =
+        decoder.decodeBoolean() ? decoder.decodeLocalizedText() : null;
+    @Nullable UInteger writeMask = decoder.decodeBoolean() ? decoder.decodeUInt32() : null;
+    @Nullable UInteger userWriteMask = decoder.decodeBoolean() ? decoder.decodeUInt32() : null;
+
+    if (nodeClass == NodeClass.Object) {
+      return new UaObjectNode(
+          context,
+          nodeId,
+          browseName,
+          displayName,
+          description,
+          writeMask,
+          userWriteMask,
+          decoder.decodeByte());
+    } else if (nodeClass == NodeClass.Variable) {
+      var variableNode =
+          new UaVariableNode(
+              context, nodeId, browseName, displayName, description, writeMask, userWriteMask);
+
+      variableNode.setValue(decoder.decodeDataValue());
+      variableNode.setDataType(decoder.decodeNodeId());
+      variableNode.setValueRank(decoder.decodeInt32());
+
+      int dimensions = decoder.decodeInt32();
+      if (dimensions >= 0) {
+        var arrayDimensions = new UInteger[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+          arrayDimensions[i] = decoder.decodeUInt32();
+        }
+        variableNode.setArrayDimensions(arrayDimensions);
+      }
+
+      variableNode.setAccessLevel(decoder.decodeByte());
+      variableNode.setUserAccessLevel(decoder.decodeByte());
+      if (decoder.decodeBoolean()) {
+        variableNode.setMinimumSamplingInterval(decoder.decodeDouble());
+      }
+      variableNode.setHistorizing(decoder.decodeBoolean());
+
+      return variableNode;
+    } else if (nodeClass == NodeClass.DataType) {
+      var dataTypeNode =
+          new UaDataTypeNode(
+              context,
+              nodeId,
+              browseName,
+              displayName,
+              description,
+              writeMask,
+              userWriteMask,
+              decoder.decodeBoolean());
+
+      if (decoder.decodeBoolean()) {
+        Object definition = decoder.decodeExtensionObject().decode(encodingContext);
+        dataTypeNode.setDataTypeDefinition((DataTypeDefinition) definition);
+      }
+
+      return dataTypeNode;
+    } else {
+      throw new IOException("unsupported node class: " + nodeClass);
+    }
+  }
+
+  private static void encodeOptionalText(
+      OpcUaBinaryEncoder encoder, @Nullable LocalizedText value) {
+
+    encoder.encodeBoolean(value != null);
+    if (value != null) {
+      encoder.encodeLocalizedText(value);
+    }
+  }
+
+  private static void encodeOptionalUInt32(OpcUaBinaryEncoder encoder, @Nullable UInteger value) {
+    encoder.encodeBoolean(value != null);
+    if (value != null) {
+      encoder.encodeUInt32(value);
+    }
+  }
+}
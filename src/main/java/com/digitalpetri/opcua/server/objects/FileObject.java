@@ -1,14 +1,23 @@
 package com.digitalpetri.opcua.server.objects;
 
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.milo.opcua.sdk.server.AbstractLifecycle;
 import org.eclipse.milo.opcua.sdk.server.Session;
@@ -29,9 +38,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
-import org.eclipse.milo.shaded.com.google.common.collect.HashBasedTable;
-import org.eclipse.milo.shaded.com.google.common.collect.Table;
-import org.eclipse.milo.shaded.com.google.common.collect.Tables;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,8 +64,7 @@ public class FileObject extends AbstractLifecycle {
 
   protected final Logger logger = LoggerFactory.getLogger(getClass());
 
-  protected final Table<NodeId, UInteger, FileHandle> handles =
-      Tables.synchronizedTable(HashBasedTable.create());
+  protected final FileHandleRegistry handles = new FileHandleRegistry();
 
   private volatile SessionListener sessionListener;
 
@@ -108,7 +114,9 @@ public class FileObject extends AbstractLifecycle {
                 new SessionListener() {
                   @Override
                   public void onSessionClosed(Session session) {
-                    handles.row(session.getSessionId()).clear();
+                    handles
+                        .removeSession(session.getSessionId())
+                        .forEach(FileObject.this::closeQuietly);
                   }
                 });
 
@@ -148,8 +156,31 @@ public class FileObject extends AbstractLifecycle {
    * @return {@code true} if any file handle is open for writing.
    */
   protected boolean isOpenForWriting() {
-    return handles.values().stream()
-        .anyMatch(handle -> (handle.mode.intValue() & MASK_WRITE) == MASK_WRITE);
+    return handles.isOpenForWriting();
+  }
+
+  /**
+   * Close the file of a handle that has been removed, logging rather than throwing on error.
+   *
+   * @param handle the {@link FileHandle} to close.
+   */
+  protected void closeQuietly(FileHandle handle) {
+    try {
+      handle.close();
+    } catch (IOException e) {
+      logger.debug("Error closing file handle: {}", handle.handle, e);
+    }
+  }
+
+  /**
+   * Create the {@link FileHandle} for a file opened with {@code mode}.
+   *
+   * @param mode the mode argument of the Open call.
+   * @param file the opened file.
+   * @return a new {@link FileHandle}.
+   */
+  protected FileHandle newFileHandle(UByte mode, RandomAccessFile file) {
+    return new FileHandle(mode, file);
   }
 
   protected FileType.OpenMethod newOpenMethod(UaMethodNode methodNode) {
@@ -216,16 +247,509 @@ public class FileObject extends AbstractLifecycle {
 
   protected static class FileHandle {
 
-    private final AtomicLong handleSequence = new AtomicLong(0L);
+    /** Read-only files at least this many bytes long are memory-mapped. */
+    static final long MAP_THRESHOLD = 64L * 1024L;
+
+    private static final AtomicLong HANDLE_SEQUENCE = new AtomicLong(0L);
 
-    final UInteger handle = uint(handleSequence.getAndIncrement());
+    final UInteger handle = uint(HANDLE_SEQUENCE.getAndIncrement() & 0xFFFFFFFFL);
 
     final UByte mode;
-    final RandomAccessFile file;
+
+    /** The opened file, or {@code null} if this handle serves its contents from memory. */
+    final @Nullable RandomAccessFile file;
+
+    /**
+     * This handle's position. Reads and writes are positional, so they never move, or contend on,
+     * the position of the underlying {@link RandomAccessFile}.
+     */
+    private final AtomicLong position = new AtomicLong(0L);
+
+    /**
+     * The contents of this handle, if they're held in memory: the mapped file if it's open
+     * read-only and at least {@link #MAP_THRESHOLD} bytes long, or the bytes of a handle created
+     * with {@link #FileHandle(ByteBuffer)}. Only read with absolute gets, so it may be shared.
+     *
+     * <p>Files are mapped by the first Read, not by Open, so a handle that's never read never maps
+     * its file. Published by {@link #readPrepared}.
+     */
+    private @Nullable ByteBuffer contents;
+
+    /**
+     * Read-ahead buffer for read-only files that aren't mapped, holding the bytes starting at
+     * {@link #readAheadPosition}, or {@code null} if read-ahead is disabled. Allocated by the first
+     * Read and published by {@link #readPrepared}.
+     */
+    private @Nullable ByteBuffer readAhead;
+
+    private long readAheadPosition = -1L;
+
+    private final int readAheadSize;
+
+    /** Set once the first Read has decided whether to map the file or read ahead. */
+    private volatile boolean readPrepared = false;
+
+    /**
+     * Write-behind buffer for handles open for writing, holding bytes not yet written to the file
+     * that start at {@link #writeBehindPosition}, or {@code null} if write-behind is disabled.
+     */
+    private final @Nullable ByteBuffer writeBehind;
+
+    private long writeBehindPosition = 0L;
+
+    /** Set once an append-mode handle has moved its position to the end of the file. */
+    private boolean appendPositioned = false;
 
     public FileHandle(UByte mode, RandomAccessFile file) {
+      this(mode, file, 0, 0);
+    }
+
+    /**
+     * @param mode the mode the file was opened with.
+     * @param file the opened file.
+     * @param readAheadSize the size of the read-ahead buffer used for read-only files that aren't
+     *     mapped, capped at the size of the file, or 0 to read exactly what each Read asks for.
+     * @param writeBehindSize the size of the write-behind buffer used for files open for writing,
+     *     or 0 to write each Write through to the file.
+     */
+    public FileHandle(UByte mode, RandomAccessFile file, int readAheadSize, int writeBehindSize) {
       this.mode = mode;
       this.file = file;
+      this.readAheadSize = readAheadSize;
+
+      if (isWritable() && writeBehindSize > 0) {
+        writeBehind = ByteBuffer.allocateDirect(writeBehindSize);
+      } else {
+        writeBehind = null;
+      }
+    }
+
+    /**
+     * Create a read-only handle that serves {@code contents} from memory instead of a file.
+     *
+     * @param contents the bytes to serve, from index 0 to the buffer's limit. They must not be
+     *     modified while the handle is open, but may be shared by many handles.
+     */
+    public FileHandle(ByteBuffer contents) {
+      this.mode = ubyte(MASK_READ);
+      this.file = null;
+      this.contents = contents;
+
+      readAheadSize = 0;
+      readPrepared = true;
+      writeBehind = null;
+    }
+
+    /**
+     * @return {@code true} if this handle was opened with Write in its mode.
+     */
+    boolean isWritable() {
+      return (mode.intValue() & MASK_WRITE) == MASK_WRITE;
+    }
+
+    /**
+     * @return this handle's current position.
+     */
+    long getPosition() {
+      return position.get();
+    }
+
+    /**
+     * @param position the new position of this handle.
+     */
+    void setPosition(long position) {
+      this.position.set(position);
+    }
+
+    /**
+     * Read up to {@code length} bytes from the current position, advancing the position by the
+     * number of bytes read.
+     *
+     * <p>The returned array is sized to the bytes actually available, so no partial copy is needed
+     * on a short read. In-memory handles and large read-only files, which are mapped, are served
+     * without reading through the channel on every call; other read-only files go through the
+     * read-ahead buffer, if there is one. Concurrent reads on the same handle each claim a distinct
+     * range of the file.
+     *
+     * @param length the maximum number of bytes to read.
+     * @return the bytes read; empty if the position is at or past the end of the file.
+     * @throws IOException if an I/O error occurs.
+     */
+    byte[] read(int length) throws IOException {
+      if (writeBehind != null) {
+        flush();
+      }
+
+      if (!readPrepared) {
+        prepareRead();
+      }
+
+      ByteBuffer readAhead = this.readAhead;
+      ByteBuffer contents = this.contents;
+
+      if (readAhead != null) {
+        synchronized (readAhead) {
+          return readBuffered(length, readAhead);
+        }
+      }
+
+      long size = contents != null ? contents.limit() : channel().size();
+
+      long start;
+      int available;
+      do {
+        start = position.get();
+        available = (int) Math.min(length, Math.max(0L, size - start));
+      } while (!position.compareAndSet(start, start + available));
+
+      byte[] bs = new byte[available];
+
+      if (contents != null) {
+        contents.get((int) start, bs);
+        return bs;
+      }
+
+      FileChannel channel = channel();
+      ByteBuffer buffer = ByteBuffer.wrap(bs);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) == -1) {
+          // the file was truncated while reading
+          position.set(start + buffer.position());
+          return Arrays.copyOf(bs, buffer.position());
+        }
+      }
+
+      return bs;
+    }
+
+    private byte[] readBuffered(int length, ByteBuffer buffer) throws IOException {
+      FileChannel channel = channel();
+
+      long start = position.get();
+      int available = (int) Math.min(length, Math.max(0L, channel.size() - start));
+
+      byte[] bs = new byte[available];
+      int copied = 0;
+
+      while (copied < available) {
+        long next = start + copied;
+
+        if (next < readAheadPosition || next >= readAheadPosition + buffer.limit()) {
+          buffer.clear();
+          int read = channel.read(buffer, next);
+          buffer.flip();
+          readAheadPosition = next;
+
+          if (read <= 0) {
+            // the file was truncated while reading
+            break;
+          }
+        }
+
+        int offset = (int) (next - readAheadPosition);
+        int count = Math.min(available - copied, buffer.limit() - offset);
+        buffer.get(offset, bs, copied, count);
+        copied += count;
+      }
+
+      position.set(start + copied);
+
+      return copied == available ? bs : Arrays.copyOf(bs, copied);
+    }
+
+    /**
+     * Write {@code bs} at the current position, advancing the position by its length.
+     *
+     * <p>If this handle was opened with Append in its mode, the position is first moved to the
+     * end of the file.
+     *
+     * <p>If this handle has a write-behind buffer, {@code bs} is appended to it when it continues
+     * the buffered bytes and fits, and the buffer is only written to the file once it's full, the
+     * position moves, or the handle is read, flushed or closed. Writes larger than the buffer are
+     * written through.
+     *
+     * @param bs the bytes to write.
+     * @throws IOException if an I/O error occurs, including while writing previously buffered
+     *     bytes.
+     */
+    synchronized void write(byte[] bs) throws IOException {
+      FileChannel channel = channel();
+
+      if ((mode.intValue() & MASK_APPEND) == MASK_APPEND && !appendPositioned) {
+        position.set(channel.size());
+        appendPositioned = true;
+      }
+
+      long start = position.get();
+
+      if (writeBehind != null) {
+        if (writeBehind.position() > 0
+            && (start != writeBehindPosition + writeBehind.position()
+                || bs.length > writeBehind.remaining())) {
+          flush();
+        }
+
+        if (bs.length <= writeBehind.remaining()) {
+          if (writeBehind.position() == 0) {
+            writeBehindPosition = start;
+          }
+          writeBehind.put(bs);
+          position.set(start + bs.length);
+          return;
+        }
+      }
+
+      ByteBuffer buffer = ByteBuffer.wrap(bs);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, start + buffer.position());
+      }
+
+      position.set(start + bs.length);
+    }
+
+    /**
+     * Write any bytes held in the write-behind buffer to the file.
+     *
+     * <p>If writing fails, the buffered bytes are discarded and the position is moved back to the
+     * end of the bytes that were written, so a client can find where to resume with GetPosition.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    synchronized void flush() throws IOException {
+      if (writeBehind == null || writeBehind.position() == 0) {
+        return;
+      }
+
+      FileChannel channel = channel();
+
+      writeBehind.flip();
+      try {
+        while (writeBehind.hasRemaining()) {
+          channel.write(writeBehind, writeBehindPosition + writeBehind.position());
+        }
+      } catch (IOException e) {
+        position.set(writeBehindPosition + writeBehind.position());
+        throw e;
+      } finally {
+        writeBehind.clear();
+      }
+    }
+
+    /**
+     * Flush the write-behind buffer, if any, and close the file. The file is closed even if the
+     * flush fails.
+     *
+     * <p>A mapping of the file can't be unmapped explicitly; it's released once the handle and its
+     * buffer are garbage collected. Until then, on Windows, the file can't be truncated or deleted,
+     * so an Open with EraseExisting right after the file was read may fail with Bad_NotWritable.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        if (file != null) {
+          // drop the mapping, if any, so it can be released without waiting for the handle.
+          contents = null;
+          file.close();
+        }
+      }
+    }
+
+    /**
+     * @return {@code true} if this handle's file has been mapped.
+     */
+    boolean isMapped() {
+      return readPrepared && file != null && contents != null;
+    }
+
+    /**
+     * Decide, on the first Read, whether a read-only file is served from a mapping or through the
+     * read-ahead buffer. The read-ahead buffer is no larger than the file, so small files don't
+     * allocate a full-sized buffer per handle.
+     *
+     * @throws IOException if an I/O error occurs getting the size of the file.
+     */
+    private synchronized void prepareRead() throws IOException {
+      if (readPrepared) {
+        return;
+      }
+
+      if (file != null && mode.intValue() == MASK_READ) {
+        contents = map(file);
+
+        if (contents == null && readAheadSize > 0) {
+          int size = (int) Math.min(readAheadSize, file.getChannel().size());
+
+          if (size > 0) {
+            readAhead = ByteBuffer.allocateDirect(size).limit(0);
+          }
+        }
+      }
+
+      readPrepared = true;
+    }
+
+    private FileChannel channel() throws IOException {
+      if (file == null) {
+        throw new IOException("handle has no file");
+      }
+      return file.getChannel();
+    }
+
+    private static @Nullable MappedByteBuffer map(RandomAccessFile file) {
+      try {
+        FileChannel channel = file.getChannel();
+        long size = channel.size();
+
+        if (size >= MAP_THRESHOLD && size <= Integer.MAX_VALUE) {
+          return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        } else {
+          return null;
+        }
+      } catch (IOException e) {
+        // fall back to reading through the channel
+        return null;
+      }
+    }
+  }
+
+  /**
+   * The open {@link FileHandle}s of a {@link FileObject}, by Session and handle.
+   *
+   * <p>Lookups don't lock, and admission of new handles is a single compare-and-set on the open
+   * count, so many Sessions can open and read the same file without contending on one monitor.
+   */
+  protected static final class FileHandleRegistry {
+
+    private final ConcurrentMap<NodeId, ConcurrentMap<UInteger, FileHandle>> sessions =
+        new ConcurrentHashMap<>();
+
+    /** The number of open read handles, or {@code -1} while a handle is open for writing. */
+    private final AtomicInteger openCount = new AtomicInteger(0);
+
+    /**
+     * Add a handle opened by the Session identified by {@code sessionId}.
+     *
+     * <p>A handle open for writing excludes all other handles; read handles may be open
+     * concurrently.
+     *
+     * @param sessionId the id of the Session that opened the handle.
+     * @param handle the handle.
+     * @throws UaException if the handle conflicts with the handles already open, or the Session's
+     *     handles were removed while it was being added.
+     */
+    public void add(NodeId sessionId, FileHandle handle) throws UaException {
+      if (handle.isWritable()) {
+        if (!openCount.compareAndSet(0, -1)) {
+          throw new UaException(StatusCodes.Bad_NotWritable, "already open");
+        }
+      } else {
+        int count;
+        do {
+          count = openCount.get();
+          if (count < 0) {
+            throw new UaException(StatusCodes.Bad_NotReadable, "already open for writing");
+          }
+        } while (!openCount.compareAndSet(count, count + 1));
+      }
+
+      ConcurrentMap<UInteger, FileHandle> handles =
+          sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>());
+      handles.put(handle.handle, handle);
+
+      // removeSession may have removed the map before the put, orphaning the handle in it.
+      if (sessions.get(sessionId) != handles) {
+        if (handles.remove(handle.handle, handle)) {
+          release(handle);
+        }
+        throw new UaException(StatusCodes.Bad_SessionClosed, "session closed");
+      }
+    }
+
+    /**
+     * @param sessionId the id of the Session that opened the handle.
+     * @param handle the handle id.
+     * @return the handle, or {@code null} if it isn't open for that Session.
+     */
+    public @Nullable FileHandle get(NodeId sessionId, UInteger handle) {
+      Map<UInteger, FileHandle> handles = sessions.get(sessionId);
+
+      return handles != null ? handles.get(handle) : null;
+    }
+
+    /**
+     * Remove a handle. The caller is responsible for closing its file.
+     *
+     * @param sessionId the id of the Session that opened the handle.
+     * @param handle the handle id.
+     * @return the removed handle, or {@code null} if it isn't open for that Session.
+     */
+    public @Nullable FileHandle remove(NodeId sessionId, UInteger handle) {
+      Map<UInteger, FileHandle> handles = sessions.get(sessionId);
+      FileHandle removed = handles != null ? handles.remove(handle) : null;
+
+      if (removed != null) {
+        release(removed);
+      }
+
+      return removed;
+    }
+
+    /**
+     * Remove all handles opened by a Session. The caller is responsible for closing their files.
+     *
+     * @param sessionId the id of the Session.
+     * @return the removed handles.
+     */
+    public List<FileHandle> removeSession(NodeId sessionId) {
+      Map<UInteger, FileHandle> handles = sessions.remove(sessionId);
+
+      if (handles == null) {
+        return List.of();
+      }
+
+      var removed = new ArrayList<FileHandle>();
+      for (UInteger id : handles.keySet()) {
+        FileHandle handle = handles.remove(id);
+        if (handle != null) {
+          release(handle);
+          removed.add(handle);
+        }
+      }
+      return removed;
+    }
+
+    /**
+     * @return the number of open handles.
+     */
+    public int size() {
+      int count = openCount.get();
+
+      return count < 0 ? 1 : count;
+    }
+
+    /**
+     * @return {@code true} if no handles are open.
+     */
+    public boolean isEmpty() {
+      return openCount.get() == 0;
+    }
+
+    /**
+     * @return {@code true} if a handle is open for writing.
+     */
+    public boolean isOpenForWriting() {
+      return openCount.get() < 0;
+    }
+
+    private void release(FileHandle handle) {
+      if (handle.isWritable()) {
+        openCount.set(0);
+      } else {
+        openCount.decrementAndGet();
+      }
     }
   }
 
@@ -259,16 +783,10 @@ public class FileObject extends AbstractLifecycle {
       var erase = false;
 
       if ((mode.intValue() & MASK_READ) == MASK_READ) {
-        if (isOpenForWriting()) {
-          throw new UaException(StatusCodes.Bad_NotReadable, "already open for writing");
-        }
         modeString += "r";
       }
 
       if ((mode.intValue() & MASK_WRITE) == MASK_WRITE) {
-        if (isOpen()) {
-          throw new UaException(StatusCodes.Bad_NotWritable, "already open");
-        }
         if (modeString.startsWith("r")) {
           modeString += "ws";
         } else {
@@ -283,24 +801,32 @@ public class FileObject extends AbstractLifecycle {
         erase = true;
       }
 
+      FileHandle handle;
       try {
-        File file = fileSupplier.get();
-
-        if (erase) {
-          try {
-            new FileOutputStream(file).close();
-          } catch (IOException e) {
-            throw new UaException(StatusCodes.Bad_NotWritable, e);
-          }
-        }
-
-        var handle = new FileHandle(mode, new RandomAccessFile(file, modeString));
-        handles.put(session.getSessionId(), handle.handle, handle);
-
-        fileHandle.set(handle.handle);
+        handle = newFileHandle(mode, new RandomAccessFile(fileSupplier.get(), modeString));
       } catch (IOException e) {
         throw new UaException(StatusCodes.Bad_UnexpectedError, e);
       }
+
+      try {
+        // admission is checked by the registry, so nothing is erased unless the open succeeds.
+        handles.add(session.getSessionId(), handle);
+      } catch (UaException e) {
+        closeQuietly(handle);
+        throw e;
+      }
+
+      if (erase) {
+        try {
+          handle.file.setLength(0L);
+        } catch (IOException e) {
+          handles.remove(session.getSessionId(), handle.handle);
+          closeQuietly(handle);
+          throw new UaException(StatusCodes.Bad_NotWritable, e);
+        }
+      }
+
+      fileHandle.set(handle.handle);
     }
   }
 
@@ -327,7 +853,7 @@ public class FileObject extends AbstractLifecycle {
       }
 
       try {
-        handle.file.close();
+        handle.close();
       } catch (IOException e) {
         throw new UaException(StatusCodes.Bad_UnexpectedError, e);
       }
@@ -363,19 +889,12 @@ public class FileObject extends AbstractLifecycle {
         throw new UaException(StatusCodes.Bad_NotReadable);
       }
 
+      if (length < 0) {
+        throw new UaException(StatusCodes.Bad_InvalidArgument, "invalid length: " + length);
+      }
+
       try {
-        byte[] bs = new byte[length];
-        int read = handle.file.read(bs);
-
-        if (read == -1) {
-          data.set(ByteString.of(new byte[0]));
-        } else if (read < length) {
-          byte[] partial = new byte[read];
-          System.arraycopy(bs, 0, partial, 0, read);
-          data.set(ByteString.of(partial));
-        } else {
-          data.set(ByteString.of(bs));
-        }
+        data.set(ByteString.of(handle.read(length)));
       } catch (IOException e) {
         throw new UaException(StatusCodes.Bad_UnexpectedError, e);
       }
@@ -390,9 +909,6 @@ public class FileObject extends AbstractLifecycle {
    */
   public class WriteMethodImpl extends FileType.WriteMethod {
 
-    /** Tracks if the file has been repositioned for append before the first write. */
-    private final AtomicBoolean repositioned = new AtomicBoolean(false);
-
     public WriteMethodImpl(UaMethodNode node) {
       super(node);
     }
@@ -412,18 +928,8 @@ public class FileObject extends AbstractLifecycle {
         throw new UaException(StatusCodes.Bad_NotWritable);
       }
 
-      if ((handle.mode.intValue() & MASK_APPEND) == MASK_APPEND) {
-        if (repositioned.compareAndSet(false, true)) {
-          try {
-            handle.file.seek(handle.file.length());
-          } catch (IOException e) {
-            throw new UaException(StatusCodes.Bad_UnexpectedError, e);
-          }
-        }
-      }
-
       try {
-        handle.file.write(data.bytes());
+        handle.write(data.bytesOrEmpty());
       } catch (IOException e) {
         throw new UaException(StatusCodes.Bad_UnexpectedError, e);
       }
@@ -454,11 +960,7 @@ public class FileObject extends AbstractLifecycle {
         throw new UaException(StatusCodes.Bad_NotFound);
       }
 
-      try {
-        position.set(ulong(handle.file.getFilePointer()));
-      } catch (IOException e) {
-        throw new UaException(StatusCodes.Bad_UnexpectedError, e);
-      }
+      position.set(ulong(handle.getPosition()));
     }
   }
 
@@ -486,11 +988,7 @@ public class FileObject extends AbstractLifecycle {
         throw new UaException(StatusCodes.Bad_NotFound);
       }
 
-      try {
-        handle.file.seek(position.longValue());
-      } catch (IOException e) {
-        throw new UaException(StatusCodes.Bad_UnexpectedError, e);
-      }
+      handle.setPosition(position.longValue());
     }
   }
 }
@@ -0,0 +1,151 @@
+package com.digitalpetri.opcua.server.objects;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.milo.opcua.sdk.server.methods.Out;
+import org.eclipse.milo.opcua.sdk.server.model.objects.FileType;
+import org.eclipse.milo.opcua.sdk.server.model.objects.FileTypeNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaMethodNode;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+/**
+ * A {@link FileObject} for bulk transfer of server-side files.
+ *
+ * <p>Read-only handles use a read-ahead buffer of a configurable size when their file isn't
+ * mapped, and handles open for writing collect Writes in a write-behind buffer until it's full or
+ * the handle is closed. The bytes and calls served by Read and Write are counted in a {@link
+ * Statistics} that may be shared by many objects.
+ *
+ * <p>A Write whose data is buffered returns Good before the data reaches the file. If writing the
+ * buffer fails later, the Write, Read or Close that triggered it returns Bad_UnexpectedError, and
+ * GetPosition returns the end of the data that was written. Write-behind is off unless a size is
+ * given, so the plain {@link FileObject} and trust lists keep writing each Write through.
+ */
+public class FileTransferObject extends FileObject {
+
+  private final boolean writable;
+  private final int readAheadSize;
+  private final int writeBehindSize;
+  private final Statistics statistics;
+
+  /**
+   * @param fileNode the {@link FileTypeNode} to implement.
+   * @param file the file represented by {@code fileNode}.
+   * @param writable {@code true} if the file may be opened for writing.
+   * @param readAheadSize the size of the read-ahead buffer of each read-only handle, or 0 to
+   *     disable read-ahead.
+   * @param writeBehindSize the size of the write-behind buffer of each handle open for writing, or
+   *     0 to write each Write through to the file.
+   * @param statistics the {@link Statistics} to count transfers in.
+   */
+  public FileTransferObject(
+      FileTypeNode fileNode,
+      File file,
+      boolean writable,
+      int readAheadSize,
+      int writeBehindSize,
+      Statistics statistics) {
+
+    super(fileNode, file);
+
+    this.writable = writable;
+    this.readAheadSize = readAheadSize;
+    this.writeBehindSize = writeBehindSize;
+    this.statistics = statistics;
+  }
+
+  @Override
+  protected FileHandle newFileHandle(UByte mode, RandomAccessFile file) {
+    return new FileHandle(mode, file, readAheadSize, writeBehindSize);
+  }
+
+  @Override
+  protected FileType.OpenMethod newOpenMethod(UaMethodNode methodNode) {
+    return new OpenMethodImpl(methodNode) {
+      @Override
+      protected void invoke(InvocationContext context, UByte mode, Out<UInteger> fileHandle)
+          throws UaException {
+
+        if (!writable && (mode.intValue() & ~MASK_READ) != 0) {
+          throw new UaException(StatusCodes.Bad_NotWritable, "file is read-only");
+        }
+
+        super.invoke(context, mode, fileHandle);
+      }
+    };
+  }
+
+  @Override
+  protected FileType.ReadMethod newReadMethod(UaMethodNode methodNode) {
+    return new ReadMethodImpl(methodNode) {
+      @Override
+      protected void invoke(
+          InvocationContext context, UInteger fileHandle, Integer length, Out<ByteString> data)
+          throws UaException {
+
+        super.invoke(context, fileHandle, length, data);
+
+        statistics.reads.increment();
+        statistics.bytesRead.add(data.get().length());
+      }
+    };
+  }
+
+  @Override
+  protected FileType.WriteMethod newWriteMethod(UaMethodNode methodNode) {
+    return new WriteMethodImpl(methodNode) {
+      @Override
+      protected void invoke(InvocationContext context, UInteger fileHandle, ByteString data)
+          throws UaException {
+
+        super.invoke(context, fileHandle, data);
+
+        statistics.writes.increment();
+        statistics.bytesWritten.add(data.bytesOrEmpty().length);
+      }
+    };
+  }
+
+  /** Counts of the successful Read and Write calls, and the bytes they transferred. */
+  public static final class Statistics {
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /**
+     * @return the number of successful Read calls.
+     */
+    public long getReads() {
+      return reads.sum();
+    }
+
+    /**
+     * @return the number of bytes returned by Read calls.
+     */
+    public long getBytesRead() {
+      return bytesRead.sum();
+    }
+
+    /**
+     * @return the number of successful Write calls.
+     */
+    public long getWrites() {
+      return writes.sum();
+    }
+
+    /**
+     * @return the number of bytes accepted by successful Write calls, including bytes still held in
+     *     a write-behind buffer, or lost because writing that buffer to the file failed.
+     */
+    public long getBytesWritten() {
+      return bytesWritten.sum();
+    }
+  }
+}
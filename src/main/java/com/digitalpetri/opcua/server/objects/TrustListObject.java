@@ -1,15 +1,19 @@
 package com.digitalpetri.opcua.server.objects;
 
 import static java.util.Objects.requireNonNullElse;
-import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.security.cert.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bouncycastle.util.encoders.Hex;
 import org.eclipse.milo.opcua.sdk.server.Session;
+import org.eclipse.milo.opcua.sdk.server.methods.AbstractMethodInvocationHandler.InvocationContext;
 import org.eclipse.milo.opcua.sdk.server.methods.MethodInvocationHandler;
 import org.eclipse.milo.opcua.sdk.server.methods.Out;
 import org.eclipse.milo.opcua.sdk.server.model.objects.FileType;
@@ -55,6 +59,9 @@ public class TrustListObject extends FileObject {
 
   private final Logger logger = LoggerFactory.getLogger(getClass());
 
+  /** The encoded TrustListDataType, by the masks it was encoded with. */
+  private final Map<Integer, EncodedTrustList> encodedTrustLists = new ConcurrentHashMap<>();
+
   private final CertificateQuarantine certificateQuarantine;
   private final TrustListManager trustListManager;
   private final TrustListTypeNode trustListTypeNode;
@@ -64,7 +71,8 @@ public class TrustListObject extends FileObject {
       TrustListManager trustListManager,
       TrustListTypeNode fileNode) {
 
-    super(fileNode, () -> newTemporaryTrustListFile(trustListManager, MASK_ALL));
+    // only used to open for writing; reads are served from the encoded trust list in memory.
+    super(fileNode, TrustListObject::newTemporaryFile);
 
     this.certificateQuarantine = certificateQuarantine;
     this.trustListManager = trustListManager;
@@ -149,11 +157,74 @@ public class TrustListObject extends FileObject {
 
   @Override
   protected AttributeFilter newSizeAttributeFilter() {
-    // creating a temporary TrustList file just to calculate the size is expensive, so let's just
-    // tell the client don't support it.
-    return AttributeFilters.getValue(ctx -> new DataValue(StatusCodes.Bad_NotSupported));
+    return AttributeFilters.getValue(
+        ctx -> {
+          try {
+            return new DataValue(new Variant(ulong(getEncodedTrustList(MASK_ALL).limit())));
+          } catch (IOException e) {
+            return new DataValue(StatusCodes.Bad_UnexpectedError);
+          }
+        });
+  }
+
+  /**
+   * Get the trust list encoded as a TrustListDataType containing the lists selected by {@code
+   * masks}.
+   *
+   * <p>The encoding is cached per masks until the trust list's last update time changes, or the
+   * trust list is changed through this object.
+   *
+   * @param masks the TrustListMasks selecting the lists to include.
+   * @return a read-only buffer of the encoded bytes, shared by every caller.
+   * @throws IOException if a certificate or CRL can't be encoded.
+   */
+  private ByteBuffer getEncodedTrustList(int masks) throws IOException {
+    DateTime lastUpdateTime = trustListManager.getLastUpdateTime();
+
+    EncodedTrustList cached = encodedTrustLists.get(masks);
+    if (cached != null && cached.lastUpdateTime().equals(lastUpdateTime)) {
+      return cached.bytes();
+    }
+
+    var encoded =
+        new EncodedTrustList(
+            lastUpdateTime,
+            ByteBuffer.wrap(encodeTrustList(trustListManager, masks)).asReadOnlyBuffer());
+    encodedTrustLists.put(masks, encoded);
+
+    return encoded.bytes();
   }
 
+  /**
+   * Open a read-only handle on the encoded trust list for the Session of {@code context}.
+   *
+   * @param context the {@link InvocationContext} of the Open or OpenWithMasks call.
+   * @param masks the TrustListMasks selecting the lists to include.
+   * @return the id of the opened handle.
+   * @throws UaException if the trust list can't be encoded or is open for writing.
+   */
+  private UInteger openEncodedTrustList(InvocationContext context, int masks) throws UaException {
+    Session session = context.getSession().orElseThrow();
+
+    ByteBuffer encoded;
+    try {
+      encoded = getEncodedTrustList(masks & MASK_ALL);
+    } catch (IOException e) {
+      throw new UaException(StatusCodes.Bad_UnexpectedError, e);
+    }
+
+    var handle = new FileHandle(encoded);
+    handles.add(session.getSessionId(), handle);
+
+    return handle.handle;
+  }
+
+  /**
+   * The encoded bytes of a TrustListDataType and the trust list's last update time when it was
+   * encoded.
+   */
+  private record EncodedTrustList(DateTime lastUpdateTime, ByteBuffer bytes) {}
+
   /**
    * Restricts the implementation of {@link FileObject.OpenMethodImpl} to only allow {@link
    * #MASK_READ} or {@link #MASK_WRITE} + {@link #MASK_ERASE_EXISTING}.
@@ -168,12 +239,14 @@ public class TrustListObject extends FileObject {
     protected void invoke(InvocationContext context, UByte mode, Out<UInteger> fileHandle)
         throws UaException {
 
-      if (mode.intValue() != MASK_READ && mode.intValue() != (MASK_WRITE | MASK_ERASE_EXISTING)) {
+      if (mode.intValue() == MASK_READ) {
+        fileHandle.set(openEncodedTrustList(context, MASK_ALL));
+      } else if (mode.intValue() == (MASK_WRITE | MASK_ERASE_EXISTING)) {
+        super.invoke(context, mode, fileHandle);
+      } else {
         throw new UaException(
             StatusCodes.Bad_InvalidArgument, "mode must be Read or Write+EraseExisting");
       }
-
-      super.invoke(context, mode, fileHandle);
     }
   }
 
@@ -195,8 +268,6 @@ public class TrustListObject extends FileObject {
     protected void invoke(InvocationContext context, UInteger masks, Out<UInteger> fileHandle)
         throws UaException {
 
-      Session session = context.getSession().orElseThrow();
-
       // TODO For PullManagement, this Method shall be called from an authenticated SecureChannel
       //  and from a Client that has access to the CertificateAuthorityAdmin Role, the
       //  ApplicationSelfAdmin Privilege, or the ApplicationAdmin Privilege.
@@ -204,17 +275,7 @@ public class TrustListObject extends FileObject {
       // TODO For PushManagement, this Method shall be called from an authenticated SecureChannel
       //  and from a Client that has access to the SecurityAdmin Role.
 
-      try {
-        File file = newTemporaryTrustListFile(trustListManager, masks.intValue());
-        file.deleteOnExit();
-
-        var handle = new FileHandle(ubyte(MASK_READ), new RandomAccessFile(file, "r"));
-        handles.put(session.getSessionId(), handle.handle, handle);
-
-        fileHandle.set(handle.handle);
-      } catch (IOException e) {
-        throw new UaException(StatusCodes.Bad_UnexpectedError, e);
-      }
+      fileHandle.set(openEncodedTrustList(context, masks.intValue()));
     }
   }
 
@@ -279,6 +340,7 @@ public class TrustListObject extends FileObject {
           }
 
           trustListTypeNode.setLastUpdateTime(DateTime.now());
+          encodedTrustLists.clear();
 
           // TODO force existing clients to reconnect?
 
@@ -420,6 +482,7 @@ public class TrustListObject extends FileObject {
         }
 
         certificateQuarantine.removeRejectedCertificate(x509Certificate);
+        encodedTrustLists.clear();
       } catch (Exception e) {
         throw new UaException(StatusCodes.Bad_InvalidArgument, e);
       }
@@ -452,10 +515,18 @@ public class TrustListObject extends FileObject {
           throw new UaException(StatusCodes.Bad_InvalidArgument);
         }
       }
+
+      encodedTrustLists.clear();
     }
   }
 
-  private static File newTemporaryTrustListFile(TrustListManager trustListManager, int masks)
+  private static File newTemporaryFile() throws IOException {
+    File file = File.createTempFile("TrustListDataType", ".bin");
+    file.deleteOnExit();
+    return file;
+  }
+
+  private static byte[] encodeTrustList(TrustListManager trustListManager, int masks)
       throws IOException {
 
     var trustedCertificates = new ArrayList<ByteString>();
@@ -514,12 +585,6 @@ public class TrustListObject extends FileObject {
 
     ByteString encodedBytes = (ByteString) encoded.getBody();
 
-    File file = File.createTempFile("TrustListDataType", ".bin");
-
-    try (FileOutputStream fos = new FileOutputStream(file)) {
-      fos.write(encodedBytes.bytesOrEmpty());
-    }
-
-    return file;
+    return encodedBytes.bytesOrEmpty();
   }
 }
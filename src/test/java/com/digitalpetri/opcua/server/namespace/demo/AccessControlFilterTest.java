@@ -1,5 +1,6 @@
 package com.digitalpetri.opcua.server.namespace.demo;
 
+import static com.digitalpetri.opcua.server.namespace.demo.AccessControlFilter.calculatePermissionMask;
 import static com.digitalpetri.opcua.server.namespace.demo.AccessControlFilter.calculateUserAccessLevel;
 import static com.digitalpetri.opcua.server.namespace.demo.AccessControlFilter.calculateUserExecutable;
 import static com.digitalpetri.opcua.server.namespace.demo.AccessControlFilter.calculateUserRolePermissions;
@@ -69,6 +70,45 @@ class AccessControlFilterTest {
 
   // endregion
 
+  // region PermissionMask
+
+  @Test
+  void calculatePermissionMask_isUnionOfAllPermissions() {
+    RolePermissionType[] userPermissions =
+        new RolePermissionType[] {
+          rpt("RoleA", Field.Read), rpt("RoleB", Field.Write, Field.Call), rpt("RoleC")
+        };
+
+    int expected = PermissionType.of(Field.Read, Field.Write, Field.Call).getValue().intValue();
+
+    assertEquals(expected, calculatePermissionMask(userPermissions));
+    assertEquals(0, calculatePermissionMask(new RolePermissionType[0]));
+  }
+
+  @Test
+  void calculateWithPermissionMask_matchesRolePermissions() {
+    UByte accessLevel = AccessLevel.toValue(Set.of(CurrentRead, CurrentWrite, HistoryWrite));
+    UInteger writeMask = uint((1 << 23) | (1 << 9) | 1);
+
+    RolePermissionType[] userPermissions =
+        new RolePermissionType[] {
+          rpt("RoleA", Field.Read, Field.ModifyHistory), rpt("RoleB", Field.WriteHistorizing)
+        };
+
+    int mask = calculatePermissionMask(userPermissions);
+
+    assertEquals(
+        calculateUserAccessLevel(accessLevel, userPermissions),
+        calculateUserAccessLevel(accessLevel, mask));
+    assertEquals(
+        calculateUserWriteMask(writeMask, userPermissions),
+        calculateUserWriteMask(writeMask, mask));
+    assertEquals(
+        calculateUserExecutable(true, userPermissions), calculateUserExecutable(true, mask));
+  }
+
+  // endregion
+
   // region UserAccessLevel
 
   @Test
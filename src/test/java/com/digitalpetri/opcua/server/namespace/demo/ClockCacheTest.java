@@ -0,0 +1,97 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ClockCacheTest {
+
+  @Test
+  void get_countsHitsAndMisses() {
+    var cache = new ClockCache<String>(2, 0);
+
+    String first = cache.get(1, String::valueOf);
+    assertSame(first, cache.get(1, String::valueOf));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void get_evictsUnreferencedBeforeReferenced() {
+    var cache = new ClockCache<String>(2, 0);
+
+    cache.get(1, String::valueOf);
+    cache.get(2, String::valueOf);
+    cache.get(1, String::valueOf);
+    cache.get(3, String::valueOf);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+
+    // 1 was referenced since it was cached and 2 wasn't, so 1 is still cached.
+    cache.get(1, String::valueOf);
+    assertEquals(2, cache.getHitCount());
+
+    cache.get(2, String::valueOf);
+    assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  void get_expiresUnaccessedEntries() {
+    var now = new AtomicLong();
+    var cache = new ClockCache<String>(2, 100, now::get);
+
+    cache.get(1, String::valueOf);
+
+    now.set(100);
+    cache.get(1, String::valueOf);
+    assertEquals(1, cache.getHitCount());
+
+    now.set(201);
+    cache.get(1, String::valueOf);
+    assertEquals(2, cache.getMissCount());
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void capacity_roundedUpToPowerOfTwoSets() {
+    assertEquals(1, new ClockCache<String>(1, 0).capacity());
+    assertEquals(ClockCache.WAYS, new ClockCache<String>(ClockCache.WAYS, 0).capacity());
+    assertEquals(2 * ClockCache.WAYS, new ClockCache<String>(ClockCache.WAYS + 1, 0).capacity());
+    assertEquals(16384, new ClockCache<String>(10_000, 0).capacity());
+  }
+
+  @Test
+  void get_sizeBoundedByCapacity() {
+    var cache = new ClockCache<String>(100, 0);
+
+    for (long key = 0; key < 10_000; key++) {
+      assertEquals(String.valueOf(key), cache.get(key, String::valueOf));
+    }
+
+    assertTrue(cache.size() <= cache.capacity(), "size: " + cache.size());
+    assertEquals(10_000 - cache.size(), cache.getEvictionCount());
+  }
+
+  @Test
+  void get_hotKeysSurviveScan() {
+    var cache = new ClockCache<String>(64, 0);
+
+    for (long i = 0; i < 1000; i++) {
+      // one hot key out of 4 is read per scanned key, so each is read every 4th scanned key.
+      cache.get(i % 4, String::valueOf);
+      cache.get(1000 + i, String::valueOf);
+    }
+
+    long misses = cache.getMissCount();
+    for (long key = 0; key < 4; key++) {
+      cache.get(key, String::valueOf);
+    }
+    assertEquals(misses, cache.getMissCount());
+  }
+}
@@ -0,0 +1,132 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Integration tests for Write through the fragments of {@link DemoNamespace}. */
+class DemoNamespaceIT {
+
+  private OpcUaDemoServer server;
+  private OpcUaClient client;
+
+  private NodeId variantNode;
+  private NodeId massNode;
+  private NodeId unknownNode;
+
+  @BeforeEach
+  void setUp(@TempDir Path tempDir) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.mass.enabled", true,
+                "address-space.mass.flat-quantity", 12,
+                "address-space.mass.nested-quantity1", 3,
+                "address-space.mass.nested-quantity2", 4));
+
+    server = OpcUaTestServerBuilder.builder().withDataDir(tempDir).withConfig(config).build();
+    server.startup();
+
+    client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    UShort namespaceIndex =
+        Objects.requireNonNull(
+            server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+
+    variantNode = new NodeId(namespaceIndex, "Demo.Variants.Scalar.Int32");
+    massNode = new NodeId(namespaceIndex, "Demo.Mass.Nested.1.2");
+    unknownNode = new NodeId(namespaceIndex, "Demo.DoesNotExist");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    client.disconnect();
+    server.shutdown();
+  }
+
+  @Test
+  void write_routesEachValueToItsFragment() throws Exception {
+    List<StatusCode> results =
+        write(writeValue(variantNode, 1), writeValue(massNode, 2), writeValue(variantNode, 3));
+
+    assertEquals(List.of(StatusCode.GOOD, StatusCode.GOOD, StatusCode.GOOD), results);
+
+    // values for the same node are applied in request order.
+    assertEquals(3, readValue(variantNode));
+    assertEquals(2, readValue(massNode));
+  }
+
+  @Test
+  void write_unknownNode() throws Exception {
+    List<StatusCode> results =
+        write(writeValue(variantNode, 4), writeValue(unknownNode, 5), writeValue(massNode, 6));
+
+    assertEquals(StatusCode.GOOD, results.get(0));
+    assertEquals(new StatusCode(StatusCodes.Bad_NodeIdUnknown), results.get(1));
+    assertEquals(StatusCode.GOOD, results.get(2));
+
+    assertEquals(4, readValue(variantNode));
+    assertEquals(6, readValue(massNode));
+  }
+
+  @Test
+  void write_invalidAttributeId() throws Exception {
+    var invalid =
+        new WriteValue(variantNode, uint(999), null, new DataValue(Variant.ofInt32(7)));
+
+    List<StatusCode> results = write(invalid, writeValue(massNode, 8));
+
+    assertEquals(new StatusCode(StatusCodes.Bad_AttributeIdInvalid), results.get(0));
+    assertEquals(StatusCode.GOOD, results.get(1));
+
+    assertEquals(8, readValue(massNode));
+  }
+
+  private List<StatusCode> write(WriteValue... writeValues) throws Exception {
+    StatusCode[] results = Objects.requireNonNull(client.write(List.of(writeValues)).getResults());
+
+    assertEquals(writeValues.length, results.length);
+    return List.of(results);
+  }
+
+  private Object readValue(NodeId nodeId) throws Exception {
+    var readValueId =
+        new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+    DataValue[] values =
+        Objects.requireNonNull(
+            client.read(0.0, TimestampsToReturn.Neither, List.of(readValueId)).getResults());
+
+    return values[0].getValue().getValue();
+  }
+
+  private static WriteValue writeValue(NodeId nodeId, int value) {
+    return new WriteValue(
+        nodeId, AttributeId.Value.uid(), null, new DataValue(Variant.ofInt32(value)));
+  }
+}
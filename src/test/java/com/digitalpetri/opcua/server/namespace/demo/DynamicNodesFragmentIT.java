@@ -0,0 +1,152 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.OpcUaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.OpcUaSubscription;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Integration tests for the push mode of {@link DynamicNodesFragment}.
+ *
+ * <p>These tests monitor Dynamic Variables on a server that samples them next to one that pushes
+ * them and verify that the IndexRange of a monitored item applies to both.
+ */
+class DynamicNodesFragmentIT {
+
+  private OpcUaDemoServer sampledServer;
+  private OpcUaDemoServer pushedServer;
+  private OpcUaClient sampledClient;
+  private OpcUaClient pushedClient;
+
+  @BeforeEach
+  void setUp(@TempDir Path tempDir1, @TempDir Path tempDir2) throws Exception {
+    sampledServer = startServer(tempDir1, false);
+    pushedServer = startServer(tempDir2, true);
+
+    sampledClient = OpcUaTestClient.create(sampledServer.getServer());
+    sampledClient.connect();
+
+    pushedClient = OpcUaTestClient.create(pushedServer.getServer());
+    pushedClient.connect();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    sampledClient.disconnect();
+    pushedClient.disconnect();
+
+    sampledServer.shutdown();
+    pushedServer.shutdown();
+  }
+
+  @Test
+  void monitorString_indexRangeApplied() throws Exception {
+    DataValue sampled = monitor(sampledClient, sampledServer, "String", "0:3");
+    DataValue pushed = monitor(pushedClient, pushedServer, "String", "0:3");
+
+    assertEquals(sampled.getStatusCode(), pushed.getStatusCode());
+    assertTrue(Objects.requireNonNull(pushed.getStatusCode()).isGood());
+    assertEquals(4, ((String) pushed.getValue().getValue()).length());
+    assertEquals(4, ((String) sampled.getValue().getValue()).length());
+  }
+
+  @Test
+  void monitorByteString_indexRangeApplied() throws Exception {
+    DataValue sampled = monitor(sampledClient, sampledServer, "ByteString", "2:3");
+    DataValue pushed = monitor(pushedClient, pushedServer, "ByteString", "2:3");
+
+    assertEquals(sampled.getStatusCode(), pushed.getStatusCode());
+    assertEquals(2, ((ByteString) pushed.getValue().getValue()).length());
+    assertEquals(2, ((ByteString) sampled.getValue().getValue()).length());
+  }
+
+  @Test
+  void monitorInt32_indexRangeOnScalarFails() throws Exception {
+    DataValue sampled = monitor(sampledClient, sampledServer, "Int32", "0");
+    DataValue pushed = monitor(pushedClient, pushedServer, "Int32", "0");
+
+    assertEquals(sampled.getStatusCode(), pushed.getStatusCode());
+    assertTrue(Objects.requireNonNull(pushed.getStatusCode()).isBad());
+  }
+
+  @Test
+  void monitorInt32_withoutIndexRange() throws Exception {
+    DataValue sampled = monitor(sampledClient, sampledServer, "Int32", null);
+    DataValue pushed = monitor(pushedClient, pushedServer, "Int32", null);
+
+    assertEquals(sampled.getStatusCode(), pushed.getStatusCode());
+    assertTrue(pushed.getValue().getValue() instanceof Integer);
+  }
+
+  /** Monitor the Value of the Dynamic Variable named {@code name} and wait for its first value. */
+  private static DataValue monitor(
+      OpcUaClient client, OpcUaDemoServer server, String name, @Nullable String indexRange)
+      throws Exception {
+
+    UShort namespaceIndex =
+        Objects.requireNonNull(
+            server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+
+    var readValueId =
+        new ReadValueId(
+            new NodeId(namespaceIndex, "Demo.Dynamic." + name),
+            AttributeId.Value.uid(),
+            indexRange,
+            QualifiedName.NULL_VALUE);
+
+    var subscription = new OpcUaSubscription(client);
+    subscription.create();
+
+    try {
+      var value = new CompletableFuture<DataValue>();
+
+      var monitoredItem = new OpcUaMonitoredItem(readValueId, MonitoringMode.Reporting);
+      monitoredItem.setDataValueListener((item, v) -> value.complete(v));
+
+      subscription.addMonitoredItem(monitoredItem);
+      subscription.synchronizeMonitoredItems();
+
+      return value.get(5, TimeUnit.SECONDS);
+    } finally {
+      subscription.delete();
+    }
+  }
+
+  private static OpcUaDemoServer startServer(Path dataDir, boolean push) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.dynamic.enabled", true,
+                "address-space.dynamic.push", push));
+
+    OpcUaDemoServer server =
+        OpcUaTestServerBuilder.builder().withDataDir(dataDir).withConfig(config).build();
+    server.startup();
+
+    return server;
+  }
+}
@@ -73,6 +73,48 @@ class EuRangeCheckFilterTest {
     assertEquals(StatusCodes.Bad_TypeMismatch, ex.getStatusCode().getValue());
   }
 
+  @Test
+  void validateArrayValue_primitiveArrays() throws UaException {
+    EuRangeCheckFilter.validateArrayValue(new double[] {0.0, 50.0, 100.0}, 0.0, 100.0);
+    EuRangeCheckFilter.validateArrayValue(new float[] {0.0f, 50.0f, 100.0f}, 0.0, 100.0);
+    EuRangeCheckFilter.validateArrayValue(new int[] {0, 50, 100}, 0.0, 100.0);
+    EuRangeCheckFilter.validateArrayValue(new short[] {0, 50, 100}, 0.0, 100.0);
+
+    UaException ex =
+        assertThrows(
+            UaException.class,
+            () -> EuRangeCheckFilter.validateArrayValue(new long[] {0, 101}, 0.0, 100.0));
+    assertEquals(StatusCodes.Bad_OutOfRange, ex.getStatusCode().getValue());
+  }
+
+  @Test
+  void validateArrayValue_nonNumericPrimitiveArray_throws() {
+    UaException ex =
+        assertThrows(
+            UaException.class,
+            () -> EuRangeCheckFilter.validateArrayValue(new boolean[] {true}, 0.0, 100.0));
+    assertEquals(StatusCodes.Bad_TypeMismatch, ex.getStatusCode().getValue());
+  }
+
+  @Test
+  void validateArrayValue_nullBoxedElement_throws() {
+    UaException ex =
+        assertThrows(
+            UaException.class,
+            () -> EuRangeCheckFilter.validateArrayValue(new Double[] {1.0, null}, 0.0, 100.0));
+    assertEquals(StatusCodes.Bad_TypeMismatch, ex.getStatusCode().getValue());
+  }
+
+  @Test
+  void firstOutOfRange_reportsFirstIndex() throws UaException {
+    assertEquals(
+        2, EuRangeCheckFilter.firstOutOfRange("array", new double[] {0, 1, -1, 200}, 0, 100));
+    assertEquals(
+        3, EuRangeCheckFilter.firstOutOfRange("array", new Double[] {0.0, 1.0, 2.0, 500.0}, 0, 99));
+    assertEquals(1, EuRangeCheckFilter.firstOutOfRange("array", new Object[] {0, 200L}, 0, 100));
+    assertEquals(-1, EuRangeCheckFilter.firstOutOfRange("array", new int[] {0, 100}, 0, 100));
+  }
+
   // endregion
 
   // region Matrix Validation
@@ -0,0 +1,256 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseDirection;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseResultMask;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReferenceDescription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Integration tests for {@link FileTransferFragment} and the {@code FileTransferObject}s it
+ * exposes, transferring files through the FileType Methods and checking the Statistics Variables.
+ */
+class FileTransferFragmentIT {
+
+  private static final int MODE_READ = 0b0001;
+  private static final int MODE_WRITE = 0b0010;
+  private static final int MODE_ERASE_EXISTING = 0b0100;
+
+  /** Larger than the size at which read-only files are mapped. */
+  private static final int LARGE_SIZE = 200_000;
+
+  private static final int SMALL_SIZE = 100;
+
+  @TempDir Path dataDir;
+
+  private OpcUaDemoServer server;
+  private OpcUaClient client;
+
+  private UShort namespaceIndex;
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (client != null) {
+      client.disconnect();
+    }
+    if (server != null) {
+      server.shutdown();
+    }
+  }
+
+  @Test
+  void read_returnsFileContents() throws Exception {
+    start(false);
+
+    for (String name : List.of("small.bin", "large.bin")) {
+      byte[] expected = Files.readAllBytes(dataDir.resolve("files").resolve(name));
+
+      assertArrayEquals(expected, readFile(fileNode(name), 8192), name);
+    }
+
+    // each file is read in chunks, plus one empty Read at its end.
+    long reads = (SMALL_SIZE + 8191) / 8192 + 1 + (LARGE_SIZE + 8191) / 8192 + 1;
+
+    assertEquals(reads, statistic("Reads"));
+    assertEquals(SMALL_SIZE + LARGE_SIZE, statistic("BytesRead"));
+    assertEquals(0L, statistic("Writes"));
+  }
+
+  @Test
+  void write_replacesFileContents() throws Exception {
+    start(true);
+
+    NodeId fileNode = fileNode("small.bin");
+    byte[] contents = contents(3000, 7);
+
+    UInteger handle = open(fileNode, MODE_WRITE | MODE_ERASE_EXISTING);
+    for (int i = 0; i < contents.length; i += 1000) {
+      write(fileNode, handle, Arrays.copyOfRange(contents, i, i + 1000));
+    }
+    close(fileNode, handle);
+
+    assertArrayEquals(contents, Files.readAllBytes(dataDir.resolve("files").resolve("small.bin")));
+    assertArrayEquals(contents, readFile(fileNode, 8192));
+
+    assertEquals(3L, statistic("Writes"));
+    assertEquals(3000L, statistic("BytesWritten"));
+  }
+
+  @Test
+  void open_rejectsWriteWhenNotWritable() throws Exception {
+    start(false);
+
+    NodeId fileNode = fileNode("small.bin");
+
+    CallMethodResult result = call(fileNode, "Open", new Variant(ubyte(MODE_WRITE)));
+
+    assertEquals(StatusCodes.Bad_NotWritable, result.getStatusCode().getValue());
+  }
+
+  @Test
+  void open_rejectsReaderWhileOpenForWriting() throws Exception {
+    start(true);
+
+    NodeId fileNode = fileNode("small.bin");
+    UInteger handle = open(fileNode, MODE_WRITE);
+
+    CallMethodResult result = call(fileNode, "Open", new Variant(ubyte(MODE_READ)));
+    assertEquals(StatusCodes.Bad_NotReadable, result.getStatusCode().getValue());
+
+    close(fileNode, handle);
+  }
+
+  private void start(boolean writable) throws Exception {
+    Path directory = Files.createDirectories(dataDir.resolve("files"));
+    Files.write(directory.resolve("small.bin"), contents(SMALL_SIZE, 1));
+    Files.write(directory.resolve("large.bin"), contents(LARGE_SIZE, 3));
+
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.file-transfer.enabled", true,
+                "address-space.file-transfer.writable", writable,
+                "address-space.file-transfer.read-ahead", "16k",
+                "address-space.file-transfer.write-behind", "1500"));
+
+    server = OpcUaTestServerBuilder.builder().withDataDir(dataDir).withConfig(config).build();
+    server.startup();
+
+    client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    namespaceIndex =
+        Objects.requireNonNull(
+            server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+  }
+
+  private byte[] readFile(NodeId fileNode, int chunkSize) throws Exception {
+    var contents = new ByteArrayOutputStream();
+
+    UInteger handle = open(fileNode, MODE_READ);
+    while (true) {
+      CallMethodResult result = call(fileNode, "Read", new Variant(handle), new Variant(chunkSize));
+      assertTrue(result.getStatusCode().isGood(), result.getStatusCode().toString());
+
+      byte[] bs = ((ByteString) result.getOutputArguments()[0].getValue()).bytesOrEmpty();
+      if (bs.length == 0) {
+        break;
+      }
+      contents.write(bs);
+    }
+    close(fileNode, handle);
+
+    return contents.toByteArray();
+  }
+
+  private UInteger open(NodeId fileNode, int mode) throws Exception {
+    CallMethodResult result = call(fileNode, "Open", new Variant(ubyte(mode)));
+    assertTrue(result.getStatusCode().isGood(), result.getStatusCode().toString());
+
+    return (UInteger) result.getOutputArguments()[0].getValue();
+  }
+
+  private void write(NodeId fileNode, UInteger handle, byte[] bs) throws Exception {
+    CallMethodResult result =
+        call(fileNode, "Write", new Variant(handle), new Variant(ByteString.of(bs)));
+
+    assertTrue(result.getStatusCode().isGood(), result.getStatusCode().toString());
+  }
+
+  private void close(NodeId fileNode, UInteger handle) throws Exception {
+    CallMethodResult result = call(fileNode, "Close", new Variant(handle));
+
+    assertTrue(result.getStatusCode().isGood(), result.getStatusCode().toString());
+  }
+
+  private CallMethodResult call(NodeId fileNode, String method, Variant... arguments)
+      throws Exception {
+
+    var request = new CallMethodRequest(fileNode, methodNode(fileNode, method), arguments);
+
+    CallMethodResult[] results = Objects.requireNonNull(client.call(List.of(request)).getResults());
+
+    assertEquals(1, results.length);
+    return results[0];
+  }
+
+  private NodeId methodNode(NodeId fileNode, String method) throws Exception {
+    var browseDescription =
+        new BrowseDescription(
+            fileNode,
+            BrowseDirection.Forward,
+            NodeIds.HasComponent,
+            true,
+            uint(0),
+            uint(BrowseResultMask.All.getValue()));
+
+    ReferenceDescription[] references =
+        Objects.requireNonNull(client.browse(browseDescription).getReferences());
+
+    for (ReferenceDescription reference : references) {
+      if (reference.getBrowseName().getName().equals(method)) {
+        return reference.getNodeId().toNodeId(client.getNamespaceTable()).orElseThrow();
+      }
+    }
+    throw new AssertionError("no %s Method on %s".formatted(method, fileNode));
+  }
+
+  private long statistic(String name) throws Exception {
+    var nodeId = new NodeId(namespaceIndex, "Demo.FileTransfer.Statistics." + name);
+    var readValueId =
+        new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+    DataValue[] values =
+        Objects.requireNonNull(
+            client.read(0.0, TimestampsToReturn.Neither, List.of(readValueId)).getResults());
+
+    return ((ULong) values[0].getValue().getValue()).longValue();
+  }
+
+  private NodeId fileNode(String name) {
+    return new NodeId(namespaceIndex, "Demo.FileTransfer." + name);
+  }
+
+  private static byte[] contents(int size, int seed) {
+    var bs = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bs[i] = (byte) (i * 31 + seed);
+    }
+    return bs;
+  }
+}
@@ -0,0 +1,140 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseDirection;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseResultMask;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReferenceDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Integration tests for {@code address-space.parallel-startup}, verifying that starting the
+ * fragments concurrently builds the same address space as starting them one after another.
+ */
+class FragmentStartupIT {
+
+  @Test
+  void parallelStartup_matchesSequentialStartup(@TempDir Path tempDir1, @TempDir Path tempDir2)
+      throws Exception {
+
+    Set<String> sequential = browseDemoNamespace(tempDir1, false);
+    Set<String> parallel = browseDemoNamespace(tempDir2, true);
+
+    assertTrue(sequential.size() > 1, "nothing browsed");
+    assertEquals(sequential, parallel);
+  }
+
+  /**
+   * Start a server and browse every node of the demo namespace reachable from the Demo folder.
+   *
+   * @return the NodeClass and BrowseName of each node and each of its references, in both
+   *     directions.
+   */
+  private static Set<String> browseDemoNamespace(Path dataDir, boolean parallel) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.parallel-startup", parallel,
+                "address-space.ctt.enabled", true,
+                "address-space.dynamic.enabled", true,
+                "address-space.null.enabled", true,
+                "address-space.mass.enabled", true,
+                "address-space.mass.flat-quantity", 12,
+                "address-space.mass.nested-quantity1", 3,
+                "address-space.mass.nested-quantity2", 4));
+
+    OpcUaDemoServer server =
+        OpcUaTestServerBuilder.builder().withDataDir(dataDir).withConfig(config).build();
+    server.startup();
+
+    OpcUaClient client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    try {
+      UShort namespaceIndex =
+          Objects.requireNonNull(
+              server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+
+      var browsed = new HashSet<String>();
+      var visited = new HashSet<NodeId>();
+      var queue = new ArrayDeque<NodeId>();
+      queue.add(new NodeId(namespaceIndex, "Demo"));
+
+      while (!queue.isEmpty()) {
+        NodeId nodeId = queue.remove();
+        if (!visited.add(nodeId)) {
+          continue;
+        }
+
+        for (ReferenceDescription reference : browse(client, nodeId)) {
+          browsed.add(
+              "%s %s %s %s %s %s"
+                  .formatted(
+                      nodeId,
+                      reference.getReferenceTypeId(),
+                      reference.getIsForward(),
+                      reference.getNodeId(),
+                      reference.getBrowseName(),
+                      reference.getNodeClass()));
+
+          NodeId target = reference.getNodeId().toNodeId(client.getNamespaceTable()).orElse(null);
+
+          if (target != null
+              && target.getNamespaceIndex().equals(namespaceIndex)
+              && reference.getIsForward()) {
+
+            queue.add(target);
+          }
+        }
+      }
+
+      return browsed;
+    } finally {
+      client.disconnect();
+      server.shutdown();
+    }
+  }
+
+  private static ReferenceDescription[] browse(OpcUaClient client, NodeId nodeId)
+      throws Exception {
+
+    var browseDescription =
+        new BrowseDescription(
+            nodeId,
+            BrowseDirection.Both,
+            NodeIds.References,
+            true,
+            uint(0),
+            uint(BrowseResultMask.All.getValue()));
+
+    BrowseResult browseResult = client.browse(browseDescription);
+
+    assertTrue(browseResult.getStatusCode().isGood(), nodeId + ": " + browseResult);
+    ByteString continuationPoint = browseResult.getContinuationPoint();
+    assertTrue(
+        continuationPoint == null || continuationPoint.isNullOrEmpty(), nodeId + " not browsed");
+
+    ReferenceDescription[] references = browseResult.getReferences();
+    return references != null ? references : new ReferenceDescription[0];
+  }
+}
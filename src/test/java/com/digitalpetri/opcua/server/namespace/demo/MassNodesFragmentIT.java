@@ -0,0 +1,231 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseDirection;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseResultMask;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReferenceDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Integration tests for the virtual mode of {@link MassNodesFragment}.
+ *
+ * <p>These tests run a server with materialized Mass nodes next to one with virtual Mass nodes and
+ * verify that clients can't tell them apart by browsing, reading, or writing.
+ */
+class MassNodesFragmentIT {
+
+  private static final List<AttributeId> ATTRIBUTES =
+      List.of(
+          AttributeId.NodeClass,
+          AttributeId.BrowseName,
+          AttributeId.DisplayName,
+          AttributeId.DataType,
+          AttributeId.AccessLevel,
+          AttributeId.UserAccessLevel,
+          AttributeId.Value);
+
+  private OpcUaDemoServer materializedServer;
+  private OpcUaDemoServer virtualServer;
+  private OpcUaClient materializedClient;
+  private OpcUaClient virtualClient;
+
+  @BeforeEach
+  void setUp(@TempDir Path tempDir1, @TempDir Path tempDir2) throws Exception {
+    materializedServer = startServer(tempDir1, false);
+    virtualServer = startServer(tempDir2, true);
+
+    materializedClient = OpcUaTestClient.create(materializedServer.getServer());
+    materializedClient.connect();
+
+    virtualClient = OpcUaTestClient.create(virtualServer.getServer());
+    virtualClient.connect();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    for (OpcUaClient client : List.of(materializedClient, virtualClient)) {
+      client.disconnect();
+    }
+    for (OpcUaDemoServer server : List.of(materializedServer, virtualServer)) {
+      server.shutdown();
+    }
+  }
+
+  @Test
+  void browse_virtualMatchesMaterialized() throws Exception {
+    for (NodeId nodeId : massNodeIds()) {
+      assertEquals(
+          browse(materializedClient, nodeId), browse(virtualClient, nodeId), nodeId.toString());
+    }
+  }
+
+  @Test
+  void read_virtualMatchesMaterialized() throws Exception {
+    for (NodeId nodeId : massNodeIds()) {
+      assertEquals(
+          read(materializedClient, nodeId), read(virtualClient, nodeId), nodeId.toString());
+    }
+  }
+
+  @Test
+  void write_virtualMatchesMaterialized() throws Exception {
+    List<NodeId> nodeIds = massNodeIds();
+
+    for (int i = 0; i < nodeIds.size(); i++) {
+      NodeId nodeId = nodeIds.get(i);
+      var value = new DataValue(Variant.ofInt32(1000 + i));
+
+      assertEquals(
+          materializedClient.writeValues(List.of(nodeId), List.of(value)),
+          virtualClient.writeValues(List.of(nodeId), List.of(value)),
+          nodeId.toString());
+      assertEquals(
+          read(materializedClient, nodeId), read(virtualClient, nodeId), nodeId.toString());
+    }
+  }
+
+  @Test
+  void write_nonValueAttribute_virtualMatchesMaterialized() throws Exception {
+    var value = new DataValue(Variant.ofLocalizedText(LocalizedText.english("renamed")));
+
+    for (NodeId nodeId : massNodeIds()) {
+      assertEquals(
+          write(materializedClient, nodeId, AttributeId.DisplayName, value),
+          write(virtualClient, nodeId, AttributeId.DisplayName, value),
+          nodeId.toString());
+    }
+  }
+
+  private List<NodeId> massNodeIds() {
+    UShort namespaceIndex = namespaceIndex();
+
+    return List.of(
+        new NodeId(namespaceIndex, "Demo.Mass.Flat"),
+        new NodeId(namespaceIndex, "Demo.Mass.Flat.00"),
+        new NodeId(namespaceIndex, "Demo.Mass.Flat.11"),
+        new NodeId(namespaceIndex, "Demo.Mass.Nested"),
+        new NodeId(namespaceIndex, "Demo.Mass.Nested.0"),
+        new NodeId(namespaceIndex, "Demo.Mass.Nested.2"),
+        nestedVariableNodeId(namespaceIndex, "0", "0"),
+        nestedVariableNodeId(namespaceIndex, "2", "3"),
+        // beyond the configured quantities; unknown to both.
+        new NodeId(namespaceIndex, "Demo.Mass.Flat.12"),
+        nestedVariableNodeId(namespaceIndex, "3", "0"));
+  }
+
+  private UShort namespaceIndex() {
+    return Objects.requireNonNull(
+        virtualServer.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+  }
+
+  private static NodeId nestedVariableNodeId(UShort namespaceIndex, String i, String j) {
+    return new NodeId(namespaceIndex, "Demo.Mass.Nested.%s.%s".formatted(i, j));
+  }
+
+  private static Set<String> browse(OpcUaClient client, NodeId nodeId) throws Exception {
+    var browseDescription =
+        new BrowseDescription(
+            nodeId,
+            BrowseDirection.Both,
+            null,
+            true,
+            uint(0),
+            uint(BrowseResultMask.All.getValue()));
+
+    BrowseResult browseResult = client.browse(browseDescription);
+
+    var references = new HashSet<String>();
+    references.add(browseResult.getStatusCode().toString());
+
+    ReferenceDescription[] descriptions = browseResult.getReferences();
+    if (descriptions != null) {
+      for (ReferenceDescription reference : descriptions) {
+        references.add(
+            "%s %s %s %s %s"
+                .formatted(
+                    reference.getReferenceTypeId(),
+                    reference.getIsForward(),
+                    reference.getNodeId(),
+                    reference.getBrowseName(),
+                    reference.getNodeClass()));
+      }
+    }
+    return references;
+  }
+
+  private static List<String> read(OpcUaClient client, NodeId nodeId) throws Exception {
+    var readValueIds = new ArrayList<ReadValueId>();
+    for (AttributeId attributeId : ATTRIBUTES) {
+      readValueIds.add(new ReadValueId(nodeId, attributeId.uid(), null, QualifiedName.NULL_VALUE));
+    }
+
+    DataValue[] values =
+        Objects.requireNonNull(
+            client.read(0.0, TimestampsToReturn.Neither, readValueIds).getResults());
+
+    var attributes = new ArrayList<String>();
+    for (DataValue value : values) {
+      attributes.add(value.getStatusCode() + " " + value.getValue());
+    }
+    return attributes;
+  }
+
+  private static StatusCode write(
+      OpcUaClient client, NodeId nodeId, AttributeId attributeId, DataValue value)
+      throws Exception {
+
+    var writeValue = new WriteValue(nodeId, attributeId.uid(), null, value);
+
+    StatusCode[] results = Objects.requireNonNull(client.write(List.of(writeValue)).getResults());
+
+    assertEquals(1, results.length);
+    return results[0];
+  }
+
+  private static OpcUaDemoServer startServer(Path dataDir, boolean virtual) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.mass.enabled", true,
+                "address-space.mass.virtual", virtual,
+                "address-space.mass.flat-quantity", 12,
+                "address-space.mass.nested-quantity1", 3,
+                "address-space.mass.nested-quantity2", 4));
+
+    OpcUaDemoServer server =
+        OpcUaTestServerBuilder.builder().withDataDir(dataDir).withConfig(config).build();
+    server.startup();
+
+    return server;
+  }
+}
@@ -0,0 +1,68 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import org.eclipse.milo.opcua.stack.core.OpcUaDataType;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.junit.jupiter.api.Test;
+
+class RandomValueGeneratorTest {
+
+  private final RandomValueGenerator generator = new RandomValueGenerator();
+
+  private final Variant now = Variant.ofDateTime(DateTime.now());
+
+  @Test
+  void next_neverRepeatsPreviousValue() {
+    for (OpcUaDataType dataType : OpcUaDataType.values()) {
+      if (dataType == OpcUaDataType.DateTime || dataType == OpcUaDataType.DiagnosticInfo) {
+        continue;
+      }
+
+      Variant previous = null;
+      for (int i = 0; i < 10_000; i++) {
+        Variant value = generator.next(dataType, now, previous);
+        assertNotEquals(previous, value, dataType.name());
+        previous = value;
+      }
+    }
+  }
+
+  @Test
+  void next_booleanAlternates() {
+    Variant previous = generator.next(OpcUaDataType.Boolean, now, null);
+
+    for (int i = 0; i < 100; i++) {
+      Variant value = generator.next(OpcUaDataType.Boolean, now, previous);
+      assertEquals(!(Boolean) previous.getValue(), value.getValue());
+      previous = value;
+    }
+  }
+
+  @Test
+  void next_coversPool() {
+    var values = new HashSet<Variant>();
+    Variant previous = null;
+    for (int i = 0; i < 10_000; i++) {
+      previous = generator.next(OpcUaDataType.Int32, now, previous);
+      values.add(previous);
+    }
+
+    assertTrue(values.size() > RandomValueGenerator.POOL_SIZE / 2, "values: " + values.size());
+  }
+
+  @Test
+  void next_dateTimeReturnsNow() {
+    assertEquals(now, generator.next(OpcUaDataType.DateTime, now, now));
+  }
+
+  @Test
+  void next_diagnosticInfoIsNull() {
+    assertEquals(
+        Variant.NULL_VALUE, generator.next(OpcUaDataType.DiagnosticInfo, now, Variant.NULL_VALUE));
+  }
+}
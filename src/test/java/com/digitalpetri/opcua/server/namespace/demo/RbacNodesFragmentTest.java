@@ -0,0 +1,38 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static com.digitalpetri.opcua.server.namespace.demo.RbacNodesFragment.stressRoleId;
+import static com.digitalpetri.opcua.server.namespace.demo.RbacNodesFragment.stressRolePermissions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import org.eclipse.milo.opcua.stack.core.types.structured.PermissionType;
+import org.eclipse.milo.opcua.stack.core.types.structured.PermissionType.Field;
+import org.eclipse.milo.opcua.stack.core.types.structured.RolePermissionType;
+import org.junit.jupiter.api.Test;
+
+class RbacNodesFragmentTest {
+
+  @Test
+  void stressRolePermissions_wrapAroundRoles() {
+    RolePermissionType[] rolePermissions =
+        stressRolePermissions(30, 32, 4, Set.of(Field.Browse, Field.Read), Set.of(Field.Write));
+
+    assertEquals(4, rolePermissions.length);
+    assertEquals(stressRoleId(30), rolePermissions[0].getRoleId());
+    assertEquals(stressRoleId(31), rolePermissions[1].getRoleId());
+    assertEquals(stressRoleId(0), rolePermissions[2].getRoleId());
+    assertEquals(stressRoleId(1), rolePermissions[3].getRoleId());
+  }
+
+  @Test
+  void stressRolePermissions_onlyFirstRoleCanWrite() {
+    RolePermissionType[] rolePermissions =
+        stressRolePermissions(0, 32, 3, Set.of(Field.Browse, Field.Read), Set.of(Field.Write));
+
+    assertEquals(
+        PermissionType.of(Field.Browse, Field.Read, Field.Write),
+        rolePermissions[0].getPermissions());
+    assertEquals(PermissionType.of(Field.Browse, Field.Read), rolePermissions[1].getPermissions());
+    assertEquals(PermissionType.of(Field.Browse, Field.Read), rolePermissions[2].getPermissions());
+  }
+}
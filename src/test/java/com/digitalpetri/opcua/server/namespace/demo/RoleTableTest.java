@@ -0,0 +1,75 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.namespace.demo.RoleTable.SessionRoles;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.jupiter.api.Test;
+
+class RoleTableTest {
+
+  @Test
+  void intern_isStablePerRole() {
+    var roleTable = new RoleTable();
+
+    int a = roleTable.intern(NodeId.parse("ns=1;s=RoleA"));
+    int b = roleTable.intern(NodeId.parse("ns=1;s=RoleB"));
+
+    assertEquals(a, roleTable.intern(NodeId.parse("ns=1;s=RoleA")));
+    assertEquals(b, roleTable.intern(NodeId.parse("ns=1;s=RoleB")));
+    assertEquals(2, roleTable.size());
+  }
+
+  @Test
+  void compile_containsOnlyGivenRoles() {
+    var roleTable = new RoleTable();
+
+    // intern enough roles that the compiled set spans more than one word.
+    var roleIds = new ArrayList<NodeId>();
+    for (int i = 0; i < 130; i++) {
+      roleIds.add(new NodeId(1, "Role" + i));
+    }
+    roleIds.forEach(roleTable::intern);
+
+    SessionRoles roles = roleTable.compile(List.of(roleIds.get(3), roleIds.get(129)));
+
+    assertTrue(roles.containsIndex(roleTable.intern(roleIds.get(3))));
+    assertTrue(roles.containsIndex(roleTable.intern(roleIds.get(129))));
+    assertFalse(roles.containsIndex(roleTable.intern(roleIds.get(4))));
+    assertFalse(roles.containsIndex(roleTable.intern(roleIds.get(65))));
+    assertFalse(roles.containsIndex(1000));
+  }
+
+  @Test
+  void compile_isTheGivenRoleIds() {
+    var roleTable = new RoleTable();
+    List<NodeId> roleIds = List.of(NodeId.parse("ns=1;s=RoleA"), NodeId.parse("ns=1;s=RoleB"));
+
+    SessionRoles roles = roleTable.compile(roleIds);
+
+    assertEquals(roleIds, roles);
+  }
+
+  @Test
+  void compile_returnsRolesAlreadyCompiledByTable() {
+    var roleTable = new RoleTable();
+    SessionRoles roles = roleTable.compile(List.of(NodeId.parse("ns=1;s=RoleA")));
+
+    assertSame(roles, roleTable.compile(roles));
+
+    // roles compiled by another table have other indices, so they're compiled again.
+    var otherTable = new RoleTable();
+    otherTable.intern(NodeId.parse("ns=1;s=RoleB"));
+
+    SessionRoles recompiled = otherTable.compile(roles);
+    assertNotSame(roles, recompiled);
+    assertTrue(recompiled.containsIndex(otherTable.intern(NodeId.parse("ns=1;s=RoleA"))));
+    assertFalse(recompiled.containsIndex(otherTable.intern(NodeId.parse("ns=1;s=RoleB"))));
+  }
+}
@@ -0,0 +1,169 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.OpcUaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.OpcUaSubscription;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Integration tests for {@link SamplingScheduler}, driven by a client monitoring the sampled
+ * Dynamic Variables of the Demo namespace.
+ */
+class SamplingSchedulerIT {
+
+  private OpcUaDemoServer server;
+  private OpcUaClient client;
+  private OpcUaSubscription subscription;
+  private SamplingScheduler samplingScheduler;
+
+  @BeforeEach
+  void setUp(@TempDir Path tempDir) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.dynamic.enabled", true,
+                "address-space.dynamic.push", false));
+
+    server = OpcUaTestServerBuilder.builder().withDataDir(tempDir).withConfig(config).build();
+    server.startup();
+
+    samplingScheduler = server.getDemoNamespace().getSamplingScheduler();
+
+    client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    subscription = new OpcUaSubscription(client);
+    subscription.setPublishingInterval(100.0);
+    subscription.create();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    subscription.delete();
+    client.disconnect();
+    server.shutdown();
+  }
+
+  @Test
+  void itemsAreGroupedBySamplingInterval() throws Exception {
+    createItems(List.of("Int32", "String", "Double"), List.of(100.0, 100.0, 1000.0));
+
+    assertEquals(3, samplingScheduler.getItemCount());
+    assertEquals(2, samplingScheduler.getGroupCount());
+  }
+
+  @Test
+  void modifiedItemsMoveToTheirNewGroup() throws Exception {
+    List<OpcUaMonitoredItem> items =
+        createItems(List.of("Int32", "String"), List.of(100.0, 1000.0));
+
+    assertEquals(2, samplingScheduler.getGroupCount());
+
+    items.get(1).setSamplingInterval(100.0);
+    subscription.synchronizeMonitoredItems();
+
+    assertEquals(2, samplingScheduler.getItemCount());
+    assertEquals(1, samplingScheduler.getGroupCount());
+
+    items.get(0).setSamplingInterval(500.0);
+    subscription.synchronizeMonitoredItems();
+
+    assertEquals(2, samplingScheduler.getItemCount());
+    assertEquals(2, samplingScheduler.getGroupCount());
+  }
+
+  @Test
+  void deletedItemsAreNoLongerSampled() throws Exception {
+    List<OpcUaMonitoredItem> items =
+        createItems(List.of("Int32", "String", "Double"), List.of(100.0, 100.0, 1000.0));
+
+    subscription.removeMonitoredItem(items.get(2));
+    subscription.synchronizeMonitoredItems();
+
+    assertEquals(2, samplingScheduler.getItemCount());
+    assertEquals(1, samplingScheduler.getGroupCount());
+
+    subscription.removeMonitoredItem(items.get(0));
+    subscription.removeMonitoredItem(items.get(1));
+    subscription.synchronizeMonitoredItems();
+
+    assertEquals(0, samplingScheduler.getItemCount());
+    assertEquals(0, samplingScheduler.getGroupCount());
+  }
+
+  @Test
+  void disabledItemsAreNotSampled() throws Exception {
+    OpcUaMonitoredItem item = createItems(List.of("Int32"), List.of(100.0)).get(0);
+
+    var notifications = new AtomicInteger();
+    item.setDataValueListener((i, value) -> notifications.incrementAndGet());
+
+    awaitNotifications(notifications, 2);
+
+    item.setMonitoringMode(MonitoringMode.Disabled);
+    // let notifications already in flight drain before counting.
+    Thread.sleep(500);
+    int disabledCount = notifications.get();
+    Thread.sleep(1000);
+
+    assertEquals(disabledCount, notifications.get());
+    // disabled items stay scheduled; each tick skips them.
+    assertEquals(1, samplingScheduler.getItemCount());
+
+    item.setMonitoringMode(MonitoringMode.Reporting);
+
+    awaitNotifications(notifications, disabledCount + 2);
+  }
+
+  private List<OpcUaMonitoredItem> createItems(List<String> names, List<Double> intervals)
+      throws Exception {
+
+    UShort namespaceIndex =
+        Objects.requireNonNull(
+            server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+
+    var items = new ArrayList<OpcUaMonitoredItem>();
+
+    for (int i = 0; i < names.size(); i++) {
+      var nodeId = new NodeId(namespaceIndex, "Demo.Dynamic." + names.get(i));
+
+      var item = OpcUaMonitoredItem.newDataItem(nodeId);
+      item.setSamplingInterval(intervals.get(i));
+
+      subscription.addMonitoredItem(item);
+      items.add(item);
+    }
+    subscription.synchronizeMonitoredItems();
+
+    return items;
+  }
+
+  private static void awaitNotifications(AtomicInteger notifications, int count)
+      throws InterruptedException {
+
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (notifications.get() < count && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+    }
+    assertTrue(notifications.get() >= count, "notifications: " + notifications.get());
+  }
+}
@@ -0,0 +1,117 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.namespace.demo.SimulationEngine.RateGroup;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SimulationEngineTest {
+
+  @Test
+  void create_readsGroupsInOrder() {
+    SimulationEngine engine =
+        SimulationEngine.create(
+            simulationConfig(group("Fast", 10, "1ms", "Sine"), group("Slow", 20, "1s", "Ramp")));
+
+    List<RateGroup> groups = engine.getGroups();
+
+    assertEquals(2, groups.size());
+    assertEquals("Fast", groups.get(0).getName());
+    assertEquals(10, groups.get(0).getCount());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(1), groups.get(0).getRateNanos());
+    assertEquals(Waveform.Sine, groups.get(0).getWaveform());
+    assertEquals("Slow", groups.get(1).getName());
+    assertEquals(Waveform.Ramp, groups.get(1).getWaveform());
+
+    assertEquals(groups.get(1), engine.getGroup("Slow"));
+    assertNull(engine.getGroup("Medium"));
+  }
+
+  @Test
+  void create_rejectsInvalidGroups() {
+    // names can't contain the NodeId separator.
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SimulationEngine.create(simulationConfig(group("A.B", 1, "1s", "Sine"))));
+
+    // rates below 1ms.
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SimulationEngine.create(simulationConfig(group("A", 1, "100us", "Sine"))));
+
+    // duplicate names.
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SimulationEngine.create(
+                simulationConfig(group("A", 1, "1s", "Sine"), group("A", 2, "1s", "Step"))));
+  }
+
+  @Test
+  void rateGroup_rejectsInvalidCountAndPeriod() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RateGroup("A", -1, 1_000_000, Waveform.Sine, 1_000_000, 1.0));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RateGroup("A", 1, 1_000_000, Waveform.Sine, 0, 1.0));
+  }
+
+  @Test
+  void tick_updatesEveryValueAndTickTime() throws Exception {
+    var group = new RateGroup("A", 100, 1_000_000, Waveform.Step, 1_000_000_000, 1.0);
+
+    long before = group.getTickTime();
+    Thread.sleep(2);
+    group.tick();
+
+    assertTrue(group.getTickTime() > before);
+
+    // values are offset in phase by index, so half of a Step group is high and half is low.
+    int high = 0;
+    for (int i = 0; i < group.getCount(); i++) {
+      double value = group.getValue(i);
+      assertTrue(value == 0.0 || value == 1.0, "value " + value);
+      if (value == 1.0) {
+        high++;
+      }
+    }
+    assertEquals(50, high, 1);
+  }
+
+  @Test
+  void startup_ticksGroupsUntilShutdown() throws Exception {
+    var group = new RateGroup("A", 10, 1_000_000, Waveform.Ramp, 1_000_000_000, 1.0);
+    var engine = new SimulationEngine(List.of(group));
+
+    long before = group.getTickTime();
+    engine.startup();
+    try {
+      long deadline = System.currentTimeMillis() + 5_000;
+      while (group.getTickTime() == before && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      assertNotEquals(before, group.getTickTime());
+    } finally {
+      engine.shutdown();
+    }
+  }
+
+  private static String group(String name, int count, String rate, String waveform) {
+    return "{ name = \"%s\", count = %d, rate = %s, waveform = \"%s\", period = 1s, amplitude = 1 }"
+        .formatted(name, count, rate, waveform);
+  }
+
+  private static Config simulationConfig(String... groups) {
+    return ConfigFactory.parseString("groups = [" + String.join(", ", groups) + "]");
+  }
+}
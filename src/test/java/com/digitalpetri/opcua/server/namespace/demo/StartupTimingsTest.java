@@ -0,0 +1,52 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StartupTimingsTest {
+
+  @Test
+  void record_keepsPhasesInOrderRecorded() {
+    var timings = new StartupTimings();
+
+    timings.record("pki", 3L);
+    timings.record("certificates", 2L);
+    timings.record("endpoints", 1L);
+
+    assertEquals(
+        List.of("pki", "certificates", "endpoints"), List.copyOf(timings.getDurations().keySet()));
+    assertEquals(List.of(3L, 2L, 1L), List.copyOf(timings.getDurations().values()));
+  }
+
+  @Test
+  void record_replacesEarlierDurationOfPhase() {
+    var timings = new StartupTimings();
+
+    timings.record("pki", 3L);
+    timings.record("endpoints", 1L);
+    timings.record("pki", 5L);
+
+    assertEquals(List.of("endpoints", "pki"), List.copyOf(timings.getDurations().keySet()));
+    assertEquals(5L, timings.getDurations().get("pki"));
+  }
+
+  @Test
+  void time_recordsPhaseThatThrows() {
+    var timings = new StartupTimings();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            timings.time(
+                "nodeset",
+                () -> {
+                  throw new IllegalStateException();
+                }));
+
+    assertTrue(timings.getDurations().containsKey("nodeset"));
+  }
+}
@@ -0,0 +1,69 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.Map;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.jupiter.api.Test;
+
+class TurtleNodesFragmentTest {
+
+  private static final long DEPTH = 1_000_000;
+
+  @Test
+  void turtleNumber_validIdentifiers() {
+    assertEquals(0, turtleNumber("[turtles]0"));
+    assertEquals(7, turtleNumber("[turtles]7"));
+    assertEquals(999_999, turtleNumber("[turtles]999999"));
+  }
+
+  @Test
+  void turtleNumber_beyondDepth_isNotTurtle() {
+    assertEquals(-1, turtleNumber("[turtles]1000000"));
+    assertEquals(-1, turtleNumber("[turtles]9223372036854775807"));
+    assertEquals(-1, turtleNumber("[turtles]9223372036854775808"));
+    assertEquals(-1, turtleNumber("[turtles]99999999999999999999"));
+  }
+
+  @Test
+  void turtleNumber_malformedIdentifiers_areNotTurtles() {
+    assertEquals(-1, turtleNumber("[turtles]"));
+    assertEquals(-1, turtleNumber("[turtles]-1"));
+    assertEquals(-1, turtleNumber("[turtles]+1"));
+    assertEquals(-1, turtleNumber("[turtles]007"));
+    assertEquals(-1, turtleNumber("[turtles]1a"));
+    assertEquals(-1, turtleNumber("[turtles] 1"));
+    assertEquals(-1, turtleNumber("[turtle]1"));
+    assertEquals(-1, TurtleNodesFragment.turtleNumber(new NodeId(2, 1), DEPTH));
+  }
+
+  @Test
+  void maxWalk_defaultsWhenUnset() {
+    assertEquals(10_000, TurtleNodesFragment.maxWalk(ConfigFactory.empty()));
+  }
+
+  @Test
+  void maxWalk_configured() {
+    assertEquals(1, TurtleNodesFragment.maxWalk(maxWalkConfig(1)));
+    assertEquals(500, TurtleNodesFragment.maxWalk(maxWalkConfig(500)));
+  }
+
+  @Test
+  void maxWalk_lessThanOne_isRejected() {
+    assertThrows(
+        IllegalArgumentException.class, () -> TurtleNodesFragment.maxWalk(maxWalkConfig(0)));
+    assertThrows(
+        IllegalArgumentException.class, () -> TurtleNodesFragment.maxWalk(maxWalkConfig(-1)));
+  }
+
+  private static Config maxWalkConfig(int maxWalk) {
+    return ConfigFactory.parseMap(Map.of("address-space.turtles.max-walk", maxWalk));
+  }
+
+  private static long turtleNumber(String identifier) {
+    return TurtleNodesFragment.turtleNumber(new NodeId(2, identifier), DEPTH);
+  }
+}
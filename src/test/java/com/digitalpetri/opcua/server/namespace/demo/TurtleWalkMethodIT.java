@@ -0,0 +1,170 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.LongStream;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodResult;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Integration tests for {@link TurtleWalkMethod}, called on the Turtles folder of a server. */
+class TurtleWalkMethodIT {
+
+  private static final int DEPTH = 25;
+  private static final int MAX_WALK = 10;
+
+  private OpcUaDemoServer server;
+  private OpcUaClient client;
+
+  private NodeId turtlesFolderNodeId;
+  private NodeId walkNodeId;
+
+  @BeforeEach
+  void setUp(@TempDir Path tempDir) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.turtles.enabled", true,
+                "address-space.turtles.depth", DEPTH,
+                "address-space.turtles.max-walk", MAX_WALK));
+
+    server = OpcUaTestServerBuilder.builder().withDataDir(tempDir).withConfig(config).build();
+    server.startup();
+
+    client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    UShort namespaceIndex =
+        Objects.requireNonNull(
+            server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+
+    turtlesFolderNodeId = new NodeId(namespaceIndex, TurtleNodesFragment.TURTLE_PREFIX);
+    walkNodeId = Util.deriveChildNodeId(turtlesFolderNodeId, "Walk");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    client.disconnect();
+    server.shutdown();
+  }
+
+  @Test
+  void walk_pagesToEndOfChain() throws Exception {
+    CallMethodResult first = walk(turtlesFolderNodeId, ByteString.NULL_VALUE, 0);
+    assertTurtles(first, 0, 10);
+    assertTrue(continuationPoint(first).isNotNull());
+
+    CallMethodResult second = walk(null, continuationPoint(first), 0);
+    assertTurtles(second, 10, 20);
+    assertTrue(continuationPoint(second).isNotNull());
+
+    CallMethodResult last = walk(null, continuationPoint(second), 0);
+    assertTurtles(last, 20, DEPTH);
+    assertTrue(continuationPoint(last).isNull());
+  }
+
+  @Test
+  void walk_maxTurtlesLimitsPage() throws Exception {
+    CallMethodResult result = walk(turtleNodeId(5), ByteString.NULL_VALUE, 3);
+
+    assertTurtles(result, 5, 8);
+    assertTrue(continuationPoint(result).isNotNull());
+
+    assertTurtles(walk(null, continuationPoint(result), 3), 8, 11);
+  }
+
+  @Test
+  void walk_maxTurtlesCappedAtMaxWalk() throws Exception {
+    assertTurtles(walk(turtlesFolderNodeId, ByteString.NULL_VALUE, 1000), 0, MAX_WALK);
+  }
+
+  @Test
+  void walk_fromLastTurtle_endsChain() throws Exception {
+    CallMethodResult result = walk(turtleNodeId(DEPTH - 1), ByteString.NULL_VALUE, 0);
+
+    assertTurtles(result, DEPTH - 1, DEPTH);
+    assertTrue(continuationPoint(result).isNull());
+  }
+
+  @Test
+  void walk_unknownStartingNode() throws Exception {
+    assertEquals(
+        StatusCodes.Bad_NodeIdUnknown,
+        walk(turtleNodeId(DEPTH), ByteString.NULL_VALUE, 0).getStatusCode().getValue());
+  }
+
+  @Test
+  void walk_invalidContinuationPoint() throws Exception {
+    assertEquals(
+        StatusCodes.Bad_ContinuationPointInvalid,
+        walk(null, ByteString.of(new byte[] {1, 2, 3}), 0).getStatusCode().getValue());
+
+    ByteString pastEnd = ByteString.of(new byte[] {0, 0, 0, 0, 0, 0, 0, DEPTH});
+    assertEquals(
+        StatusCodes.Bad_ContinuationPointInvalid,
+        walk(null, pastEnd, 0).getStatusCode().getValue());
+  }
+
+  private CallMethodResult walk(
+      @Nullable NodeId startingNodeId, ByteString continuationPoint, long maxTurtles)
+      throws Exception {
+
+    var request =
+        new CallMethodRequest(
+            turtlesFolderNodeId,
+            walkNodeId,
+            new Variant[] {
+              new Variant(startingNodeId),
+              new Variant(continuationPoint),
+              new Variant(uint(maxTurtles))
+            });
+
+    CallMethodResult[] results = Objects.requireNonNull(client.call(List.of(request)).getResults());
+
+    assertEquals(1, results.length);
+    return results[0];
+  }
+
+  private void assertTurtles(CallMethodResult result, long from, long to) {
+    assertTrue(result.getStatusCode().isGood(), result.getStatusCode().toString());
+
+    NodeId[] expected =
+        LongStream.range(from, to).mapToObj(this::turtleNodeId).toArray(NodeId[]::new);
+
+    assertArrayEquals(expected, (NodeId[]) result.getOutputArguments()[0].getValue());
+  }
+
+  private static ByteString continuationPoint(CallMethodResult result) {
+    Object value = result.getOutputArguments()[1].getValue();
+
+    return value instanceof ByteString continuationPoint
+        ? continuationPoint
+        : ByteString.NULL_VALUE;
+  }
+
+  private NodeId turtleNodeId(long turtleNumber) {
+    return new NodeId(
+        turtlesFolderNodeId.getNamespaceIndex(), TurtleNodesFragment.TURTLE_PREFIX + turtleNumber);
+  }
+}
@@ -0,0 +1,176 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ValueLogTest {
+
+  private static final int GROWTH_BYTES = 64;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void replay_emptyLog() throws IOException {
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      assertEquals(-1, log.replay(record -> {}));
+      assertEquals(Integer.BYTES, log.position());
+    }
+  }
+
+  @Test
+  void replay_returnsRecordsInAppendOrder() throws IOException {
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+      log.append(bytes("a"));
+      log.append(bytes("bb"));
+      log.append(bytes("a"));
+      log.force();
+    }
+
+    assertEquals(List.of("a", "bb", "a"), replay());
+  }
+
+  @Test
+  void append_afterReplayContinuesTheLog() throws IOException {
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+      log.append(bytes("a"));
+    }
+
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+      log.append(bytes("b"));
+    }
+
+    assertEquals(List.of("a", "b"), replay());
+  }
+
+  @Test
+  void append_growsTheMapping() throws IOException {
+    var expected = new ArrayList<String>();
+
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+
+      for (int i = 0; i < 20; i++) {
+        String record = "record-%02d".formatted(i);
+        log.append(bytes(record));
+        expected.add(record);
+      }
+
+      assertTrue(log.capacity() > GROWTH_BYTES, "capacity: " + log.capacity());
+    }
+
+    assertEquals(expected, replay());
+  }
+
+  @Test
+  void compact_replacesTheRecords() throws IOException {
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+
+      for (int i = 0; i < 20; i++) {
+        log.append(bytes("record-%02d".formatted(i)));
+      }
+
+      log.compact(List.of(bytes("x"), bytes("yy")));
+
+      assertEquals(
+          Integer.BYTES + ValueLog.recordSize(bytes("x")) + ValueLog.recordSize(bytes("yy")),
+          log.position());
+
+      log.append(bytes("z"));
+    }
+
+    assertEquals(List.of("x", "yy", "z"), replay());
+    assertTrue(Files.notExists(tempDir.resolve("values.log.compact")));
+  }
+
+  @Test
+  void replay_stopsAtRecordThatFailsItsCrc() throws IOException {
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+      log.append(bytes("a"));
+      log.append(bytes("b"));
+      log.append(bytes("c"));
+    }
+
+    // flip the contents of "b".
+    int damaged = Integer.BYTES + ValueLog.recordSize(bytes("a"));
+    try (var file = new RandomAccessFile(logPath().toFile(), "rw")) {
+      file.seek(damaged + 2L * Integer.BYTES);
+      file.write('x');
+    }
+
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      var records = new ArrayList<String>();
+      assertEquals(damaged, log.replay(record -> records.add(string(record))));
+      assertEquals(List.of("a"), records);
+
+      // appends overwrite the damaged tail.
+      log.append(bytes("d"));
+    }
+
+    assertEquals(List.of("a", "d"), replay());
+  }
+
+  @Test
+  void replay_stopsAtTornLength() throws IOException {
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      log.replay(record -> {});
+      log.append(bytes("a"));
+    }
+
+    int torn = Integer.BYTES + ValueLog.recordSize(bytes("a"));
+    try (var file = new RandomAccessFile(logPath().toFile(), "rw")) {
+      file.seek(torn);
+      file.writeInt(Integer.MAX_VALUE);
+    }
+
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      var records = new ArrayList<String>();
+      assertEquals(torn, log.replay(record -> records.add(string(record))));
+      assertEquals(List.of("a"), records);
+    }
+  }
+
+  @Test
+  void open_rejectsForeignMagic() throws IOException {
+    Files.write(logPath(), new byte[] {'M', 'V', 'L', '1', 0, 0, 0, 0});
+
+    assertThrows(IOException.class, () -> ValueLog.open(logPath(), GROWTH_BYTES));
+  }
+
+  private Path logPath() {
+    return tempDir.resolve("values.log");
+  }
+
+  private List<String> replay() throws IOException {
+    var records = new ArrayList<String>();
+
+    try (ValueLog log = ValueLog.open(logPath(), GROWTH_BYTES)) {
+      assertEquals(-1, log.replay(record -> records.add(string(record))));
+    }
+
+    return records;
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
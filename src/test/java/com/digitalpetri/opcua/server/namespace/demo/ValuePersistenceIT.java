@@ -0,0 +1,141 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Integration tests for {@link ValuePersistence}, restarting servers that share a data dir. */
+class ValuePersistenceIT {
+
+  @TempDir Path dataDir;
+
+  private OpcUaDemoServer server;
+  private OpcUaClient client;
+
+  private NodeId variantNode;
+  private NodeId massNode;
+
+  @AfterEach
+  void tearDown() throws Exception {
+    stop();
+  }
+
+  @Test
+  void restart_restoresWrittenValues() throws Exception {
+    start(false);
+    write(variantNode, 42);
+    write(massNode, 43);
+    stop();
+
+    start(false);
+    assertEquals(42, readValue(variantNode));
+    assertEquals(43, readValue(massNode));
+  }
+
+  @Test
+  void restart_restoresLatestValue() throws Exception {
+    start(false);
+    write(variantNode, 1);
+    write(massNode, 2);
+    stop();
+
+    start(false);
+    write(variantNode, 3);
+    write(massNode, 4);
+    stop();
+
+    start(false);
+    assertEquals(3, readValue(variantNode));
+    assertEquals(4, readValue(massNode));
+  }
+
+  @Test
+  void restart_restoresVirtualMassValues() throws Exception {
+    // written virtual nodes are no longer materialized when the values are flushed.
+    start(true);
+    write(massNode, 44);
+    stop();
+
+    start(true);
+    assertEquals(44, readValue(massNode));
+  }
+
+  private void start(boolean virtualMass) throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.mass.enabled", true,
+                "address-space.mass.virtual", virtualMass,
+                "address-space.mass.nested-quantity1", 3,
+                "address-space.mass.nested-quantity2", 4,
+                "persistence.enabled", true,
+                "persistence.flush-interval", "100ms"));
+
+    server = OpcUaTestServerBuilder.builder().withDataDir(dataDir).withConfig(config).build();
+    server.startup();
+
+    client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    UShort namespaceIndex =
+        Objects.requireNonNull(
+            server.getServer().getNamespaceTable().getIndex(DemoNamespace.NAMESPACE_URI));
+
+    variantNode = new NodeId(namespaceIndex, "Demo.Variants.Scalar.Int32");
+    massNode = new NodeId(namespaceIndex, "Demo.Mass.Nested.1.2");
+  }
+
+  /** Stop the server, which flushes the values written since the last flush. */
+  private void stop() throws Exception {
+    if (client != null) {
+      client.disconnect();
+      client = null;
+    }
+    if (server != null) {
+      server.shutdown();
+      server = null;
+    }
+  }
+
+  private void write(NodeId nodeId, int value) throws Exception {
+    var writeValue =
+        new WriteValue(
+            nodeId, AttributeId.Value.uid(), null, new DataValue(Variant.ofInt32(value)));
+
+    StatusCode[] results = Objects.requireNonNull(client.write(List.of(writeValue)).getResults());
+
+    assertEquals(StatusCode.GOOD, results[0]);
+  }
+
+  private Object readValue(NodeId nodeId) throws Exception {
+    var readValueId =
+        new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+    DataValue[] values =
+        Objects.requireNonNull(
+            client.read(0.0, TimestampsToReturn.Neither, List.of(readValueId)).getResults());
+
+    return values[0].getValue().getValue();
+  }
+}
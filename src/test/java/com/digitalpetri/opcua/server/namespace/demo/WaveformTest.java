@@ -0,0 +1,57 @@
+package com.digitalpetri.opcua.server.namespace.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class WaveformTest {
+
+  private static final double AMPLITUDE = 100.0;
+  private static final double DELTA = 1e-9;
+
+  private final SplittableRandom random = new SplittableRandom(0);
+
+  @Test
+  void ramp_risesLinearlyOverPeriod() {
+    assertEquals(0.0, Waveform.Ramp.next(0.0, 0.0, AMPLITUDE, random), DELTA);
+    assertEquals(25.0, Waveform.Ramp.next(0.0, 0.25, AMPLITUDE, random), DELTA);
+    assertEquals(99.0, Waveform.Ramp.next(0.0, 0.99, AMPLITUDE, random), DELTA);
+  }
+
+  @Test
+  void sine_peaksAtQuarterPeriods() {
+    assertEquals(0.0, Waveform.Sine.next(0.0, 0.0, AMPLITUDE, random), DELTA);
+    assertEquals(AMPLITUDE, Waveform.Sine.next(0.0, 0.25, AMPLITUDE, random), DELTA);
+    assertEquals(0.0, Waveform.Sine.next(0.0, 0.5, AMPLITUDE, random), DELTA);
+    assertEquals(-AMPLITUDE, Waveform.Sine.next(0.0, 0.75, AMPLITUDE, random), DELTA);
+  }
+
+  @Test
+  void step_switchesAtHalfPeriod() {
+    assertEquals(0.0, Waveform.Step.next(0.0, 0.0, AMPLITUDE, random));
+    assertEquals(0.0, Waveform.Step.next(0.0, 0.49, AMPLITUDE, random));
+    assertEquals(AMPLITUDE, Waveform.Step.next(0.0, 0.5, AMPLITUDE, random));
+    assertEquals(AMPLITUDE, Waveform.Step.next(0.0, 0.99, AMPLITUDE, random));
+  }
+
+  @Test
+  void randomWalk_stepsAtMostOnePercentOfAmplitude() {
+    double value = 0.0;
+    for (int i = 0; i < 10_000; i++) {
+      double next = Waveform.RandomWalk.next(value, 0.0, AMPLITUDE, random);
+      assertTrue(Math.abs(next - value) <= AMPLITUDE * 0.01 + DELTA, "step " + (next - value));
+      value = next;
+    }
+  }
+
+  @Test
+  void randomWalk_staysWithinAmplitude() {
+    double value = AMPLITUDE;
+    for (int i = 0; i < 10_000; i++) {
+      value = Waveform.RandomWalk.next(value, 0.0, AMPLITUDE, random);
+      assertTrue(value >= -AMPLITUDE && value <= AMPLITUDE, "value " + value);
+    }
+  }
+}
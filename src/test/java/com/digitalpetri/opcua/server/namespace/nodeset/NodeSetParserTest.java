@@ -0,0 +1,140 @@
+package com.digitalpetri.opcua.server.namespace.nodeset;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.encoding.DefaultEncodingContext;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.junit.jupiter.api.Test;
+
+class NodeSetParserTest {
+
+  private static final String HEADER =
+      """
+      <UANodeSet xmlns="http://opcfoundation.org/UA/2011/03/UANodeSet.xsd">
+        <NamespaceUris>
+          <Uri>urn:test:model</Uri>
+          <Uri>urn:test:dependency</Uri>
+        </NamespaceUris>
+        <Aliases>
+          <Alias Alias="Int32">i=6</Alias>
+        </Aliases>
+      </UANodeSet>
+      """;
+
+  @Test
+  void readNamespaceUris_returnsUrisInDocumentOrder() throws Exception {
+    List<String> namespaceUris = NodeSetParser.readNamespaceUris(stream(HEADER));
+
+    assertEquals(List.of("urn:test:model", "urn:test:dependency"), namespaceUris);
+  }
+
+  @Test
+  void nodeId_remapsNamespaceIndexAndResolvesAliases() throws Exception {
+    var namespaceTable = new NamespaceTable();
+    namespaceTable.add("urn:test:other");
+    namespaceTable.add("urn:test:dependency");
+    namespaceTable.add("urn:test:model");
+
+    NodeSetParser parser = parserWithHeader(namespaceTable);
+
+    assertEquals(new NodeId(3, 1001), parser.nodeId("ns=1;i=1001"));
+    assertEquals(new NodeId(2, "Foo"), parser.nodeId("ns=2;s=Foo"));
+    assertEquals(new NodeId(0, 6), parser.nodeId("Int32"));
+  }
+
+  @Test
+  void decodeValue_decodesScalarsAndLists() throws Exception {
+    var parser = new NodeSetParser(new NamespaceTable(), DefaultEncodingContext.INSTANCE);
+
+    assertEquals(42, parser.decodeValue(element("<Int32>42</Int32>")));
+    assertEquals(uint(7), parser.decodeValue(element("<UInt32>7</UInt32>")));
+    assertEquals("foo", parser.decodeValue(element("<String>foo</String>")));
+    assertEquals(
+        new LocalizedText("en", "Text"),
+        parser.decodeValue(
+            element("<LocalizedText><Locale>en</Locale><Text>Text</Text></LocalizedText>")));
+
+    assertArrayEquals(
+        new UInteger[] {uint(1), uint(2)},
+        (UInteger[])
+            parser.decodeValue(
+                element("<ListOfUInt32><UInt32>1</UInt32><UInt32>2</UInt32></ListOfUInt32>")));
+  }
+
+  @Test
+  void decodeValue_returnsNullForUnsupportedTypes() throws Exception {
+    var parser = new NodeSetParser(new NamespaceTable(), DefaultEncodingContext.INSTANCE);
+
+    assertNull(parser.decodeValue(element("<XmlElement><Foo/></XmlElement>")));
+    assertNull(
+        parser.decodeValue(
+            element("<ExtensionObject><Body><Foo><A>1</A></Foo></Body></ExtensionObject>")));
+  }
+
+  @Test
+  void decodeValue_usesXmlSchemaSyntax() throws Exception {
+    var parser = new NodeSetParser(new NamespaceTable(), DefaultEncodingContext.INSTANCE);
+
+    assertEquals(Float.POSITIVE_INFINITY, parser.decodeValue(element("<Float>INF</Float>")));
+    assertEquals(Double.NEGATIVE_INFINITY, parser.decodeValue(element("<Double>-INF</Double>")));
+    assertEquals(Double.NaN, parser.decodeValue(element("<Double>NaN</Double>")));
+
+    // without an offset, a DateTime is UTC.
+    assertEquals(
+        new DateTime(Instant.parse("2020-01-02T03:04:05Z")),
+        parser.decodeValue(element("<DateTime>2020-01-02T03:04:05</DateTime>")));
+    assertEquals(
+        new DateTime(Instant.parse("2020-01-02T02:04:05Z")),
+        parser.decodeValue(element("<DateTime>2020-01-02T03:04:05+01:00</DateTime>")));
+  }
+
+  @Test
+  void decodeValue_returnsNullForMalformedValues() throws Exception {
+    var parser = new NodeSetParser(new NamespaceTable(), DefaultEncodingContext.INSTANCE);
+
+    assertNull(parser.decodeValue(element("<Int32>forty-two</Int32>")));
+    assertNull(parser.decodeValue(element("<Double>1,5</Double>")));
+    assertNull(parser.decodeValue(element("<DateTime>yesterday</DateTime>")));
+    assertNull(
+        parser.decodeValue(element("<ListOfInt32><Int32>1</Int32><Int32>x</Int32></ListOfInt32>")));
+  }
+
+  private static NodeSetParser parserWithHeader(NamespaceTable namespaceTable) throws Exception {
+    var parser = new NodeSetParser(namespaceTable, DefaultEncodingContext.INSTANCE);
+
+    // a document with only a header: sets up the namespace mapping and aliases, adds no nodes.
+    parser.parse(stream(HEADER), null, null);
+
+    return parser;
+  }
+
+  private static ByteArrayInputStream stream(String xml) {
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static XmlNode element(String xml) throws Exception {
+    XMLStreamReader reader =
+        XMLInputFactory.newFactory().createXMLStreamReader(new StringReader(xml));
+
+    while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+      // advance to the root element
+    }
+
+    return XmlNode.read(reader);
+  }
+}
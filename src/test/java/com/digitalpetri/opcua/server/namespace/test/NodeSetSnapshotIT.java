@@ -0,0 +1,207 @@
+package com.digitalpetri.opcua.server.namespace.test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.OpcUaDemoServer;
+import com.digitalpetri.opcua.server.OpcUaTestClient;
+import com.digitalpetri.opcua.server.OpcUaTestServerBuilder;
+import com.typesafe.config.ConfigFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.NodeIds;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseDirection;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseResultMask;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReferenceDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Integration tests for {@link NodeSetSnapshot}, verifying that the DataTypeTest nodes restored
+ * from a snapshot can't be told apart from those parsed from the NodeSet XML.
+ */
+class NodeSetSnapshotIT {
+
+  private static final List<AttributeId> ATTRIBUTES =
+      List.of(
+          AttributeId.NodeClass,
+          AttributeId.BrowseName,
+          AttributeId.DisplayName,
+          AttributeId.Description,
+          AttributeId.WriteMask,
+          AttributeId.EventNotifier,
+          AttributeId.Value,
+          AttributeId.DataType,
+          AttributeId.ValueRank,
+          AttributeId.ArrayDimensions,
+          AttributeId.AccessLevel,
+          AttributeId.Historizing,
+          AttributeId.IsAbstract,
+          AttributeId.DataTypeDefinition);
+
+  @TempDir Path dataDir;
+
+  @Test
+  void restoredNodesMatchParsedNodes() throws Exception {
+    Path snapshotPath = dataDir.resolve("cache").resolve("DataTypeTest.snapshot");
+
+    // parses the NodeSet XML and writes the snapshot.
+    Set<String> parsed = browseDataTypeTestNodes();
+    assertTrue(Files.isRegularFile(snapshotPath));
+
+    // a snapshot that's read isn't written again.
+    var modified = FileTime.fromMillis(0L);
+    Files.setLastModifiedTime(snapshotPath, modified);
+
+    Set<String> restored = browseDataTypeTestNodes();
+    assertEquals(modified, Files.getLastModifiedTime(snapshotPath));
+
+    assertTrue(parsed.size() > 1, "nothing browsed");
+    assertEquals(parsed, restored);
+  }
+
+  /**
+   * Start a server and browse the address space for the DataTypeTest nodes.
+   *
+   * @return the attributes of each DataTypeTest node and each reference, in either direction, that
+   *     has a DataTypeTest node as its source or target.
+   */
+  private Set<String> browseDataTypeTestNodes() throws Exception {
+    var config =
+        ConfigFactory.parseMap(
+            Map.of(
+                "address-space.data-type-test.enabled", true,
+                "address-space.data-type-test.snapshot", true));
+
+    OpcUaDemoServer server =
+        OpcUaTestServerBuilder.builder().withDataDir(dataDir).withConfig(config).build();
+    server.startup();
+
+    OpcUaClient client = OpcUaTestClient.create(server.getServer());
+    client.connect();
+
+    try {
+      UShort namespaceIndex =
+          Objects.requireNonNull(
+              server
+                  .getServer()
+                  .getNamespaceTable()
+                  .getIndex(DataTypeTestNamespace.NAMESPACE_URI));
+
+      var browsed = new TreeSet<String>();
+      var visited = new HashSet<NodeId>();
+      var queue = new ArrayDeque<NodeId>();
+      queue.add(NodeIds.RootFolder);
+
+      while (!queue.isEmpty()) {
+        NodeId nodeId = queue.remove();
+        if (!visited.add(nodeId)) {
+          continue;
+        }
+
+        boolean dataTypeTestNode = nodeId.getNamespaceIndex().equals(namespaceIndex);
+        if (dataTypeTestNode) {
+          browsed.addAll(read(client, nodeId));
+        }
+
+        for (ReferenceDescription reference : browse(client, nodeId)) {
+          NodeId target = reference.getNodeId().toNodeId(client.getNamespaceTable()).orElse(null);
+
+          boolean dataTypeTestTarget =
+              target != null && target.getNamespaceIndex().equals(namespaceIndex);
+
+          if (dataTypeTestNode || dataTypeTestTarget) {
+            browsed.add(
+                "%s %s %s %s %s %s"
+                    .formatted(
+                        nodeId,
+                        reference.getReferenceTypeId(),
+                        reference.getIsForward(),
+                        reference.getNodeId(),
+                        reference.getBrowseName(),
+                        reference.getNodeClass()));
+          }
+
+          // stay within ns0 and the DataTypeTest namespace.
+          if (target != null
+              && reference.getIsForward()
+              && (dataTypeTestTarget || target.getNamespaceIndex().intValue() == 0)) {
+
+            queue.add(target);
+          }
+        }
+      }
+
+      return browsed;
+    } finally {
+      client.disconnect();
+      server.shutdown();
+    }
+  }
+
+  private static List<String> read(OpcUaClient client, NodeId nodeId) throws Exception {
+    var readValueIds = new ArrayList<ReadValueId>();
+    for (AttributeId attributeId : ATTRIBUTES) {
+      readValueIds.add(new ReadValueId(nodeId, attributeId.uid(), null, QualifiedName.NULL_VALUE));
+    }
+
+    DataValue[] values =
+        Objects.requireNonNull(
+            client.read(0.0, TimestampsToReturn.Neither, readValueIds).getResults());
+
+    var attributes = new ArrayList<String>();
+    for (int i = 0; i < values.length; i++) {
+      // deepToString, so array values compare by content.
+      String value = Arrays.deepToString(new Object[] {values[i].getValue().getValue()});
+
+      attributes.add(
+          "%s %s %s %s".formatted(nodeId, ATTRIBUTES.get(i), values[i].getStatusCode(), value));
+    }
+    return attributes;
+  }
+
+  private static ReferenceDescription[] browse(OpcUaClient client, NodeId nodeId)
+      throws Exception {
+
+    var browseDescription =
+        new BrowseDescription(
+            nodeId,
+            BrowseDirection.Both,
+            NodeIds.References,
+            true,
+            uint(0),
+            uint(BrowseResultMask.All.getValue()));
+
+    BrowseResult browseResult = client.browse(browseDescription);
+
+    assertTrue(browseResult.getStatusCode().isGood(), nodeId + ": " + browseResult);
+    ByteString continuationPoint = browseResult.getContinuationPoint();
+    assertTrue(
+        continuationPoint == null || continuationPoint.isNullOrEmpty(), nodeId + " not browsed");
+
+    ReferenceDescription[] references = browseResult.getReferences();
+    return references != null ? references : new ReferenceDescription[0];
+  }
+}
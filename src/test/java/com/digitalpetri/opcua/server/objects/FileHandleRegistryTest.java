@@ -0,0 +1,141 @@
+package com.digitalpetri.opcua.server.objects;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.objects.FileObject.FileHandle;
+import com.digitalpetri.opcua.server.objects.FileObject.FileHandleRegistry;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileHandleRegistryTest {
+
+  private static final NodeId SESSION_1 = new NodeId(1, "session1");
+  private static final NodeId SESSION_2 = new NodeId(1, "session2");
+
+  @TempDir Path tempDir;
+
+  private RandomAccessFile file;
+
+  private final FileHandleRegistry registry = new FileHandleRegistry();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path path = tempDir.resolve("file.bin");
+    Files.write(path, new byte[16]);
+    file = new RandomAccessFile(path.toFile(), "rw");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    file.close();
+  }
+
+  @Test
+  void readersFromManySessionsMayBeOpenConcurrently() throws Exception {
+    FileHandle reader1 = reader();
+    FileHandle reader2 = reader();
+    FileHandle reader3 = reader();
+
+    registry.add(SESSION_1, reader1);
+    registry.add(SESSION_1, reader2);
+    registry.add(SESSION_2, reader3);
+
+    assertEquals(3, registry.size());
+    assertSame(reader1, registry.get(SESSION_1, reader1.handle));
+    assertSame(reader2, registry.get(SESSION_1, reader2.handle));
+    assertNull(registry.get(SESSION_2, reader1.handle));
+  }
+
+  @Test
+  void writerExcludesAllOtherHandles() throws Exception {
+    FileHandle reader = reader();
+    registry.add(SESSION_1, reader);
+
+    UaException notWritable =
+        assertThrows(UaException.class, () -> registry.add(SESSION_2, writer()));
+    assertEquals(StatusCodes.Bad_NotWritable, notWritable.getStatusCode().value());
+
+    registry.remove(SESSION_1, reader.handle);
+    registry.add(SESSION_2, writer());
+    assertTrue(registry.isOpenForWriting());
+
+    UaException notReadable =
+        assertThrows(UaException.class, () -> registry.add(SESSION_1, reader()));
+    assertEquals(StatusCodes.Bad_NotReadable, notReadable.getStatusCode().value());
+  }
+
+  @Test
+  void removeSession_releasesAllOfItsHandles() throws Exception {
+    registry.add(SESSION_1, reader());
+    registry.add(SESSION_1, reader());
+    registry.add(SESSION_2, reader());
+
+    assertEquals(2, registry.removeSession(SESSION_1).size());
+    assertEquals(1, registry.size());
+
+    registry.removeSession(SESSION_2);
+    assertTrue(registry.isEmpty());
+    assertFalse(registry.isOpenForWriting());
+  }
+
+  @Test
+  void add_racingRemoveSession_neverLeaksTheOpenCount() throws Exception {
+    try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+      for (int i = 0; i < 100_000; i++) {
+        var barrier = new CyclicBarrier(2);
+
+        Future<?> add =
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  try {
+                    registry.add(SESSION_1, writer());
+                  } catch (UaException ignored) {
+                    // the Session was removed first.
+                  }
+                  return null;
+                });
+
+        Future<?> remove =
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  return registry.removeSession(SESSION_1);
+                });
+
+        add.get();
+        remove.get();
+
+        // the handle is either rejected, removed with the Session, or removable now.
+        registry.removeSession(SESSION_1);
+        assertTrue(registry.isEmpty(), "open count leaked in iteration " + i);
+      }
+    }
+  }
+
+  private FileHandle reader() {
+    return new FileHandle(ubyte(FileObject.MASK_READ), file);
+  }
+
+  private FileHandle writer() {
+    return new FileHandle(ubyte(FileObject.MASK_WRITE), file);
+  }
+}
@@ -0,0 +1,227 @@
+package com.digitalpetri.opcua.server.objects;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.digitalpetri.opcua.server.objects.FileObject.FileHandle;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileHandleTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void read_returnsShortArrayAtEndOfFile() throws Exception {
+    byte[] contents = contents(100);
+    Path path = tempDir.resolve("small.bin");
+    Files.write(path, contents);
+
+    try (var file = new RandomAccessFile(path.toFile(), "r")) {
+      var handle = new FileHandle(ubyte(FileObject.MASK_READ), file);
+
+      assertArrayEquals(Arrays.copyOfRange(contents, 0, 60), handle.read(60));
+      assertArrayEquals(Arrays.copyOfRange(contents, 60, 100), handle.read(60));
+      assertEquals(0, handle.read(60).length);
+    }
+  }
+
+  @Test
+  void read_servesMappedFilesFromCurrentPosition() throws Exception {
+    int size = (int) FileHandle.MAP_THRESHOLD * 2 + 17;
+    byte[] contents = contents(size);
+    Path path = tempDir.resolve("large.bin");
+    Files.write(path, contents);
+
+    try (var file = new RandomAccessFile(path.toFile(), "r")) {
+      var handle = new FileHandle(ubyte(FileObject.MASK_READ), file);
+      assertFalse(handle.isMapped());
+
+      assertArrayEquals(Arrays.copyOfRange(contents, 0, 1000), handle.read(1000));
+      assertTrue(handle.isMapped());
+
+      handle.setPosition(size - 10);
+      assertArrayEquals(Arrays.copyOfRange(contents, size - 10, size), handle.read(1000));
+      assertEquals(size, handle.getPosition());
+    }
+  }
+
+  @Test
+  void close_dropsTheMapping() throws Exception {
+    Path path = tempDir.resolve("unmapped.bin");
+    Files.write(path, contents((int) FileHandle.MAP_THRESHOLD));
+
+    var handle =
+        new FileHandle(ubyte(FileObject.MASK_READ), new RandomAccessFile(path.toFile(), "r"));
+
+    handle.read(10);
+    assertTrue(handle.isMapped());
+
+    handle.close();
+    assertFalse(handle.isMapped());
+  }
+
+  @Test
+  void read_servesReadsThroughTheReadAheadBuffer() throws Exception {
+    byte[] contents = contents(100);
+    Path path = tempDir.resolve("read-ahead.bin");
+    Files.write(path, contents);
+
+    try (var file = new RandomAccessFile(path.toFile(), "r")) {
+      var handle = new FileHandle(ubyte(FileObject.MASK_READ), file, 16, 0);
+
+      assertArrayEquals(Arrays.copyOfRange(contents, 0, 10), handle.read(10));
+      assertArrayEquals(Arrays.copyOfRange(contents, 10, 50), handle.read(40));
+
+      handle.setPosition(5);
+      assertArrayEquals(Arrays.copyOfRange(contents, 5, 25), handle.read(20));
+
+      handle.setPosition(90);
+      assertArrayEquals(Arrays.copyOfRange(contents, 90, 100), handle.read(20));
+      assertEquals(0, handle.read(20).length);
+    }
+  }
+
+  @Test
+  void read_readsAheadNoFurtherThanTheFile() throws Exception {
+    byte[] contents = contents(100);
+    Path path = tempDir.resolve("read-ahead-small.bin");
+    Files.write(path, contents);
+
+    try (var file = new RandomAccessFile(path.toFile(), "r")) {
+      var handle = new FileHandle(ubyte(FileObject.MASK_READ), file, 1 << 20, 0);
+
+      assertArrayEquals(Arrays.copyOfRange(contents, 0, 60), handle.read(60));
+      assertArrayEquals(Arrays.copyOfRange(contents, 60, 100), handle.read(60));
+      assertEquals(0, handle.read(60).length);
+    }
+  }
+
+  @Test
+  void read_servesInMemoryContents() throws Exception {
+    byte[] contents = contents(100);
+    ByteBuffer buffer = ByteBuffer.wrap(contents).asReadOnlyBuffer();
+
+    var handle1 = new FileHandle(buffer);
+    var handle2 = new FileHandle(buffer);
+
+    assertArrayEquals(Arrays.copyOfRange(contents, 0, 60), handle1.read(60));
+    assertArrayEquals(Arrays.copyOfRange(contents, 0, 10), handle2.read(10));
+    assertArrayEquals(Arrays.copyOfRange(contents, 60, 100), handle1.read(60));
+    assertEquals(0, handle1.read(60).length);
+
+    handle1.close();
+  }
+
+  @Test
+  void read_doesNotShareTheFilePositionBetweenHandles() throws Exception {
+    byte[] contents = contents(100);
+    Path path = tempDir.resolve("shared.bin");
+    Files.write(path, contents);
+
+    try (var file = new RandomAccessFile(path.toFile(), "r")) {
+      var handle1 = new FileHandle(ubyte(FileObject.MASK_READ), file);
+      var handle2 = new FileHandle(ubyte(FileObject.MASK_READ), file);
+
+      assertArrayEquals(Arrays.copyOfRange(contents, 0, 40), handle1.read(40));
+      assertArrayEquals(Arrays.copyOfRange(contents, 0, 10), handle2.read(10));
+      assertArrayEquals(Arrays.copyOfRange(contents, 40, 50), handle1.read(10));
+      assertEquals(0L, file.getFilePointer());
+    }
+  }
+
+  @Test
+  void write_appendsAtEndOfFile() throws Exception {
+    Path path = tempDir.resolve("append.bin");
+    Files.write(path, new byte[] {1, 2, 3});
+
+    try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+      int mode = FileObject.MASK_WRITE | FileObject.MASK_APPEND;
+      var handle = new FileHandle(ubyte(mode), file);
+
+      handle.write(new byte[] {4, 5});
+      handle.write(new byte[] {6});
+
+      assertEquals(6L, handle.getPosition());
+    }
+
+    assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6}, Files.readAllBytes(path));
+  }
+
+  @Test
+  void write_buffersWritesUntilFlushed() throws Exception {
+    Path path = tempDir.resolve("write-behind.bin");
+
+    try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+      var handle = new FileHandle(ubyte(FileObject.MASK_WRITE), file, 0, 8);
+
+      handle.write(new byte[] {1, 2, 3});
+      handle.write(new byte[] {4, 5, 6});
+      assertEquals(0L, file.length());
+      assertEquals(6L, handle.getPosition());
+
+      // doesn't fit in the remaining buffer: the buffered bytes are written first.
+      handle.write(new byte[] {7, 8, 9});
+      assertEquals(6L, file.length());
+
+      // not contiguous with the buffered bytes: the buffered bytes are written first.
+      handle.setPosition(1L);
+      handle.write(new byte[] {0});
+      assertEquals(9L, file.length());
+
+      handle.flush();
+    }
+
+    assertArrayEquals(new byte[] {1, 0, 3, 4, 5, 6, 7, 8, 9}, Files.readAllBytes(path));
+  }
+
+  @Test
+  void close_flushesBufferedWrites() throws Exception {
+    Path path = tempDir.resolve("close.bin");
+
+    var handle =
+        new FileHandle(
+            ubyte(FileObject.MASK_WRITE), new RandomAccessFile(path.toFile(), "rw"), 0, 1024);
+
+    handle.write(new byte[] {1, 2, 3});
+    handle.close();
+
+    assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(path));
+  }
+
+  @Test
+  void close_reportsFailedFlushOfAcknowledgedWrites() throws Exception {
+    Path path = tempDir.resolve("failed-flush.bin");
+    var file = new RandomAccessFile(path.toFile(), "rw");
+
+    var handle = new FileHandle(ubyte(FileObject.MASK_WRITE), file, 0, 1024);
+
+    // buffered, so it succeeds even though the file can't be written anymore.
+    file.close();
+    handle.write(new byte[] {1, 2, 3});
+    assertEquals(3L, handle.getPosition());
+
+    assertThrows(IOException.class, handle::close);
+
+    // moved back to the end of the bytes that reached the file.
+    assertEquals(0L, handle.getPosition());
+  }
+
+  private static byte[] contents(int size) {
+    var bs = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bs[i] = (byte) (i * 31);
+    }
+    return bs;
+  }
+}